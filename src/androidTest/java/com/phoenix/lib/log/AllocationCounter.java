@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.os.Debug;
+
+/**
+ * Counts the objects the current thread allocates while running a block of code.
+ */
+final class AllocationCounter {
+    private AllocationCounter() {
+    }
+
+    /**
+     * Runs {@code block} {@code times} times to warm up lazily created state and pools, then
+     * again {@code times} times while counting.
+     *
+     * @return the number of objects allocated by the counted runs.
+     */
+    static int count(Runnable block, int times) {
+        for (int i = 0; i < times; i++) {
+            block.run();
+        }
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+
+        for (int i = 0; i < times; i++) {
+            block.run();
+        }
+
+        Debug.stopAllocCounting();
+        return Debug.getThreadAllocCount();
+    }
+}
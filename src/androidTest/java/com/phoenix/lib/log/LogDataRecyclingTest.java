@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+import android.test.AndroidTestCase;
+
+/**
+ * Checks that {@link LogData#setRecycling(boolean) recycling} makes the enabled logging path
+ * allocation-free once the pool is warm.
+ */
+public class LogDataRecyclingTest extends AndroidTestCase {
+    private static final String TAG = "LogDataRecyclingTest";
+    private static final int CALLS = 1000;
+
+    private BaseLog mPrevious;
+    private boolean mWasRecycling;
+    private CountingLog mLog;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPrevious = Logger.getLogger();
+        mWasRecycling = LogData.isRecycling();
+        mLog = new CountingLog();
+        LogData.setRecycling(true);
+        new Logger.Builder().setLogger(mLog);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        new Logger.Builder().setLogger(mPrevious);
+        LogData.setRecycling(mWasRecycling);
+        super.tearDown();
+    }
+
+    public void testEnabledLevelAllocatesNothingOnceWarm() {
+        final Throwable throwable = new IllegalStateException();
+
+        int allocations = AllocationCounter.count(new Runnable() {
+            @Override
+            public void run() {
+                Logger.d(TAG, "plain message");
+                Logger.i(TAG, throwable, "with throwable");
+                Logger.e(TAG, "error message");
+            }
+        }, CALLS);
+
+        assertEquals(0, allocations);
+        assertEquals(CALLS * 2 * 3, mLog.mPrinted);
+    }
+
+    public void testReleasedEntryIsReused() {
+        LogData first = LogData.obtain(LogLevel.DEBUG, TAG, "first", null, null, null);
+        first.release();
+
+        // The pool hands entries out in release order, so the entry comes back within a pool's worth.
+        LogData[] obtained = new LogData[LogData.POOL_SIZE];
+        LogData reused = null;
+
+        for (int i = 0; i < obtained.length && reused == null; i++) {
+            obtained[i] = LogData.obtain(LogLevel.DEBUG, TAG, "second", null, null, null);
+
+            if (obtained[i] == first) {
+                reused = obtained[i];
+            }
+        }
+
+        assertSame(first, reused);
+        assertEquals("second", reused.getMsg());
+
+        for (LogData logData : obtained) {
+            if (logData != null) {
+                logData.release();
+            }
+        }
+    }
+
+    public void testRetainedEntryIsNotReused() {
+        LogData first = LogData.obtain(LogLevel.DEBUG, TAG, "first", null, null, null);
+        first.retain();
+        first.release();
+        LogData second = LogData.obtain(LogLevel.DEBUG, TAG, "second", null, null, null);
+
+        assertNotSame(first, second);
+        assertEquals("first", first.getMsg());
+        first.release();
+        second.release();
+    }
+
+    private static class CountingLog extends BaseLog {
+        int mPrinted;
+
+        @Override
+        protected void print(@NonNull LogData logData) {
+            mPrinted++;
+        }
+    }
+}
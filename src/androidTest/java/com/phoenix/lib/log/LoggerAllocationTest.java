@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+import android.test.AndroidTestCase;
+
+/**
+ * Checks that disabled {@link Logger} calls allocate nothing and that formatting is deferred to
+ * the sinks.
+ */
+public class LoggerAllocationTest extends AndroidTestCase {
+    private static final String TAG = "LoggerAllocationTest";
+    private static final int CALLS = 1000;
+
+    private BaseLog mPrevious;
+    private RecordingLog mLog;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPrevious = Logger.getLogger();
+        mLog = new RecordingLog();
+        new Logger.Builder().setLogger(mLog);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        new Logger.Builder().setLogger(mPrevious);
+        super.tearDown();
+    }
+
+    public void testDisabledLevelAllocatesNothing() {
+        mLog.setEnabledMask(LogLevel.ERROR.getMaskAtLeast());
+        final Object value = "value";
+
+        int allocations = AllocationCounter.count(new Runnable() {
+            @Override
+            public void run() {
+                Logger.v(TAG, "plain message");
+                Logger.d(TAG, "int %d", 42);
+                Logger.d(TAG, "long %d", 42L);
+                Logger.d(TAG, "char %c", 'x');
+                Logger.i(TAG, "double %f", 4.2);
+                Logger.w(TAG, "object %s", value);
+                Logger.d(TAG, "objects %s %s %s", value, value, value);
+            }
+        }, CALLS);
+
+        assertEquals(0, allocations);
+        assertEquals(0, mLog.mPrinted);
+    }
+
+    public void testDisabledTaggedLevelAllocatesNothing() {
+        mLog.setEnabledMask(LogLevel.ERROR.getMaskAtLeast());
+        final TaggedLogger log = Logger.forTag(TAG);
+
+        int allocations = AllocationCounter.count(new Runnable() {
+            @Override
+            public void run() {
+                log.d("int %d", 42);
+                log.d("long %d", 42L);
+                log.i("char %c", 'x');
+                log.w("double %f", 4.2);
+            }
+        }, CALLS);
+
+        assertEquals(0, allocations);
+        assertEquals(0, mLog.mPrinted);
+
+        log.e("%c", 'x');
+        assertEquals("x", mLog.mLast.getMsg());
+    }
+
+    public void testEnabledLevelDefersFormatting() {
+        mLog.setEnabledMask(LogLevel.VERBOSE.getMaskAtLeast());
+
+        int allocations = AllocationCounter.count(new Runnable() {
+            @Override
+            public void run() {
+                Logger.d(TAG, "int %d", 42);
+            }
+        }, CALLS);
+
+        assertEquals(CALLS * 2, mLog.mPrinted);
+        // An entry and its argument array at most; formatting would add a Formatter per call.
+        assertTrue("allocations: " + allocations, allocations <= CALLS * 3);
+    }
+
+    public void testCharArgumentFormats() {
+        Logger.d(TAG, "%c", 'x');
+        assertEquals("x", mLog.mLast.getMsg());
+
+        byte small = 65;
+        Logger.d(TAG, "%c", small);
+        assertEquals("A", mLog.mLast.getMsg());
+    }
+
+    public void testBadFormatKeepsEntry() {
+        Logger.d(TAG, "%d", "text");
+        assertEquals("%d", mLog.mLast.getMsg());
+    }
+
+    private static class RecordingLog extends BaseLog {
+        int mPrinted;
+        LogData mLast;
+
+        @Override
+        protected void print(@NonNull LogData logData) {
+            mPrinted++;
+            mLast = logData;
+        }
+    }
+}
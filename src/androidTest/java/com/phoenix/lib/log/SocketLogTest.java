@@ -0,0 +1,177 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.test.AndroidTestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.ServerSocket;
+
+/**
+ * Streams entries to a {@link LogCollectorServer} on localhost, including while the collector
+ * is down or restarting.
+ */
+public class SocketLogTest extends AndroidTestCase {
+    private static final String TAG = "SocketLogTest";
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private File mSpool;
+    private SocketLog mLog;
+    private LogCollectorServer mServer;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mSpool = new File(getContext().getCacheDir(), "socket-log-test.bin");
+        mSpool.delete();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (mLog != null) {
+            mLog.shutdown();
+        }
+
+        if (mServer != null) {
+            mServer.close();
+        }
+
+        mSpool.delete();
+        super.tearDown();
+    }
+
+    public void testEntriesArriveWithTagAndMessage() throws Exception {
+        StringWriter out = new StringWriter();
+        mServer = startServer(0, out);
+        mLog = new SocketLog.Builder("127.0.0.1", mServer.getPort()).build();
+
+        for (int i = 0; i < 100; i++) {
+            mLog.i(TAG, "entry %d", i);
+        }
+
+        mLog.flush();
+        awaitEntries(100, mServer);
+
+        assertTrue(out.toString(), out.toString().contains("I/" + TAG + ": entry 99"));
+        assertEquals(0, mLog.getDroppedCount());
+    }
+
+    public void testSpoolsWhileCollectorIsDownAndSendsOnReconnect() throws Exception {
+        int port = findFreePort();
+        mLog = new SocketLog.Builder("127.0.0.1", port).setSpoolFile(mSpool).setReconnectDelay(50, 200).build();
+
+        for (int i = 0; i < 100; i++) {
+            mLog.i(TAG, "entry %d", i);
+        }
+
+        mLog.flush();
+        assertFalse(mLog.isConnected());
+        assertTrue(mSpool.length() > 0);
+
+        mServer = startServer(port, new StringWriter());
+        awaitEntries(100, mServer);
+
+        assertEquals(0, mLog.getDroppedCount());
+    }
+
+    public void testCollectorRestartLosesNothing() throws Exception {
+        mServer = startServer(0, new StringWriter());
+        int port = mServer.getPort();
+        mLog = new SocketLog.Builder("127.0.0.1", port).setSpoolFile(mSpool).setBatchSize(1).setReconnectDelay(50, 200).build();
+
+        for (int i = 0; i < 100; i++) {
+            mLog.i(TAG, "entry %d", i);
+        }
+
+        mLog.flush();
+        awaitEntries(100, mServer);
+        LogCollectorServer first = mServer;
+        first.close();
+
+        // Give the closed connection time to reach the sender before logging into it.
+        Thread.sleep(100);
+
+        for (int i = 100; i < 200; i++) {
+            mLog.i(TAG, "entry %d", i);
+            Thread.sleep(1);
+        }
+
+        mServer = startServer(port, new StringWriter());
+        awaitEntries(200, first, mServer);
+
+        assertEquals(0, mLog.getDroppedCount());
+    }
+
+    private static LogCollectorServer startServer(int port, StringWriter out) throws IOException {
+        final LogCollectorServer server = new LogCollectorServer(port, new PrintWriter(out));
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    server.run();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }, TAG);
+        thread.setDaemon(true);
+        thread.start();
+        return server;
+    }
+
+    private static int findFreePort() throws IOException {
+        ServerSocket socket = new ServerSocket(0);
+
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static void awaitEntries(long count, LogCollectorServer... servers) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        long received;
+
+        do {
+            received = 0;
+
+            for (LogCollectorServer server : servers) {
+                received += server.getEntryCount();
+            }
+
+            if (received >= count) {
+                break;
+            }
+
+            Thread.sleep(20);
+        } while (System.currentTimeMillis() < deadline);
+
+        assertEquals(count, received);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.test.AndroidTestCase;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Checks {@link Utf8} against the platform encoder.
+ */
+public class Utf8Test extends AndroidTestCase {
+
+    public void testRoundTrip() throws Exception {
+        String[] samples = {
+                "",
+                "plain ascii",
+                "caf\u00e9 \u00fcber",
+                "\u65e5\u672c\u8a9e",
+                "emoji \ud83d\ude00 pair",
+                "mixed \u007f\u0080\u07ff\u0800\uffff"
+        };
+
+        for (String sample : samples) {
+            byte[] expected = sample.getBytes("UTF-8");
+            byte[] actual = encode(sample);
+
+            assertTrue(sample, Arrays.equals(expected, actual));
+            assertEquals(sample, new String(actual, "UTF-8"));
+        }
+    }
+
+    public void testLoneSurrogateBecomesReplacementCharacter() throws Exception {
+        String[] samples = {"a\ud800b", "a\udc00b", "\ud83d", "b\ude00\ud83d"};
+
+        for (String sample : samples) {
+            byte[] actual = encode(sample);
+            String decoded = new String(actual, "UTF-8");
+
+            assertEquals(sample.replaceAll("[\\ud800-\\udfff]", "\ufffd"), decoded);
+        }
+
+        assertTrue(Arrays.equals(new byte[]{0x61, (byte) 0xEF, (byte) 0xBF, (byte) 0xBD, 0x62}, encode("a\ud800b")));
+    }
+
+    public void testWriteStopsBeforeSplittingCharacter() {
+        String text = "a\ud83d\ude00";
+        ByteBuffer out = ByteBuffer.allocate(3);
+
+        assertEquals(1, Utf8.write(text, 0, text.length(), out));
+        assertEquals(1, out.position());
+    }
+
+    private static byte[] encode(String text) {
+        ByteBuffer out = ByteBuffer.allocate(Utf8.encodedLength(text));
+        assertEquals(text.length(), Utf8.write(text, 0, text.length(), out));
+        assertEquals(out.capacity(), out.position());
+        return out.array();
+    }
+}
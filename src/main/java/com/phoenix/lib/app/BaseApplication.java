@@ -6,6 +6,7 @@ import android.content.Context;
 import com.google.android.gms.analytics.GoogleAnalytics;
 import com.google.android.gms.analytics.Logger;
 import com.phoenix.lib.BuildConfig;
+import com.phoenix.lib.log.MappedBufferLog;
 import com.phoenix.lib.utils.GAUtils;
 
 /**
@@ -26,6 +27,8 @@ public abstract class BaseApplication extends Application {
     public void onCreate() {
         super.onCreate();
         sContext = this;
+        // Keep the black box of the last run; it is replayed once the loggers are configured.
+        MappedBufferLog.preparePreviousSession(this);
 
         if (GAUtils.getInstance(this).isEnabled()) {
             if (BuildConfig.DEBUG) {// Set the log level to verbose.
@@ -37,4 +40,14 @@ public abstract class BaseApplication extends Application {
         }
 
     }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // The process may be killed from here on without further callbacks.
+            com.phoenix.lib.log.Logger.flush();
+        }
+    }
 }
@@ -11,6 +11,7 @@ import android.view.ViewGroup;
 
 import com.phoenix.lib.R;
 import com.phoenix.lib.enums.AnimationDirection;
+import com.phoenix.lib.log.Trace;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -20,6 +21,7 @@ import org.apache.commons.lang3.StringUtils;
  * @author Dylan
  */
 public abstract class BaseFragment extends Fragment implements IBaseView {
+    private static final String TRACE_CREATE_VIEW = "BaseFragment.onCreateView";
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -28,7 +30,13 @@ public abstract class BaseFragment extends Fragment implements IBaseView {
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
-        return inflater.inflate(getLayoutId(), container, false);
+        Trace.begin(TRACE_CREATE_VIEW);
+
+        try {
+            return inflater.inflate(getLayoutId(), container, false);
+        } finally {
+            Trace.end();
+        }
     }
 
     @Override
@@ -40,6 +48,8 @@ public abstract class BaseFragment extends Fragment implements IBaseView {
     public abstract String getFragmentTag();
 
     public static class Transaction {
+        private static final String TRACE_COMMIT = "BaseFragment.Transaction.commit";
+
         private FragmentTransaction mFragmentTransaction;
 
         private Transaction(FragmentTransaction fragmentTransaction) {
@@ -47,11 +57,23 @@ public abstract class BaseFragment extends Fragment implements IBaseView {
         }
 
         public void commit() {
-            mFragmentTransaction.commit();
+            Trace.begin(TRACE_COMMIT);
+
+            try {
+                mFragmentTransaction.commit();
+            } finally {
+                Trace.end();
+            }
         }
 
         public void commitAllowingStateLoss() {
-            mFragmentTransaction.commitAllowingStateLoss();
+            Trace.begin(TRACE_COMMIT);
+
+            try {
+                mFragmentTransaction.commitAllowingStateLoss();
+            } finally {
+                Trace.end();
+            }
         }
 
         public static class Builder {
@@ -24,10 +24,13 @@
 
 package com.phoenix.lib.log;
 
-import android.app.Activity;
 import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.v7.widget.RecyclerView;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -39,41 +42,321 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * Shows log entries in a {@link RecyclerView}. Entries printed from any thread are buffered and
+ * handed to the adapter at most once per frame, so a burst of logging results in one
+ * {@link RecyclerView.Adapter#notifyItemRangeInserted(int, int) insert} per frame instead of
+ * one posted runnable and full rebind per entry.
+ * <p/>
  * date: 10/26/2014.
  *
  * @author Dylan
  */
 public class ArrayAdapterLogger extends BaseLog {
+    /**
+     * Used before {@link Choreographer} exists (API 16).
+     */
+    private static final long FRAME_INTERVAL_MS = 16;
+
     private final LoggerAdapter mAdapter;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Object mLock = new Object();
+    private ArrayList<LogData> mPending = new ArrayList<LogData>();
+    private ArrayList<LogData> mApplying = new ArrayList<LogData>();
+    private boolean mFrameScheduled;
+    private Choreographer.FrameCallback mFrameCallback;
+
+    private final Runnable mScheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                Choreographer.getInstance().postFrameCallback(getFrameCallback());
+            } else {
+                mMainHandler.postDelayed(mApplyPending, FRAME_INTERVAL_MS);
+            }
+        }
+    };
+
+    private final Runnable mApplyPending = new Runnable() {
+        @Override
+        public void run() {
+            applyPending();
+        }
+    };
 
     public ArrayAdapterLogger(LoggerAdapter adapter) {
         mAdapter = adapter;
     }
 
+    /**
+     * Also lays out the entries the adapter shows.
+     */
+    @Override
+    public void setLayout(final PatternLayout layout) {
+        super.setLayout(layout);
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter.setLayout(layout);
+            }
+        });
+    }
+
     @Override
     protected void print(@NonNull final LogData logData) {
-        if (mAdapter.getContext() instanceof Activity) {
-            ((Activity) mAdapter.getContext()).runOnUiThread(new Runnable() {
+        boolean schedule;
+
+        synchronized (mLock) {
+            // Anything beyond the adapter's capacity would be evicted on the next frame anyway;
+            // trim in bulk so a burst stays amortized O(1) per entry.
+            int capacity = mAdapter.getCapacity();
+            if (mPending.size() >= 2 * capacity) {
+                List<LogData> trimmed = mPending.subList(0, mPending.size() - capacity);
+
+                for (int i = 0; i < trimmed.size(); i++) {
+                    trimmed.get(i).release();
+                }
+
+                trimmed.clear();
+            }
+
+            // Kept until the next frame, and by the adapter after that.
+            mPending.add(logData.retain());
+            schedule = !mFrameScheduled;
+            mFrameScheduled = true;
+        }
+
+        if (schedule) {
+            mMainHandler.post(mScheduleFrame);
+        }
+    }
+
+    private Choreographer.FrameCallback getFrameCallback() {
+        if (mFrameCallback == null) {
+            mFrameCallback = new Choreographer.FrameCallback() {
                 @Override
-                public void run() {
-                    mAdapter.add(logData);
-                    mAdapter.notifyDataSetChanged();
+                public void doFrame(long frameTimeNanos) {
+                    applyPending();
                 }
-            });
+            };
         }
+
+        return mFrameCallback;
     }
 
-    public static class LoggerAdapter extends RecyclerView.Adapter<LoggerAdapter.ViewHolder> {
-        private final List<LogData> mValues = new ArrayList<LogData>();
+    /**
+     * Runs on the main thread. Swaps the two batch lists so no allocation happens per frame.
+     */
+    private void applyPending() {
+        ArrayList<LogData> batch;
+
+        synchronized (mLock) {
+            batch = mPending;
+            mPending = mApplying;
+            mApplying = batch;
+            mFrameScheduled = false;
+        }
+
+        mAdapter.addAll(batch);
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).release();
+        }
+
+        batch.clear();
+    }
+
+    /**
+     * Holds the newest entries in a fixed-capacity ring; the oldest entries are dropped once it
+     * is full. Must only be used from the main thread.
+     * <p/>
+     * {@link #setFilter(LogFilter)} switches to showing the entries that match a filter. The
+     * matching runs on a {@link LogFilterEngine} worker thread and the adapter only applies the
+     * snapshots it publishes.
+     */
+    public static class LoggerAdapter extends RecyclerView.Adapter<LoggerAdapter.ViewHolder> implements LogFilterEngine.IOnFilteredListener {
+        public static final int DEFAULT_CAPACITY = 2000;
+
+        private final LogData[] mValues;
         private final Context mContext;
+        private final int[] mLevelColors;
+        private int mStart;
+        private int mSize;
+        private LogFilterEngine mFilterEngine;
+        private LogFilterEngine.Snapshot mSnapshot;
+        private PatternLayout mLayout;
 
         public LoggerAdapter(final Context context) {
+            this(context, DEFAULT_CAPACITY);
+        }
+
+        /**
+         * @param capacity maximum number of entries kept.
+         */
+        public LoggerAdapter(final Context context, int capacity) {
             mContext = context;
+            mValues = new LogData[Math.max(1, capacity)];
+
+            LogLevel[] levels = LogLevel.values();
+            mLevelColors = new int[levels.length];
+            for (LogLevel level : levels) {
+                mLevelColors[level.ordinal()] = level.getColor(context);
+            }
+        }
+
+        /**
+         * Only shows entries matching {@code filter}; pass null or {@link LogFilter#ALL} to show
+         * everything again. The view updates once the background rescan finishes.
+         */
+        public void setFilter(LogFilter filter) {
+            if (filter == null || filter.isMatchAll()) {
+                if (mFilterEngine != null) {
+                    mFilterEngine.quit();
+                    mFilterEngine = null;
+                    mSnapshot = null;
+                    notifyDataSetChanged();
+                }
+
+                return;
+            }
+
+            if (mFilterEngine == null) {
+                mFilterEngine = new LogFilterEngine(mValues.length, this);
+                List<LogData> current = new ArrayList<LogData>(mSize);
+                for (int i = 0; i < mSize; i++) {
+                    current.add(getStored(i));
+                }
+
+                mFilterEngine.append(current);
+                // Nothing is shown until the first snapshot arrives.
+                notifyDataSetChanged();
+            }
+
+            mFilterEngine.setFilter(filter);
+        }
 
+        /**
+         * Shows every entry laid out by {@code layout}, or just its message when null.
+         */
+        public void setLayout(PatternLayout layout) {
+            mLayout = layout;
+            notifyDataSetChanged();
+        }
+
+        /**
+         * Stops the background filter thread, if one is running.
+         */
+        public void release() {
+            setFilter(null);
+        }
+
+        @Override
+        public void onFiltered(LogFilterEngine.Snapshot snapshot) {
+            if (mFilterEngine == null || snapshot.getEngine() != mFilterEngine) {
+                // Filtering was turned off, or restarted, while this snapshot was on its way.
+                return;
+            }
+
+            LogFilterEngine.Snapshot previous = mSnapshot;
+            mSnapshot = snapshot;
+
+            if (snapshot.continues(previous)) {
+                int removed = snapshot.mStart - previous.mStart;
+                int inserted = snapshot.count - (previous.count - removed);
+
+                if (removed > 0) {
+                    notifyItemRangeRemoved(0, removed);
+                }
+
+                if (inserted > 0) {
+                    notifyItemRangeInserted(snapshot.count - inserted, inserted);
+                }
+            } else {
+                notifyDataSetChanged();
+            }
         }
 
         public void add(LogData logData) {
-            mValues.add(logData);
+            List<LogData> single = new ArrayList<LogData>(1);
+            single.add(logData);
+            addAll(single);
+        }
+
+        /**
+         * Appends the entries, evicting the oldest ones if needed, and notifies the removed and
+         * inserted ranges. The adapter {@link LogData#retain() retains} the entries it stores
+         * and releases them once evicted.
+         */
+        public void addAll(List<LogData> entries) {
+            int count = entries.size();
+            int capacity = mValues.length;
+
+            if (count == 0) {
+                return;
+            }
+
+            int skip = Math.max(0, count - capacity);
+            int added = count - skip;
+            int removed = Math.max(0, mSize + added - capacity);
+
+            if (removed > 0) {
+                for (int i = 0; i < removed; i++) {
+                    int slot = (mStart + i) % capacity;
+                    mValues[slot].release();
+                    mValues[slot] = null;
+                }
+
+                mStart = (mStart + removed) % capacity;
+                mSize -= removed;
+
+                if (mFilterEngine == null) {
+                    notifyItemRangeRemoved(0, removed);
+                }
+            }
+
+            int insertAt = mSize;
+            for (int i = skip; i < count; i++) {
+                mValues[(mStart + mSize) % capacity] = entries.get(i).retain();
+                mSize++;
+            }
+
+            if (mFilterEngine != null) {
+                mFilterEngine.append(entries);
+            } else {
+                notifyItemRangeInserted(insertAt, added);
+            }
+        }
+
+        /**
+         * @return the entry shown at {@code index}, taking the filter into account.
+         */
+        public LogData get(int index) {
+            return (mFilterEngine != null && mSnapshot != null) ? mSnapshot.get(index) : getStored(index);
+        }
+
+        private LogData getStored(int index) {
+            return mValues[(mStart + index) % mValues.length];
+        }
+
+        public int getCapacity() {
+            return mValues.length;
+        }
+
+        /**
+         * Removes every entry and turns filtering off.
+         */
+        public void clear() {
+            release();
+
+            for (int i = 0; i < mValues.length; i++) {
+                if (mValues[i] != null) {
+                    mValues[i].release();
+                    mValues[i] = null;
+                }
+            }
+
+            mStart = 0;
+            mSize = 0;
+            notifyDataSetChanged();
         }
 
         public Context getContext() {
@@ -89,13 +372,18 @@ public class ArrayAdapterLogger extends BaseLog {
 
         @Override
         public void onBindViewHolder(ViewHolder viewHolder, int index) {
-            viewHolder.mTextView.setText(mValues.get(index).getMsg());
-            viewHolder.mTextView.setTextColor(mValues.get(index).priority.getColor(mContext));
+            LogData logData = get(index);
+            viewHolder.mTextView.setText((mLayout == null) ? logData.getMsg() : mLayout.format(logData));
+            viewHolder.mTextView.setTextColor(mLevelColors[logData.priority.ordinal()]);
         }
 
         @Override
         public int getItemCount() {
-            return mValues.size();
+            if (mFilterEngine != null) {
+                return (mSnapshot != null) ? mSnapshot.count : 0;
+            }
+
+            return mSize;
         }
 
         public static class ViewHolder extends RecyclerView.ViewHolder {
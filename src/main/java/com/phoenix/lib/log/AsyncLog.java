@@ -0,0 +1,510 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.os.Process;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decorates any {@link BaseLog} so that {@link #print(LogData)} only hands the entry to a
+ * preallocated lock-free ring buffer. A single background thread drains the buffer and prints
+ * to the wrapped sink in batches, so slow sinks never stall the UI or audio threads.
+ * <p/>
+ * What happens when the buffer is full is chosen per instance with an {@link OverflowPolicy};
+ * by default producers wait for space. Dropped entries are counted and reported to the wrapped
+ * sink in a single line once the buffer has room again. The wrapped sink is flushed once a
+ * {@link Builder#setFlushThreshold(int) number of entries} or a
+ * {@link Builder#setFlushInterval(long) time} has passed since the last flush, not every time
+ * the buffer runs empty. Android kills processes without a teardown callback, so call
+ * {@link #flush()} when the process may die, e.g. from {@code onTrimMemory}, rather than
+ * relying on {@link #shutdown()}.
+ */
+public class AsyncLog extends BaseLog {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_FLUSH_THRESHOLD = 512;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    private static final String TAG = AsyncLog.class.getSimpleName();
+    private static final int BATCH_SIZE = 64;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final BaseLog mDelegate;
+    private final LogRingBuffer mBuffer;
+    private final LogData[] mBatch;
+    private final OverflowPolicy mOverflowPolicy;
+    private final long mBlockTimeoutNanos;
+    private final int mDropBelowMask;
+    private final int mFlushThreshold;
+    private final long mFlushIntervalNanos;
+    /**
+     * Entries that left the buffer, printed or evicted.
+     */
+    private final AtomicLong mPrintedCount = new AtomicLong();
+    private final AtomicLong mDroppedCount = new AtomicLong();
+    private final AtomicInteger mHighWaterMark = new AtomicInteger();
+    private final LogMetrics.LatencyHistogram mDelegateLatency;
+    private final Object mFlushLock = new Object();
+    private final Thread mConsumer;
+    private volatile boolean mConsumerParked;
+    private volatile boolean mRunning = true;
+    private volatile boolean mConsumerExited;
+    private long mReportedDrops;
+
+    public AsyncLog(@NonNull BaseLog delegate) {
+        this(new Builder(delegate));
+    }
+
+    /**
+     * @param delegate sink that receives the entries on the background thread.
+     * @param capacity number of entries the buffer can hold, rounded up to a power of two.
+     */
+    public AsyncLog(@NonNull BaseLog delegate, int capacity) {
+        this(new Builder(delegate).setCapacity(capacity));
+    }
+
+    private AsyncLog(Builder builder) {
+        final BaseLog delegate = builder.mDelegate;
+        mDelegate = delegate;
+        mBuffer = new LogRingBuffer(builder.mCapacity);
+        mOverflowPolicy = builder.mOverflowPolicy;
+        mBlockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(builder.mBlockTimeoutMillis);
+        mDropBelowMask = builder.mDropBelowLevel.getMaskAtLeast();
+        mFlushThreshold = builder.mFlushThreshold;
+        mFlushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(builder.mFlushIntervalMillis);
+        mDelegateLatency = LogMetrics.getSinkLatency(delegate);
+        mBatch = new LogData[Math.min(BATCH_SIZE, mBuffer.capacity())];
+        mConsumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                consume();
+            }
+        }, "AsyncLog-" + delegate.getClass().getSimpleName());
+        mConsumer.setDaemon(true);
+        mConsumer.start();
+        LogMetrics.registerQueue(this);
+    }
+
+    public BaseLog getDelegate() {
+        return mDelegate;
+    }
+
+    public int getCapacity() {
+        return mBuffer.capacity();
+    }
+
+    /**
+     * @return number of entries waiting to be printed.
+     */
+    public int getQueueSize() {
+        return mBuffer.size();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return mOverflowPolicy;
+    }
+
+    /**
+     * @return number of entries dropped because the buffer was full.
+     */
+    public long getDroppedCount() {
+        return mDroppedCount.get();
+    }
+
+    /**
+     * @return the most entries the buffer has held since creation or the last
+     * {@link #resetHighWaterMark()}.
+     */
+    public int getHighWaterMark() {
+        return mHighWaterMark.get();
+    }
+
+    public void resetHighWaterMark() {
+        mHighWaterMark.set(mBuffer.size());
+    }
+
+    @Override
+    protected void print(@NonNull LogData logData) {
+        if (!mDelegate.isLevelEnabled(logData.priority, logData.tag)) {
+            return;
+        }
+
+        if (mConsumerExited) {
+            printNow(logData);
+            return;
+        }
+
+        // The queue keeps the entry past this call.
+        logData.retain();
+
+        if (!mBuffer.offer(logData) && !offerWhenFull(logData)) {
+            logData.release();
+            return;
+        }
+
+        updateHighWaterMark();
+
+        if (mConsumerExited) {
+            // The consumer may have finished its final drain before this entry was queued.
+            drainStranded();
+        } else if (mConsumerParked) {
+            LockSupport.unpark(mConsumer);
+        }
+    }
+
+    /**
+     * Applies the overflow policy to an entry that didn't fit.
+     *
+     * @return true if the entry was queued in the end, false if it was dropped or printed on
+     * the calling thread.
+     */
+    private boolean offerWhenFull(LogData logData) {
+        switch (mOverflowPolicy) {
+            case DROP_NEWEST:
+                drop();
+                return false;
+
+            case DROP_OLDEST:
+                while (!mBuffer.offer(logData)) {
+                    LogData evicted = mBuffer.poll();
+
+                    if (evicted != null) {
+                        // Evicted entries count as done, so flush() doesn't wait for them.
+                        evicted.release();
+                        mPrintedCount.incrementAndGet();
+                        drop();
+                    }
+                }
+
+                return true;
+
+            case DROP_BELOW_LEVEL:
+                if ((logData.priority.getValue() & mDropBelowMask) == 0) {
+                    drop();
+                    return false;
+                }
+
+                return awaitSpace(logData);
+
+            default:
+                return awaitSpace(logData);
+        }
+    }
+
+    private boolean awaitSpace(LogData logData) {
+        long start = System.nanoTime();
+
+        while (!mBuffer.offer(logData)) {
+            if (!mRunning || Thread.currentThread() == mConsumer) {
+                printNow(logData);
+                return false;
+            }
+
+            if (mBlockTimeoutNanos > 0 && System.nanoTime() - start >= mBlockTimeoutNanos) {
+                drop();
+                return false;
+            }
+
+            LockSupport.unpark(mConsumer);
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+
+        return true;
+    }
+
+    private void drop() {
+        mDroppedCount.incrementAndGet();
+        LogMetrics.onDropped(1);
+    }
+
+    private void updateHighWaterMark() {
+        int size = mBuffer.size();
+        int mark;
+
+        while (size > (mark = mHighWaterMark.get()) && !mHighWaterMark.compareAndSet(mark, size)) {
+            // Retry until the mark is at least this size.
+        }
+    }
+
+    /**
+     * Blocks until every entry printed before this call has reached the wrapped sink, then
+     * flushes that sink.
+     */
+    @Override
+    public void flush() {
+        if (Thread.currentThread() != mConsumer) {
+            awaitPrinted(mBuffer.getOfferedCount());
+        }
+
+        mDelegate.flush();
+    }
+
+    /**
+     * Drains the buffer, stops the background thread and shuts the wrapped sink down. The
+     * background thread prints the last entries and shuts the wrapped sink down itself, so the
+     * sink is never used from two threads; this waits up to a second for it. Entries printed
+     * once it has exited go straight to the wrapped sink on the calling thread.
+     */
+    @Override
+    public void shutdown() {
+        if (!mRunning) {
+            return;
+        }
+
+        flush();
+        mRunning = false;
+        LockSupport.unpark(mConsumer);
+
+        try {
+            mConsumer.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Prints entries producers queued while the consumer was exiting, on the calling thread.
+     */
+    private void drainStranded() {
+        LogData logData;
+
+        while ((logData = mBuffer.poll()) != null) {
+            printNow(logData);
+            logData.release();
+            mPrintedCount.incrementAndGet();
+        }
+    }
+
+    private void awaitPrinted(long target) {
+        boolean interrupted = false;
+
+        synchronized (mFlushLock) {
+            while (mRunning && mPrintedCount.get() < target) {
+                LockSupport.unpark(mConsumer);
+
+                try {
+                    mFlushLock.wait(10);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consume() {
+        int unflushed = 0;
+        long lastFlush = System.nanoTime();
+
+        while (true) {
+            int count = mBuffer.drainTo(mBatch);
+
+            if (count > 0) {
+                printBatch(count);
+                unflushed += count;
+            } else if (!mRunning) {
+                break;
+            } else {
+                reportDrops();
+            }
+
+            long sinceFlush = System.nanoTime() - lastFlush;
+
+            if (unflushed > 0 && (unflushed >= mFlushThreshold || sinceFlush >= mFlushIntervalNanos)) {
+                mDelegate.flush();
+                unflushed = 0;
+                lastFlush = System.nanoTime();
+                sinceFlush = 0;
+            }
+
+            if (count > 0) {
+                continue;
+            }
+
+            mConsumerParked = true;
+
+            if (mBuffer.isEmpty() && mRunning) {
+                // Wake up in time for the pending flush, if there is one.
+                LockSupport.parkNanos(this, (unflushed > 0) ? Math.min(IDLE_PARK_NANOS, mFlushIntervalNanos - sinceFlush) : IDLE_PARK_NANOS);
+            }
+
+            mConsumerParked = false;
+        }
+
+        int count;
+        while ((count = mBuffer.drainTo(mBatch)) > 0) {
+            printBatch(count);
+        }
+
+        // From here on producers print themselves; entries they queued before noticing are
+        // picked up by this last drain or by theirs.
+        mConsumerExited = true;
+        drainStranded();
+        reportDrops();
+        mDelegate.shutdown();
+    }
+
+    /**
+     * Tells the wrapped sink how many entries were dropped since the last report.
+     */
+    private void reportDrops() {
+        long dropped = mDroppedCount.get();
+
+        if (dropped != mReportedDrops) {
+            if (mDelegate.isLevelEnabled(LogLevel.WARNING, TAG)) {
+                printNow(new LogData(LogLevel.WARNING, TAG, "Dropped " + (dropped - mReportedDrops) + " log entries, the queue was full"));
+            }
+
+            mReportedDrops = dropped;
+        }
+    }
+
+    private void printBatch(int count) {
+        for (int i = 0; i < count; i++) {
+            printNow(mBatch[i]);
+            mBatch[i].release();
+            mBatch[i] = null;
+        }
+
+        mPrintedCount.addAndGet(count);
+
+        synchronized (mFlushLock) {
+            mFlushLock.notifyAll();
+        }
+    }
+
+    private void printNow(LogData logData) {
+        try {
+            LogMetrics.print(mDelegate, logData, mDelegateLatency);
+        } catch (RuntimeException e) {
+            // A failing sink must not kill the consumer thread; there is nowhere left to report it.
+        }
+    }
+
+    /**
+     * What a producer does when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Wait for space, up to the {@link Builder#setBlockTimeout(long) block timeout}, then
+         * drop the entry.
+         */
+        BLOCK,
+        /**
+         * Drop the entry being printed.
+         */
+        DROP_NEWEST,
+        /**
+         * Evict the oldest queued entries to make room.
+         */
+        DROP_OLDEST,
+        /**
+         * Drop entries below the {@link Builder#setDropBelowLevel(LogLevel) configured level},
+         * wait for space like {@link #BLOCK} for the others.
+         */
+        DROP_BELOW_LEVEL
+    }
+
+    public static class Builder {
+        private final BaseLog mDelegate;
+        private int mCapacity = DEFAULT_CAPACITY;
+        private OverflowPolicy mOverflowPolicy = OverflowPolicy.BLOCK;
+        private long mBlockTimeoutMillis;
+        private LogLevel mDropBelowLevel = LogLevel.WARNING;
+        private int mFlushThreshold = DEFAULT_FLUSH_THRESHOLD;
+        private long mFlushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+
+        /**
+         * @param delegate sink that receives the entries on the background thread.
+         */
+        public Builder(@NonNull BaseLog delegate) {
+            mDelegate = delegate;
+        }
+
+        /**
+         * @param capacity number of entries the buffer can hold, rounded up to a power of two.
+         */
+        public Builder setCapacity(int capacity) {
+            mCapacity = capacity;
+            return this;
+        }
+
+        public Builder setOverflowPolicy(@NonNull OverflowPolicy policy) {
+            mOverflowPolicy = policy;
+            return this;
+        }
+
+        /**
+         * @param millis how long a producer waits for space before dropping its entry, 0 (the
+         *               default) to wait as long as it takes.
+         */
+        public Builder setBlockTimeout(long millis) {
+            mBlockTimeoutMillis = Math.max(0, millis);
+            return this;
+        }
+
+        /**
+         * Selects {@link OverflowPolicy#DROP_BELOW_LEVEL}.
+         *
+         * @param level entries below this level are dropped when the buffer is full,
+         *              {@link LogLevel#WARNING} by default.
+         */
+        public Builder setDropBelowLevel(@NonNull LogLevel level) {
+            mDropBelowLevel = level;
+            mOverflowPolicy = OverflowPolicy.DROP_BELOW_LEVEL;
+            return this;
+        }
+
+        /**
+         * @param entries entries printed to the wrapped sink after which it is flushed,
+         *                {@link #DEFAULT_FLUSH_THRESHOLD} by default.
+         */
+        public Builder setFlushThreshold(int entries) {
+            mFlushThreshold = Math.max(1, entries);
+            return this;
+        }
+
+        /**
+         * @param millis longest time printed entries wait for the wrapped sink to be flushed,
+         *               {@link #DEFAULT_FLUSH_INTERVAL_MILLIS} by default.
+         */
+        public Builder setFlushInterval(long millis) {
+            mFlushIntervalMillis = Math.max(0, millis);
+            return this;
+        }
+
+        public AsyncLog build() {
+            return new AsyncLog(this);
+        }
+    }
+}
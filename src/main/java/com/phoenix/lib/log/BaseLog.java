@@ -26,10 +26,12 @@ package com.phoenix.lib.log;
 
 import android.support.annotation.NonNull;
 
+import java.util.Collections;
 import java.util.EnumSet;
-import java.util.Objects;
-
-import static java.util.Arrays.asList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * date: 10/26/2014.
@@ -37,62 +39,257 @@ import static java.util.Arrays.asList;
  * @author Dylan
  */
 public abstract class BaseLog {
-    protected final EnumSet<LogLevel> mEnabledLevels = EnumSet.allOf(LogLevel.class);
+    private static final AtomicInteger sConfigGeneration = new AtomicInteger();
+    private final AtomicReference<Levels> mLevels = new AtomicReference<Levels>(Levels.ALL);
+    private final ThrowableRenderer mThrowableRenderer = new ThrowableRenderer();
+    private volatile PatternLayout mLayout;
 
     public void enableLogLevel(LogLevel level) {
-        if (!mEnabledLevels.contains(level)) {
-            mEnabledLevels.add(level);
-        }
+        updateEnabledMask(level.getValue(), 0);
     }
 
     public void disableLevel(LogLevel level) {
-        if (mEnabledLevels.contains(level)) {
-            mEnabledLevels.remove(level);
-        }
+        updateEnabledMask(0, level.getValue());
     }
 
     public boolean isLevelEnabled(LogLevel level) {
-        return mEnabledLevels.contains(level);
+        return (mLevels.get().mMask & level.getValue()) != 0;
     }
 
-    public void enableLevels(LogLevel... levels) {
-        for (LogLevel level : levels) {
-            if (!mEnabledLevels.contains(level)) {
-                mEnabledLevels.add(level);
+    /**
+     * @return whether {@code level} is enabled for {@code tag}, taking per-tag overrides into
+     * account.
+     */
+    public boolean isLevelEnabled(LogLevel level, String tag) {
+        return (mLevels.get().getMask(tag) & level.getValue()) != 0;
+    }
+
+    /**
+     * @return bitmask of the globally enabled {@link LogLevel#getValue() levels}.
+     */
+    public int getEnabledMask() {
+        return mLevels.get().mMask;
+    }
+
+    /**
+     * @return a copy of the globally enabled levels. Changing the copy has no effect; use
+     * {@link #enableLevels(LogLevel...)}, {@link #disableLevels(LogLevel...)} or
+     * {@link #setEnabledMask(int)} instead.
+     * @deprecated replaces the removed {@code mEnabledLevels} field for subclasses that read it;
+     * use {@link #getEnabledMask()} or {@link #isLevelEnabled(LogLevel)}.
+     */
+    @Deprecated
+    protected EnumSet<LogLevel> getEnabledLevels() {
+        int mask = mLevels.get().mMask;
+        EnumSet<LogLevel> levels = EnumSet.noneOf(LogLevel.class);
+
+        for (LogLevel level : LogLevel.values()) {
+            if ((mask & level.getValue()) != 0) {
+                levels.add(level);
             }
         }
+
+        return levels;
     }
 
-    public void disableLevels(EnumSet<LogLevel> levels) {
-        for (LogLevel level : levels) {
-            if (mEnabledLevels.contains(level)) {
-                mEnabledLevels.remove(level);
+    /**
+     * Replaces the globally enabled levels in one atomic step.
+     *
+     * @param mask bitwise or of {@link LogLevel#getValue()}.
+     */
+    public void setEnabledMask(int mask) {
+        Levels current;
+        int enabled = mask & LogLevel.ALL_MASK;
+
+        do {
+            current = mLevels.get();
+
+            if (current.mMask == enabled) {
+                return;
             }
-        }
+        } while (!mLevels.compareAndSet(current, new Levels(enabled, current.mTagMasks)));
+
+        onConfigChanged();
+    }
+
+    /**
+     * @return bitmask of the levels enabled for {@code tag}, see {@link LogLevel#getValue()}.
+     */
+    public int getEnabledMask(String tag) {
+        return mLevels.get().getMask(tag);
+    }
+
+    /**
+     * @return a copy of the per-tag overrides, tag to level bitmask.
+     */
+    public Map<String, Integer> getTagMasks() {
+        return new HashMap<String, Integer>(mLevels.get().mTagMasks);
+    }
+
+    /**
+     * Replaces the global levels and every per-tag override in one atomic step, so no entry
+     * is ever checked against a mix of the old and new configuration.
+     *
+     * @param mask     bitwise or of {@link LogLevel#getValue()}.
+     * @param tagMasks tag to level bitmask; copied.
+     */
+    public void setLevels(int mask, @NonNull Map<String, Integer> tagMasks) {
+        Map<String, Integer> copy = tagMasks.isEmpty() ? Collections.<String, Integer>emptyMap() : new HashMap<String, Integer>(tagMasks);
+        mLevels.set(new Levels(mask & LogLevel.ALL_MASK, copy));
+        onConfigChanged();
+    }
+
+    /**
+     * Replaces the enabled levels for a single tag. The global levels no longer apply to the
+     * tag until {@link #clearTagLevels(String)} is called.
+     */
+    public void setTagLevels(@NonNull String tag, LogLevel... levels) {
+        Levels current;
+        Map<String, Integer> tagMasks;
+
+        do {
+            current = mLevels.get();
+            tagMasks = new HashMap<String, Integer>(current.mTagMasks);
+            tagMasks.put(tag, LogLevel.toMask(levels));
+        } while (!mLevels.compareAndSet(current, new Levels(current.mMask, tagMasks)));
+
+        onConfigChanged();
+    }
+
+    /**
+     * Removes the override for {@code tag} so it follows the global levels again.
+     */
+    public void clearTagLevels(@NonNull String tag) {
+        Levels current;
+        Map<String, Integer> tagMasks;
+
+        do {
+            current = mLevels.get();
+
+            if (!current.mTagMasks.containsKey(tag)) {
+                return;
+            }
+
+            tagMasks = new HashMap<String, Integer>(current.mTagMasks);
+            tagMasks.remove(tag);
+        } while (!mLevels.compareAndSet(current, new Levels(current.mMask, tagMasks)));
+
+        onConfigChanged();
+    }
+
+    public void clearAllTagLevels() {
+        Levels current;
+
+        do {
+            current = mLevels.get();
+        } while (!mLevels.compareAndSet(current, new Levels(current.mMask, Collections.<String, Integer>emptyMap())));
+
+        onConfigChanged();
+    }
+
+    /**
+     * @return counter that changes whenever the level configuration of any logger changes, so
+     * cached level lookups such as {@link TaggedLogger} know when to refresh.
+     */
+    static int getConfigGeneration() {
+        return sConfigGeneration.get();
+    }
+
+    static void onConfigChanged() {
+        sConfigGeneration.incrementAndGet();
+    }
+
+    public void enableLevels(LogLevel... levels) {
+        updateEnabledMask(LogLevel.toMask(levels), 0);
+    }
+
+    public void disableLevels(EnumSet<LogLevel> levels) {
+        updateEnabledMask(0, LogLevel.toMask(levels));
     }
 
     public void enabledLevels(EnumSet<LogLevel> levels) {
-        for (LogLevel level : levels) {
-            if (!mEnabledLevels.contains(level)) {
-                mEnabledLevels.add(level);
+        updateEnabledMask(LogLevel.toMask(levels), 0);
+    }
+
+    public void disableLevels(LogLevel... levels) {
+        updateEnabledMask(0, LogLevel.toMask(levels));
+    }
+
+    /**
+     * Sets and clears bits of the enabled mask with compare-and-set, so concurrent updates never
+     * lose each other and readers never block.
+     */
+    private void updateEnabledMask(int enable, int disable) {
+        Levels current;
+        int next;
+
+        do {
+            current = mLevels.get();
+            next = (current.mMask | enable) & ~disable;
+
+            if (current.mMask == next) {
+                return;
             }
-        }
+        } while (!mLevels.compareAndSet(current, new Levels(next, current.mTagMasks)));
+
+        onConfigChanged();
     }
 
     public void enableReleaseMode() {
         disableLevels(LogLevel.VERBOSE, LogLevel.DEBUG, LogLevel.INFO);
     }
 
+    /**
+     * Pushes any buffered entries to their destination. Sinks that write synchronously have
+     * nothing to flush.
+     */
+    public void flush() {
+
+    }
+
+    /**
+     * Flushes and releases any threads or files held by this sink. Entries printed after
+     * shutdown may be dropped or written synchronously, depending on the sink.
+     */
+    public void shutdown() {
+
+    }
+
+    /**
+     * Sets the layout of the text sinks: {@link LogcatLogger} and {@link ArrayAdapterLogger} show
+     * the laid out entry instead of the bare message, and a {@link FileLogger} writing text lays
+     * out its lines with it. {@link #createDefaultLogEntry(LogData)} uses it as well. Null restores
+     * the defaults.
+     */
+    public void setLayout(PatternLayout layout) {
+        mLayout = layout;
+    }
+
+    public PatternLayout getLayout() {
+        return mLayout;
+    }
+
     protected String createDefaultLogEntry(LogData logData) {
-        return String.format("%1s %s [%2s]:%3s%n", logData.dateTimeStr, logData.pid, logData.tag, logData.getMsg());
+        PatternLayout layout = mLayout;
+        return (layout == null) ? logData.getDefaultEntry(mThrowableRenderer) : layout.format(logData, mThrowableRenderer);
     }
 
-    public void disableLevels(LogLevel... levels) {
-        for (LogLevel level : levels) {
-            if (mEnabledLevels.contains(level)) {
-                mEnabledLevels.remove(level);
-            }
-        }
+    /**
+     * @return the text of a sink that shows one entry at a time: the entry laid out by the
+     * {@link #setLayout(PatternLayout) layout}, or just its {@link #getMessage(LogData) message}
+     * when there is none.
+     */
+    protected String getText(LogData logData) {
+        PatternLayout layout = mLayout;
+        return (layout == null) ? getMessage(logData) : layout.format(logData, mThrowableRenderer);
+    }
+
+    /**
+     * @return the message of {@code logData} as this sink prints it: a stack trace is written in
+     * full the first time this sink sees it and referred to by id afterwards.
+     */
+    protected String getMessage(LogData logData) {
+        return logData.getMsg(mThrowableRenderer);
     }
 
     /**
@@ -127,8 +324,8 @@ public abstract class BaseLog {
      *
      * @see {@link String#format(String, Object...)}
      */
-    public final void v(@NonNull String tag, @NonNull String msg, @NonNull Objects... args) {
-        LogHelper.v(this, tag, String.format(msg, asList(args)));
+    public final void v(@NonNull String tag, @NonNull String msg, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.VERBOSE, tag, msg, args);
     }
 
     /**
@@ -143,8 +340,8 @@ public abstract class BaseLog {
      *
      * @see {@link String#format(String, Object...)}
      */
-    public final void v(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Objects... args) {
-        LogHelper.v(this, tag, String.format(msg, asList(args)), throwable);
+    public final void v(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.VERBOSE, tag, throwable, msg, args);
     }
 
     /**
@@ -179,8 +376,8 @@ public abstract class BaseLog {
      *
      * @see {@link String#format(String, Object...)}
      */
-    public final void i(@NonNull String tag, @NonNull String msg, @NonNull Objects... args) {
-        LogHelper.i(this, tag, String.format(msg, asList(args)));
+    public final void i(@NonNull String tag, @NonNull String msg, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.INFO, tag, msg, args);
     }
 
     /**
@@ -195,8 +392,8 @@ public abstract class BaseLog {
      *
      * @see {@link String#format(String, Object...)}
      */
-    public final void i(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Objects... args) {
-        LogHelper.i(this, tag, String.format(msg, asList(args)), throwable);
+    public final void i(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.INFO, tag, throwable, msg, args);
     }
 
     /**
@@ -231,8 +428,8 @@ public abstract class BaseLog {
      *
      * @see {@link String#format(String, Object...)}
      */
-    public final void d(@NonNull String tag, @NonNull String msg, @NonNull Objects... args) {
-        LogHelper.d(this, tag, String.format(msg, asList(args)));
+    public final void d(@NonNull String tag, @NonNull String msg, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.DEBUG, tag, msg, args);
     }
 
     /**
@@ -247,8 +444,8 @@ public abstract class BaseLog {
      *
      * @see {@link String#format(String, Object...)}
      */
-    public final void d(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Objects... args) {
-        LogHelper.d(this, tag, String.format(msg, asList(args)), throwable);
+    public final void d(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.DEBUG, tag, throwable, msg, args);
     }
 
     /**
@@ -283,8 +480,8 @@ public abstract class BaseLog {
      *
      * @see {@link String#format(String, Object...)}
      */
-    public final void e(@NonNull String tag, @NonNull String msg, @NonNull Objects... args) {
-        LogHelper.e(this, tag, String.format(msg, asList(args)));
+    public final void e(@NonNull String tag, @NonNull String msg, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.ERROR, tag, msg, args);
     }
 
     /**
@@ -299,8 +496,8 @@ public abstract class BaseLog {
      *
      * @see {@link String#format(String, Object...)}
      */
-    public final void e(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Objects... args) {
-        LogHelper.e(this, tag, String.format(msg, asList(args)), throwable);
+    public final void e(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.ERROR, tag, throwable, msg, args);
     }
 
     /**
@@ -346,8 +543,8 @@ public abstract class BaseLog {
      *
      * @see {@link String#format(String, Object...)}
      */
-    public final void wtf(@NonNull String tag, @NonNull String msg, @NonNull Objects... args) {
-        LogHelper.wtf(this, tag, String.format(msg, asList(args)));
+    public final void wtf(@NonNull String tag, @NonNull String msg, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.ASSERT, tag, msg, args);
     }
 
     /**
@@ -362,8 +559,8 @@ public abstract class BaseLog {
      *
      * @see {@link String#format(String, Object...)}
      */
-    public final void wtf(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Objects... args) {
-        LogHelper.wtf(this, tag, String.format(msg, asList(args)), throwable);
+    public final void wtf(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.ASSERT, tag, throwable, msg, args);
     }
 
     /**
@@ -406,8 +603,8 @@ public abstract class BaseLog {
      * @param msg  The actual message to be logged.
      * @param args for formatting the output
      */
-    public final void w(@NonNull String tag, @NonNull String msg, @NonNull Objects... args) {
-        LogHelper.w(this, tag, String.format(msg, asList(args)));
+    public final void w(@NonNull String tag, @NonNull String msg, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.WARNING, tag, msg, args);
     }
 
     /**
@@ -419,8 +616,8 @@ public abstract class BaseLog {
      *                  to extract and print useful information.
      * @param args      for formatting the output
      */
-    public final void w(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Objects... args) {
-        LogHelper.w(this, tag, String.format(msg, asList(args)), throwable);
+    public final void w(@NonNull String tag, @NonNull String msg, @NonNull Throwable throwable, @NonNull Object... args) {
+        LogHelper.printFormatted(this, LogLevel.WARNING, tag, throwable, msg, args);
     }
 
     /**
@@ -445,4 +642,23 @@ public abstract class BaseLog {
      * @param logData contains the data for the log.
      */
     protected abstract void print(@NonNull LogData logData);
+
+    /**
+     * Immutable level configuration, swapped as a whole.
+     */
+    private static final class Levels {
+        static final Levels ALL = new Levels(LogLevel.ALL_MASK, Collections.<String, Integer>emptyMap());
+        final int mMask;
+        final Map<String, Integer> mTagMasks;
+
+        Levels(int mask, Map<String, Integer> tagMasks) {
+            mMask = mask;
+            mTagMasks = tagMasks;
+        }
+
+        int getMask(String tag) {
+            Integer override = (mTagMasks.isEmpty() || tag == null) ? null : mTagMasks.get(tag);
+            return (override == null) ? mMask : override;
+        }
+    }
 }
@@ -0,0 +1,257 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads files written with {@link BinaryLogEncoder}. Has no Android dependencies, so the
+ * {@code tools} module's {@code BinaryLogDecoderMain} can turn exported logs back into text on a
+ * workstation.
+ * Gzipped segments are recognised by their {@code .gz} suffix. A segment cut short by a crash
+ * decodes up to its last complete entry, and a zero-filled tail, as left by preallocated or
+ * memory-mapped files, ends the segment like the end of the data does.
+ */
+public class BinaryLogDecoder {
+
+    private final ByteBuffer mIn;
+    private final List<String> mTags = new ArrayList<String>();
+    private final long mBaseMillis;
+    private final int mSegmentStart;
+    private long mLastMillis;
+
+    /**
+     * @param in buffer positioned at the start of a segment.
+     *
+     * @throws IOException if the buffer doesn't start with a binary log header.
+     */
+    public BinaryLogDecoder(ByteBuffer in) throws IOException {
+        mIn = in;
+        mSegmentStart = in.position();
+
+        if (in.remaining() < BinaryLogFormat.HEADER_SIZE) {
+            throw new IOException("Not a binary log: too short");
+        }
+
+        byte[] magic = new byte[BinaryLogFormat.MAGIC.length];
+        in.get(magic);
+
+        if (!Arrays.equals(magic, BinaryLogFormat.MAGIC)) {
+            throw new IOException("Not a binary log: bad magic");
+        }
+
+        int version = in.get();
+        if (version != BinaryLogFormat.VERSION) {
+            throw new IOException("Unsupported binary log version " + version);
+        }
+
+        mBaseMillis = in.getLong();
+        mLastMillis = mBaseMillis;
+    }
+
+    /**
+     * Reads a whole segment, decompressing it if its name ends with {@code .gz}.
+     */
+    public static BinaryLogDecoder open(File file) throws IOException {
+        return new BinaryLogDecoder(ByteBuffer.wrap(readFully(file)));
+    }
+
+    public long getBaseMillis() {
+        return mBaseMillis;
+    }
+
+    /**
+     * Continues decoding at an entry in the middle of the segment, as found in its
+     * {@link SegmentIndex}.
+     *
+     * @param offset         byte offset of the entry within the segment.
+     * @param previousMillis time the entry is delta-coded against.
+     * @param tags           tags of the segment, indexed by id.
+     */
+    void seek(int offset, long previousMillis, List<String> tags) {
+        mIn.position(mSegmentStart + offset);
+        mLastMillis = previousMillis;
+        mTags.clear();
+        mTags.addAll(tags);
+    }
+
+    /**
+     * Decodes the next entry into {@code record}, which may be reused between calls.
+     *
+     * @return false once there are no more complete entries.
+     *
+     * @throws IOException if the segment is corrupt.
+     */
+    public boolean next(Record record) throws IOException {
+        while (mIn.hasRemaining()) {
+            int start = mIn.position();
+
+            try {
+                byte type = mIn.get();
+
+                if (type == 0) {
+                    // Zero-filled space after the last entry.
+                    mIn.position(mIn.limit());
+                    return false;
+                } else if (type == BinaryLogFormat.RECORD_TAG) {
+                    long id = BinaryLogFormat.getVarint(mIn);
+                    String name = getString();
+
+                    // Every tag record takes at least two bytes, so larger ids are corrupt.
+                    if (id < 0 || id > mIn.limit()) {
+                        throw new IOException("Bad tag id " + id + " at offset " + start);
+                    }
+
+                    while (mTags.size() <= id) {
+                        mTags.add(null);
+                    }
+
+                    mTags.set((int) id, name);
+                } else if (type == BinaryLogFormat.RECORD_ENTRY) {
+                    long millis = mLastMillis + BinaryLogFormat.unZigZag(BinaryLogFormat.getVarint(mIn));
+                    int level = mIn.get();
+                    int tagId = (int) BinaryLogFormat.getVarint(mIn);
+                    long threadId = BinaryLogFormat.getVarint(mIn);
+                    String msg = getString();
+
+                    mLastMillis = millis;
+                    record.timeMillis = millis;
+                    record.level = level;
+                    record.tag = (tagId < mTags.size()) ? mTags.get(tagId) : null;
+                    record.threadId = threadId;
+                    record.msg = msg;
+                    record.offset = start - mSegmentStart;
+                    return true;
+                } else {
+                    throw new IOException("Unknown record type " + type + " at offset " + start);
+                }
+            } catch (BufferUnderflowException e) {
+                // Torn write at the end of the segment.
+                mIn.position(mIn.limit());
+                return false;
+            } catch (IllegalStateException e) {
+                throw new IOException("Malformed varint at offset " + start, e);
+            }
+        }
+
+        return false;
+    }
+
+    private String getString() throws IOException {
+        long length = BinaryLogFormat.getVarint(mIn);
+
+        if (length < 0) {
+            throw new IOException("Bad string length " + length + " at offset " + (mIn.position() - mSegmentStart));
+        }
+
+        if (length > mIn.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        String value;
+        if (mIn.hasArray()) {
+            value = new String(mIn.array(), mIn.arrayOffset() + mIn.position(), (int) length, Utf8.UTF_8);
+            mIn.position(mIn.position() + (int) length);
+        } else {
+            byte[] bytes = new byte[(int) length];
+            mIn.get(bytes);
+            value = new String(bytes, Utf8.UTF_8);
+        }
+
+        return value;
+    }
+
+    static byte[] readFully(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+
+        try {
+            if (file.getName().endsWith(".gz")) {
+                in = new GZIPInputStream(in);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(file.length() * 2, Integer.MAX_VALUE));
+            byte[] chunk = new byte[8192];
+            int read;
+
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * One decoded entry. Instances are meant to be reused while iterating a segment.
+     */
+    public static class Record {
+        public long timeMillis;
+        public int level;
+        public String tag;
+        public long threadId;
+        public String msg;
+        /**
+         * Byte offset of the entry within its segment.
+         */
+        public int offset;
+
+        public char getLevelLetter() {
+            return BinaryLogFormat.levelLetter(level);
+        }
+
+        /**
+         * Appends the entry in logcat's threadtime layout.
+         */
+        public void appendTo(StringBuilder out, SimpleDateFormat dateFormat) {
+            out.append(dateFormat.format(new Date(timeMillis)))
+                    .append(' ').append(threadId)
+                    .append(' ').append(getLevelLetter())
+                    .append('/').append(tag)
+                    .append(": ").append(msg);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            appendTo(out, new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US));
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes entries in the compact {@link BinaryLogFormat}. Timestamps are stored as deltas, tags
+ * are interned per segment and nothing is formatted as text, so a typical entry takes a
+ * fraction of its text size. Files can be turned back into text with {@link BinaryLogDecoder}.
+ */
+public class BinaryLogEncoder implements ILogEncoder {
+    private final Map<String, Integer> mTagIds = new HashMap<String, Integer>();
+    private long mLastMillis;
+
+    @Override
+    public String getFileSuffix() {
+        return ".plog";
+    }
+
+    @Override
+    public void startSegment(@NonNull ByteBuffer out, long startMillis) {
+        mTagIds.clear();
+        mLastMillis = startMillis;
+        out.put(BinaryLogFormat.MAGIC);
+        out.put(BinaryLogFormat.VERSION);
+        out.putLong(startMillis);
+    }
+
+    @Override
+    public void encode(@NonNull LogData logData, @NonNull ByteBuffer out) {
+        Integer knownId = mTagIds.get(logData.tag);
+        int tagId = (knownId != null) ? knownId : mTagIds.size();
+
+        if (knownId == null) {
+            out.put(BinaryLogFormat.RECORD_TAG);
+            BinaryLogFormat.putVarint(out, tagId);
+            putString(out, logData.tag);
+        }
+
+        long millis = logData.timeMillis;
+        out.put(BinaryLogFormat.RECORD_ENTRY);
+        BinaryLogFormat.putVarint(out, BinaryLogFormat.zigZag(millis - mLastMillis));
+        out.put(levelCode(logData.priority));
+        BinaryLogFormat.putVarint(out, tagId);
+        BinaryLogFormat.putVarint(out, logData.pid);
+        putString(out, logData.getMsg());
+
+        // Only remember state once the whole entry fit, so a retry after an overflow is exact.
+        if (knownId == null) {
+            mTagIds.put(logData.tag, tagId);
+        }
+
+        mLastMillis = millis;
+    }
+
+    public static byte levelCode(LogLevel level) {
+        switch (level) {
+            case VERBOSE:
+                return BinaryLogFormat.LEVEL_VERBOSE;
+
+            case DEBUG:
+                return BinaryLogFormat.LEVEL_DEBUG;
+
+            case INFO:
+                return BinaryLogFormat.LEVEL_INFO;
+
+            case WARNING:
+                return BinaryLogFormat.LEVEL_WARNING;
+
+            case ERROR:
+                return BinaryLogFormat.LEVEL_ERROR;
+
+            default:
+                return BinaryLogFormat.LEVEL_ASSERT;
+        }
+    }
+
+    /**
+     * @return the level for a byte written by {@link #levelCode(LogLevel)}.
+     */
+    public static LogLevel levelFromCode(int code) {
+        switch (code) {
+            case BinaryLogFormat.LEVEL_VERBOSE:
+                return LogLevel.VERBOSE;
+
+            case BinaryLogFormat.LEVEL_DEBUG:
+                return LogLevel.DEBUG;
+
+            case BinaryLogFormat.LEVEL_INFO:
+                return LogLevel.INFO;
+
+            case BinaryLogFormat.LEVEL_WARNING:
+                return LogLevel.WARNING;
+
+            case BinaryLogFormat.LEVEL_ERROR:
+                return LogLevel.ERROR;
+
+            default:
+                return LogLevel.ASSERT;
+        }
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        String text = (value == null) ? "" : value;
+        int length = Utf8.encodedLength(text);
+        BinaryLogFormat.putVarint(out, length);
+
+        if (out.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        Utf8.write(text, 0, text.length(), out);
+    }
+}
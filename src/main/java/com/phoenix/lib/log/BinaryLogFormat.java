@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the compact binary log format. Pure Java so it can be used by the desktop tools.
+ * <pre>
+ * segment := magic "PLOG", version byte, base epoch millis (8 bytes, big endian), record*
+ * record  := TAG tag-id name | ENTRY time-delta level tag-id thread-id message
+ * TAG     := 0x01, varint id, varint length, UTF-8 bytes
+ * ENTRY   := 0x02, zig-zag varint millis since the previous entry (or the base time),
+ *            level byte, varint tag id, varint thread id, varint length, UTF-8 bytes
+ * </pre>
+ * Tag ids are only valid within the segment that defines them, so every segment can be
+ * decoded on its own.
+ */
+final class BinaryLogFormat {
+    public static final byte[] MAGIC = {'P', 'L', 'O', 'G'};
+    public static final byte VERSION = 1;
+    public static final int HEADER_SIZE = MAGIC.length + 1 + 8;
+    public static final byte RECORD_TAG = 0x01;
+    public static final byte RECORD_ENTRY = 0x02;
+
+    /**
+     * Level bytes use the {@link android.util.Log} priority values.
+     */
+    public static final byte LEVEL_VERBOSE = 2;
+    public static final byte LEVEL_DEBUG = 3;
+    public static final byte LEVEL_INFO = 4;
+    public static final byte LEVEL_WARNING = 5;
+    public static final byte LEVEL_ERROR = 6;
+    public static final byte LEVEL_ASSERT = 7;
+
+    private static final char[] LEVEL_LETTERS = {'?', '?', 'V', 'D', 'I', 'W', 'E', 'A'};
+
+    private BinaryLogFormat() {
+
+    }
+
+    /**
+     * @return the single letter logcat uses for the level byte.
+     */
+    public static char levelLetter(int level) {
+        return (level >= 0 && level < LEVEL_LETTERS.length) ? LEVEL_LETTERS[level] : '?';
+    }
+
+    public static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        out.put((byte) value);
+    }
+
+    public static long getVarint(ByteBuffer in) {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    public static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
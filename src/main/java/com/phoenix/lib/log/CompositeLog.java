@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sends every entry to several sinks, e.g. logcat, a {@link FileLogger} and the in-app viewer
+ * at once. Each sink can have its own minimum level and tag filter. Text is rendered at most
+ * once per entry and shared, because {@link LogData} caches its message and default line.
+ * <p/>
+ * Sinks live in a copy-on-write array: attaching and detaching at runtime is synchronized, while
+ * {@link #print(LogData)} only reads a volatile field and never locks.
+ */
+public class CompositeLog extends BaseLog {
+    private static final Sink[] NO_SINKS = new Sink[0];
+
+    private volatile Sink[] mSinks = NO_SINKS;
+
+    public CompositeLog(BaseLog... sinks) {
+        for (BaseLog sink : sinks) {
+            attach(sink);
+        }
+    }
+
+    /**
+     * Attaches a sink that receives every entry it has enabled.
+     */
+    public CompositeLog attach(@NonNull BaseLog sink) {
+        return attach(sink, LogLevel.VERBOSE);
+    }
+
+    /**
+     * Attaches a sink that only receives entries at or above {@code minLevel}.
+     */
+    public CompositeLog attach(@NonNull BaseLog sink, @NonNull LogLevel minLevel) {
+        return attach(sink, minLevel, (String[]) null);
+    }
+
+    /**
+     * Attaches a sink that only receives entries at or above {@code minLevel} from the given tags.
+     * Attaching a sink that is already attached replaces its filters.
+     *
+     * @param tags tags the sink accepts, or null for every tag.
+     */
+    public synchronized CompositeLog attach(@NonNull BaseLog sink, @NonNull LogLevel minLevel, String... tags) {
+        Sink entry = new Sink(sink, minLevel.getMaskAtLeast(), (tags == null) ? null : new HashSet<String>(Arrays.asList(tags)));
+        Sink[] current = mSinks;
+        int index = indexOf(current, sink);
+        Sink[] next;
+
+        if (index >= 0) {
+            next = current.clone();
+            next[index] = entry;
+        } else {
+            next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = entry;
+        }
+
+        mSinks = next;
+        return this;
+    }
+
+    /**
+     * @return true if {@code sink} was attached.
+     */
+    public synchronized boolean detach(@NonNull BaseLog sink) {
+        Sink[] current = mSinks;
+        int index = indexOf(current, sink);
+
+        if (index < 0) {
+            return false;
+        }
+
+        Sink[] next = new Sink[current.length - 1];
+        System.arraycopy(current, 0, next, 0, index);
+        System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+        mSinks = next;
+        return true;
+    }
+
+    public boolean isAttached(@NonNull BaseLog sink) {
+        return indexOf(mSinks, sink) >= 0;
+    }
+
+    /**
+     * @return the attached sinks, in dispatch order.
+     */
+    public BaseLog[] getSinks() {
+        Sink[] sinks = mSinks;
+        BaseLog[] logs = new BaseLog[sinks.length];
+
+        for (int i = 0; i < sinks.length; i++) {
+            logs[i] = sinks[i].mLog;
+        }
+
+        return logs;
+    }
+
+    @Override
+    protected void print(@NonNull LogData logData) {
+        Sink[] sinks = mSinks;
+        int level = logData.priority.getValue();
+
+        for (Sink sink : sinks) {
+            if ((sink.mLevelMask & level) != 0
+                    && (sink.mTags == null || sink.mTags.contains(logData.tag))
+                    && sink.mLog.isLevelEnabled(logData.priority, logData.tag)) {
+                LogMetrics.print(sink.mLog, logData, sink.mLatency);
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        for (Sink sink : mSinks) {
+            sink.mLog.flush();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        for (Sink sink : mSinks) {
+            sink.mLog.shutdown();
+        }
+    }
+
+    private static int indexOf(Sink[] sinks, BaseLog log) {
+        for (int i = 0; i < sinks.length; i++) {
+            if (sinks[i].mLog == log) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static final class Sink {
+        final BaseLog mLog;
+        final int mLevelMask;
+        final Set<String> mTags;
+        final LogMetrics.LatencyHistogram mLatency;
+
+        Sink(BaseLog log, int levelMask, Set<String> tags) {
+            mLog = log;
+            mLatency = LogMetrics.getSinkLatency(log);
+            mLevelMask = levelMask;
+            mTags = (tags == null) ? null : Collections.unmodifiableSet(tags);
+        }
+    }
+}
@@ -0,0 +1,802 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes log entries into rolling segment files. Entries are encoded by an {@link ILogEncoder},
+ * UTF-8 text by default, straight into a reusable direct {@link ByteBuffer} that is only written to the {@link FileChannel} when it
+ * fills up, when {@link #flush()} is called or when the flush interval has passed, so flash
+ * storage sees a few large writes instead of one tiny write per entry. A shared background
+ * timer writes out entries that would otherwise wait for the next one once logging goes quiet.
+ * <p/>
+ * A new segment is started once the current one reaches the size or age limit, only the newest
+ * segments are kept and closed segments can be gzipped on a background thread. Segments written
+ * with a {@link BinaryLogEncoder} get a {@link SegmentIndex} when they are closed, which
+ * {@link LogStore} uses to answer queries without decoding everything.
+ * <p/>
+ * With a {@link Builder#setDurableLevel(LogLevel) durable level}, printing an entry at or above
+ * that level only returns once the entry has been forced to storage. Threads that log such
+ * entries at about the same time share one group commit: the first one waits a short window for
+ * others to join, then writes and forces everything buffered so far in a single fsync. Lower
+ * levels are still only buffered. Attach the logger directly rather than behind an
+ * {@link AsyncLog}, otherwise only the background thread waits.
+ */
+public class FileLogger extends BaseLog {
+    public static final String COMPRESSED_SUFFIX = ".gz";
+    private static final String TAG = FileLogger.class.getSimpleName();
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int MAX_ENTRY_BYTES = 16 * 1024 * 1024;
+    private static ScheduledExecutorService sFlushTimer;
+
+    private final File mDirectory;
+    private final String mName;
+    private final long mMaxSegmentBytes;
+    private final long mMaxSegmentAgeMillis;
+    private final long mFlushIntervalMillis;
+    private final int mMaxSegments;
+    private final ILogEncoder mEncoder;
+    private final ByteBuffer mBuffer;
+    private final ExecutorService mCompressor;
+    private final int mDurableMask;
+    private final long mGroupCommitWindowMillis;
+    private final int mIndexInterval;
+    private final Object mSyncLock = new Object();
+    private final SimpleDateFormat mSegmentDateFormat = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS", Locale.US);
+    private final Set<File> mCompressing = Collections.synchronizedSet(new HashSet<File>());
+    private final Runnable mFlushTask = new Runnable() {
+        @Override
+        public void run() {
+            flushIdle();
+        }
+    };
+    private FileChannel mChannel;
+    /**
+     * Last channel {@link #closeSegment()} forced to storage before closing it, guarded by
+     * {@code this}.
+     */
+    private FileChannel mForcedOnClose;
+    private File mSegmentFile;
+    private SegmentIndex mSegmentIndex;
+    private long mSegmentStartMillis;
+    private long mSegmentBytes;
+    private long mLastWriteMillis;
+    private boolean mFlushScheduled;
+    private boolean mShutdown;
+    /**
+     * Durable entries encoded so far, guarded by {@code this}.
+     */
+    private long mDurableCount;
+    /**
+     * Durable entries known to be on storage, guarded by {@link #mSyncLock}.
+     */
+    private long mSyncedCount;
+    private boolean mSyncing;
+
+    private FileLogger(Builder builder) {
+        mDirectory = builder.mDirectory;
+        mName = builder.mName;
+        mMaxSegmentBytes = builder.mMaxSegmentBytes;
+        mMaxSegmentAgeMillis = builder.mMaxSegmentAgeMillis;
+        mFlushIntervalMillis = builder.mFlushIntervalMillis;
+        mMaxSegments = builder.mMaxSegments;
+        mEncoder = builder.mEncoder;
+        mBuffer = ByteBuffer.allocateDirect(builder.mBufferSize);
+        mDurableMask = (builder.mDurableLevel == null) ? 0 : builder.mDurableLevel.getMaskAtLeast();
+        mGroupCommitWindowMillis = builder.mGroupCommitWindowMillis;
+        mIndexInterval = (mEncoder instanceof BinaryLogEncoder) ? builder.mIndexInterval : 0;
+        mCompressor = builder.mCompress ? Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "FileLogger-gzip");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        }) : null;
+    }
+
+    public File getDirectory() {
+        return mDirectory;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * @return every segment written by this logger, oldest first. Includes compressed segments
+     * and the one currently being written.
+     */
+    public File[] listSegments() {
+        return listSegments(mDirectory, mName, mEncoder.getFileSuffix());
+    }
+
+    public ILogEncoder getEncoder() {
+        return mEncoder;
+    }
+
+    /**
+     * Also lays out the lines of a {@link TextLogEncoder}; other encoders keep their own format.
+     */
+    @Override
+    public void setLayout(PatternLayout layout) {
+        super.setLayout(layout);
+
+        if (mEncoder instanceof TextLogEncoder) {
+            ((TextLogEncoder) mEncoder).setLayout(layout);
+        }
+    }
+
+    /**
+     * @param suffix file suffix of the {@link ILogEncoder} the segments were written with.
+     *
+     * @return every segment written by a logger with the given name, oldest first.
+     */
+    public static File[] listSegments(File directory, final String name, final String suffix) {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String filename) {
+                return filename.startsWith(name + "-") && (filename.endsWith(suffix) || filename.endsWith(suffix + COMPRESSED_SUFFIX));
+            }
+        });
+
+        if (files == null) {
+            return new File[0];
+        }
+
+        // The timestamp in the name sorts lexically in creation order.
+        Arrays.sort(files);
+        return files;
+    }
+
+    @Override
+    protected void print(@NonNull LogData logData) {
+        long durable = append(logData);
+
+        if (durable > 0) {
+            awaitDurable(durable);
+        }
+    }
+
+    /**
+     * @return the number of durable entries encoded so far when this entry must be made
+     * durable, 0 otherwise.
+     */
+    private synchronized long append(LogData logData) {
+        if (mShutdown) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+
+        try {
+            if (mChannel == null) {
+                openSegment(now);
+            } else if (mSegmentBytes + mBuffer.position() >= mMaxSegmentBytes || now - mSegmentStartMillis >= mMaxSegmentAgeMillis) {
+                rotate(now);
+            }
+
+            long offset = mSegmentBytes + mBuffer.position();
+
+            if (write(logData) && mSegmentIndex != null) {
+                mSegmentIndex.add(offset, logData.timeMillis, BinaryLogEncoder.levelCode(logData.priority), logData.tag);
+            }
+
+            if ((logData.priority.getValue() & mDurableMask) != 0) {
+                return ++mDurableCount;
+            }
+
+            if (now - mLastWriteMillis >= mFlushIntervalMillis) {
+                drainBuffer();
+            } else if (!mFlushScheduled && mBuffer.position() > 0) {
+                mFlushScheduled = true;
+                getFlushTimer().schedule(mFlushTask, mFlushIntervalMillis - (now - mLastWriteMillis), TimeUnit.MILLISECONDS);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Couldn't write log entry to " + mSegmentFile, e);
+            closeQuietly();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Blocks until the first {@code count} durable entries are on storage. One waiting thread
+     * leads each group commit while the others wait for it; if it fails, the next waiter tries
+     * once more.
+     */
+    private void awaitDurable(long count) {
+        synchronized (mSyncLock) {
+            while (mSyncing && mSyncedCount < count) {
+                try {
+                    mSyncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            if (mSyncedCount >= count) {
+                return;
+            }
+
+            mSyncing = true;
+        }
+
+        long synced = 0;
+
+        try {
+            if (mGroupCommitWindowMillis > 0) {
+                try {
+                    Thread.sleep(mGroupCommitWindowMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            synced = sync();
+        } finally {
+            synchronized (mSyncLock) {
+                mSyncing = false;
+                mSyncedCount = Math.max(mSyncedCount, synced);
+                mSyncLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes out the buffer and forces the segment to storage. Only the write holds the lock;
+     * the fsync runs outside it so other threads keep logging meanwhile.
+     *
+     * @return the number of durable entries now on storage, 0 if that failed.
+     */
+    private long sync() {
+        FileChannel channel;
+        long count;
+
+        synchronized (this) {
+            if (mChannel == null) {
+                // Closed by shutdown or rotation, which force the segment first, or by an error.
+                return mShutdown ? mDurableCount : 0;
+            }
+
+            try {
+                drainBuffer();
+            } catch (IOException e) {
+                Log.e(TAG, "Couldn't write " + mSegmentFile, e);
+                closeQuietly();
+                return 0;
+            }
+
+            channel = mChannel;
+            count = mDurableCount;
+        }
+
+        try {
+            force(channel);
+        } catch (ClosedChannelException e) {
+            synchronized (this) {
+                if (channel == mForcedOnClose) {
+                    // Rotated meanwhile; the segment was forced before it was closed.
+                    return count;
+                }
+
+                // Closed by an interrupt of another thread; everything written so far is in the
+                // same file, so reopening it and forcing again makes the entries durable.
+                try {
+                    if (mChannel == null) {
+                        return 0;
+                    }
+
+                    if (mChannel == channel) {
+                        reopenSegment();
+                    }
+
+                    channel = mChannel;
+                } catch (IOException reopenFailed) {
+                    Log.e(TAG, "Couldn't reopen " + mSegmentFile, reopenFailed);
+                    closeQuietly();
+                    return 0;
+                }
+            }
+
+            try {
+                force(channel);
+            } catch (IOException retryFailed) {
+                Log.e(TAG, "Couldn't sync " + mSegmentFile, retryFailed);
+                return 0;
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Couldn't sync " + mSegmentFile, e);
+            return 0;
+        }
+
+        return count;
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (mChannel == null) {
+            return;
+        }
+
+        try {
+            drainBuffer();
+        } catch (IOException e) {
+            Log.e(TAG, "Couldn't flush " + mSegmentFile, e);
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Runs on the flush timer; writes out what the last entries left buffered.
+     */
+    private synchronized void flushIdle() {
+        mFlushScheduled = false;
+
+        if (!mShutdown && mBuffer.position() > 0) {
+            flush();
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getFlushTimer() {
+        if (sFlushTimer == null) {
+            sFlushTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "FileLogger-flush");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return sFlushTimer;
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            if (mShutdown) {
+                return;
+            }
+
+            mShutdown = true;
+            flush();
+            closeSegment();
+        }
+
+        if (mCompressor != null) {
+            mCompressor.shutdown();
+
+            try {
+                mCompressor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return false if the entry was too large to write.
+     */
+    private boolean write(LogData logData) throws IOException {
+        if (tryEncode(logData, mBuffer)) {
+            return true;
+        }
+
+        drainBuffer();
+
+        if (tryEncode(logData, mBuffer)) {
+            return true;
+        }
+
+        // The entry is bigger than the whole buffer; encode it on the side and write it directly.
+        int size = mBuffer.capacity();
+        while (size < MAX_ENTRY_BYTES) {
+            size *= 2;
+            ByteBuffer large = ByteBuffer.allocate(size);
+
+            if (tryEncode(logData, large)) {
+                large.flip();
+                writeFully(large);
+                return true;
+            }
+        }
+
+        Log.w(TAG, "Dropped a log entry larger than " + MAX_ENTRY_BYTES + " bytes");
+        return false;
+    }
+
+    private boolean tryEncode(LogData logData, ByteBuffer out) {
+        int start = out.position();
+
+        try {
+            mEncoder.encode(logData, out);
+            return true;
+        } catch (BufferOverflowException e) {
+            out.position(start);
+            return false;
+        }
+    }
+
+    private void drainBuffer() throws IOException {
+        mBuffer.flip();
+        writeFully(mBuffer);
+        mBuffer.clear();
+        mLastWriteMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes all of {@code src} to the segment. Any I/O from an interrupted thread closes the
+     * channel, so the interrupt is set aside meanwhile; a channel that an interrupt elsewhere
+     * already closed is reopened.
+     */
+    private void writeFully(ByteBuffer src) throws IOException {
+        boolean interrupted = Thread.interrupted();
+
+        try {
+            if (!mChannel.isOpen()) {
+                reopenSegment();
+            }
+
+            try {
+                while (src.hasRemaining()) {
+                    mSegmentBytes += mChannel.write(src);
+                }
+            } catch (ClosedChannelException e) {
+                reopenSegment();
+
+                while (src.hasRemaining()) {
+                    mSegmentBytes += mChannel.write(src);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void force(FileChannel channel) throws IOException {
+        boolean interrupted = Thread.interrupted();
+
+        try {
+            channel.force(false);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Opens the current segment again for appending, after its channel was closed by an
+     * interrupt.
+     */
+    private void reopenSegment() throws IOException {
+        Log.w(TAG, "Reopening " + mSegmentFile + " after its channel was closed");
+        closeQuietly(mChannel);
+        mChannel = new FileOutputStream(mSegmentFile, true).getChannel();
+        mSegmentBytes = mChannel.size();
+    }
+
+    private void openSegment(long now) throws IOException {
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            throw new IOException("Couldn't create log directory " + mDirectory);
+        }
+
+        long stamp = now;
+        do {
+            mSegmentFile = new File(mDirectory, mName + "-" + mSegmentDateFormat.format(new Date(stamp++)) + mEncoder.getFileSuffix());
+        } while (mSegmentFile.exists());
+
+        mChannel = new FileOutputStream(mSegmentFile, false).getChannel();
+        mSegmentBytes = 0;
+        mSegmentStartMillis = now;
+        mLastWriteMillis = now;
+        mEncoder.startSegment(mBuffer, now);
+        mSegmentIndex = (mIndexInterval > 0) ? new SegmentIndex(mIndexInterval, now) : null;
+        deleteOldSegments();
+    }
+
+    private void rotate(long now) throws IOException {
+        drainBuffer();
+        closeSegment();
+        openSegment(now);
+    }
+
+    private void closeSegment() {
+        if (mChannel == null) {
+            return;
+        }
+
+        final File closed = mSegmentFile;
+
+        if (mDurableMask != 0) {
+            try {
+                force(mChannel);
+                mForcedOnClose = mChannel;
+            } catch (IOException e) {
+                Log.e(TAG, "Couldn't sync " + closed, e);
+            }
+        }
+
+        closeQuietly();
+
+        if (mSegmentIndex != null) {
+            try {
+                mSegmentIndex.write(SegmentIndex.fileFor(closed));
+            } catch (IOException e) {
+                Log.e(TAG, "Couldn't write the index of " + closed, e);
+            }
+
+            mSegmentIndex = null;
+        }
+
+        if (mCompressor != null && !mCompressor.isShutdown()) {
+            mCompressing.add(closed);
+            mCompressor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        compress(closed);
+                    } finally {
+                        mCompressing.remove(closed);
+                    }
+                }
+            });
+        }
+    }
+
+    private void closeQuietly() {
+        if (mChannel != null) {
+            try {
+                mChannel.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Couldn't close " + mSegmentFile, e);
+            }
+        }
+
+        mChannel = null;
+        mBuffer.clear();
+    }
+
+    private void deleteOldSegments() {
+        File[] segments = listSegments();
+
+        for (int i = 0; i < segments.length - mMaxSegments; i++) {
+            // Deleting a segment that is being compressed would bring it back as a .gz file.
+            if (mCompressing.contains(segments[i])) {
+                continue;
+            }
+
+            if (!segments[i].delete()) {
+                Log.w(TAG, "Couldn't delete old log segment " + segments[i]);
+            }
+
+            File index = SegmentIndex.fileFor(segments[i]);
+            if (index.exists() && !index.delete()) {
+                Log.w(TAG, "Couldn't delete " + index);
+            }
+        }
+    }
+
+    private static void compress(File source) {
+        File target = new File(source.getPath() + COMPRESSED_SUFFIX);
+        File temp = new File(target.getPath() + TEMP_SUFFIX);
+        InputStream in = null;
+        OutputStream out = null;
+
+        try {
+            in = new FileInputStream(source);
+            out = new GZIPOutputStream(new FileOutputStream(temp));
+            byte[] chunk = new byte[8192];
+            int read;
+
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+
+            out.close();
+            out = null;
+
+            if (temp.renameTo(target) && !source.delete()) {
+                Log.w(TAG, "Couldn't delete " + source + " after compressing it");
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Couldn't compress " + source, e);
+            temp.delete();
+        } finally {
+            closeQuietly(in);
+            closeQuietly(out);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // Nothing useful left to do.
+            }
+        }
+    }
+
+    public static class Builder {
+        private final File mDirectory;
+        private String mName = "log";
+        private long mMaxSegmentBytes = 1024 * 1024;
+        private long mMaxSegmentAgeMillis = TimeUnit.DAYS.toMillis(1);
+        private long mFlushIntervalMillis = TimeUnit.SECONDS.toMillis(1);
+        private int mMaxSegments = 10;
+        private int mBufferSize = 32 * 1024;
+        private boolean mCompress;
+        private ILogEncoder mEncoder = new TextLogEncoder();
+        private LogLevel mDurableLevel;
+        private long mGroupCommitWindowMillis = 2;
+        private int mIndexInterval = 256;
+
+        /**
+         * Writes segments to a {@code logs} directory inside the app's files dir.
+         */
+        public Builder(@NonNull Context context) {
+            this(new File(context.getFilesDir(), "logs"));
+        }
+
+        public Builder(@NonNull File directory) {
+            mDirectory = directory;
+        }
+
+        /**
+         * @param name prefix of every segment file name.
+         */
+        public Builder setName(@NonNull String name) {
+            mName = name;
+            return this;
+        }
+
+        /**
+         * @param bytes a new segment is started once the current one reaches this size.
+         */
+        public Builder setMaxSegmentBytes(long bytes) {
+            mMaxSegmentBytes = bytes;
+            return this;
+        }
+
+        /**
+         * @param millis a new segment is started once the current one is this old.
+         */
+        public Builder setMaxSegmentAge(long millis) {
+            mMaxSegmentAgeMillis = millis;
+            return this;
+        }
+
+        /**
+         * @param count number of segments to keep, including the one being written.
+         */
+        public Builder setMaxSegments(int count) {
+            mMaxSegments = Math.max(1, count);
+            return this;
+        }
+
+        /**
+         * @param bytes size of the direct buffer entries are collected in before being written.
+         */
+        public Builder setBufferSize(int bytes) {
+            mBufferSize = Math.max(1024, bytes);
+            return this;
+        }
+
+        /**
+         * @param millis buffered entries are written out once the last write is this old, by the
+         *               next entry or at the latest by a background timer.
+         */
+        public Builder setFlushInterval(long millis) {
+            mFlushIntervalMillis = millis;
+            return this;
+        }
+
+        /**
+         * @param compress whether closed segments are gzipped in the background.
+         */
+        public Builder setCompressClosedSegments(boolean compress) {
+            mCompress = compress;
+            return this;
+        }
+
+        /**
+         * @param encoder turns entries into bytes. Defaults to {@link TextLogEncoder}.
+         */
+        public Builder setEncoder(@NonNull ILogEncoder encoder) {
+            mEncoder = encoder;
+            return this;
+        }
+
+        /**
+         * @param level entries at or above this level are forced to storage before printing
+         *              them returns, null to never wait. Off by default.
+         */
+        public Builder setDurableLevel(LogLevel level) {
+            mDurableLevel = level;
+            return this;
+        }
+
+        /**
+         * @param millis how long the thread leading a group commit waits for others to join
+         *               before forcing the segment, 2 ms by default.
+         */
+        public Builder setGroupCommitWindow(long millis) {
+            mGroupCommitWindowMillis = Math.max(0, millis);
+            return this;
+        }
+
+        /**
+         * Only applies to segments written with a {@link BinaryLogEncoder}. Each closed segment
+         * then gets a {@code .idx} file next to it that lets {@link LogStore} skip segments and
+         * blocks that can't match a query.
+         *
+         * @param entries entries per indexed block, or 0 to write no index.
+         */
+        public Builder setIndexInterval(int entries) {
+            mIndexInterval = Math.max(0, entries);
+            return this;
+        }
+
+        public FileLogger build() {
+            return new FileLogger(this);
+        }
+    }
+}
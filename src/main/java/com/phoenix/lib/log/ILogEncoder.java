@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns {@link LogData} into the bytes a persistent sink stores.
+ * <p/>
+ * Encoders may keep state between entries of the same segment, so an instance must only be
+ * used by one sink at a time. When {@code out} does not have enough room an encoder throws
+ * {@link java.nio.BufferOverflowException} without updating its state; the sink then rewinds
+ * the buffer, makes room and encodes the same entry again.
+ */
+public interface ILogEncoder {
+    /**
+     * @return suffix, including the dot, of the files this encoder writes.
+     */
+    String getFileSuffix();
+
+    /**
+     * Resets the encoder and writes whatever header a new segment needs.
+     *
+     * @param out         buffer the segment starts in.
+     * @param startMillis wall clock time the segment was started at.
+     */
+    void startSegment(@NonNull ByteBuffer out, long startMillis);
+
+    /**
+     * Appends one entry to {@code out}.
+     */
+    void encode(@NonNull LogData logData, @NonNull ByteBuffer out);
+}
@@ -0,0 +1,239 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes every entry as one JSON object per line, straight into the buffer:
+ * <pre>
+ * {"time":1792300000000,"level":"I","tag":"Player","thread":1,"msg":"play","streamId":42,"ms":12}
+ * </pre>
+ * The {@link LogFields} of structured entries become top-level members with their native JSON
+ * type. A key that clashes with one of the fixed members, e.g. {@code kv("msg", ...)}, is
+ * written with a leading underscore ({@code "_msg"}) so no line has duplicate members. Whole
+ * numbers are written digit by digit; only doubles go through a temporary String.
+ */
+public class JsonLogEncoder implements ILogEncoder {
+    private static final byte[] TIME = ascii("{\"time\":");
+    private static final byte[] LEVEL = ascii(",\"level\":\"");
+    private static final byte[] TAG = ascii("\",\"tag\":");
+    private static final byte[] THREAD = ascii(",\"thread\":");
+    private static final byte[] MSG = ascii(",\"msg\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+    private static final byte[] RESERVED_PREFIX = ascii("\"_");
+
+    private final byte[] mDigits = new byte[20];
+
+    private static byte[] ascii(String text) {
+        byte[] bytes = new byte[text.length()];
+
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) text.charAt(i);
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public String getFileSuffix() {
+        return ".jsonl";
+    }
+
+    @Override
+    public void startSegment(@NonNull ByteBuffer out, long startMillis) {
+
+    }
+
+    @Override
+    public void encode(@NonNull LogData logData, @NonNull ByteBuffer out) {
+        out.put(TIME);
+        putLong(logData.timeMillis, out);
+        out.put(LEVEL);
+        out.put((byte) BinaryLogFormat.levelLetter(BinaryLogEncoder.levelCode(logData.priority)));
+        out.put(TAG);
+        putString(logData.tag, out);
+        out.put(THREAD);
+        putLong(logData.pid, out);
+        out.put(MSG);
+        putString(logData.getBaseMsg(), out);
+
+        LogFields fields = logData.getFields();
+
+        if (fields != null) {
+            for (int i = 0; i < fields.size(); i++) {
+                String key = fields.getKey(i);
+                out.put((byte) ',');
+
+                if (isReserved(key)) {
+                    // Reserved keys are plain ASCII, nothing to escape.
+                    out.put(RESERVED_PREFIX);
+                    putRaw(key, out);
+                    out.put((byte) '"');
+                } else {
+                    putString(key, out);
+                }
+
+                out.put((byte) ':');
+                putValue(fields, i, out);
+            }
+        }
+
+        out.put((byte) '}');
+        out.put((byte) '\n');
+    }
+
+    private static boolean isReserved(String key) {
+        return "time".equals(key) || "level".equals(key) || "tag".equals(key) || "thread".equals(key) || "msg".equals(key);
+    }
+
+    private void putValue(LogFields fields, int index, ByteBuffer out) {
+        switch (fields.getType(index)) {
+            case LogFields.TYPE_LONG:
+                putLong(fields.getLong(index), out);
+                break;
+
+            case LogFields.TYPE_DOUBLE:
+                double value = fields.getDouble(index);
+
+                if (Double.isNaN(value) || Double.isInfinite(value)) {
+                    // JSON has no literal for these.
+                    out.put(NULL);
+                } else {
+                    putRaw(Double.toString(value), out);
+                }
+                break;
+
+            case LogFields.TYPE_BOOLEAN:
+                out.put(fields.getBoolean(index) ? TRUE : FALSE);
+                break;
+
+            default:
+                putString(fields.getString(index), out);
+                break;
+        }
+    }
+
+    private void putLong(long value, ByteBuffer out) {
+        if (value == Long.MIN_VALUE) {
+            putRaw(Long.toString(value), out);
+            return;
+        }
+
+        if (value < 0) {
+            out.put((byte) '-');
+            value = -value;
+        }
+
+        int start = mDigits.length;
+
+        do {
+            mDigits[--start] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+
+        out.put(mDigits, start, mDigits.length - start);
+    }
+
+    private static void putRaw(String text, ByteBuffer out) {
+        if (out.remaining() < text.length()) {
+            throw new BufferOverflowException();
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            out.put((byte) text.charAt(i));
+        }
+    }
+
+    /**
+     * Writes {@code text} as a quoted JSON string, escaping in place and copying runs of plain
+     * characters with {@link Utf8}.
+     */
+    private static void putString(String text, ByteBuffer out) {
+        if (text == null) {
+            out.put(NULL);
+            return;
+        }
+
+        out.put((byte) '"');
+        int length = text.length();
+        int runStart = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+
+            putRun(text, runStart, i, out);
+            out.put((byte) '\\');
+
+            switch (c) {
+                case '"':
+                case '\\':
+                    out.put((byte) c);
+                    break;
+
+                case '\n':
+                    out.put((byte) 'n');
+                    break;
+
+                case '\r':
+                    out.put((byte) 'r');
+                    break;
+
+                case '\t':
+                    out.put((byte) 't');
+                    break;
+
+                default:
+                    out.put((byte) 'u');
+                    out.put((byte) '0');
+                    out.put((byte) '0');
+                    out.put(HEX[c >> 4]);
+                    out.put(HEX[c & 0xF]);
+                    break;
+            }
+
+            runStart = i + 1;
+        }
+
+        putRun(text, runStart, length, out);
+        out.put((byte) '"');
+    }
+
+    private static void putRun(String text, int start, int end, ByteBuffer out) {
+        if (start < end && Utf8.write(text, start, end, out) != end) {
+            throw new BufferOverflowException();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.text.SimpleDateFormat;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Receives the frames sent by {@link SocketLog} and prints every entry as a line of text,
+ * prefixed with the address of the device that sent it. Listens for TCP and UDP on the same
+ * port. Has no Android dependencies; {@code LogCollectorMain} in the {@code tools} module runs it
+ * on a workstation:
+ * <pre>
+ * java -cp tools/build/libs/phoenix-log-tools.jar com.phoenix.lib.log.LogCollectorMain 7070
+ * </pre>
+ * Devices on USB can reach it through {@code adb reverse tcp:7070 tcp:7070} and a
+ * {@link SocketLog} pointed at {@code 127.0.0.1}.
+ */
+public class LogCollectorServer implements Closeable {
+    public static final int DEFAULT_PORT = 7070;
+    private static final int LENGTH_SIZE = 4;
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+
+    private final Selector mSelector;
+    private final ServerSocketChannel mServer;
+    private final DatagramChannel mDatagrams;
+    private final PrintWriter mOut;
+    private final ByteBuffer mDatagram = ByteBuffer.allocate(64 * 1024);
+    private final SimpleDateFormat mDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+    private final StringBuilder mLine = new StringBuilder(256);
+    private final BinaryLogDecoder.Record mRecord = new BinaryLogDecoder.Record();
+    private volatile boolean mRunning = true;
+    private volatile long mFrameCount;
+    private volatile long mEntryCount;
+
+    /**
+     * @param port port to listen on, or 0 for any free one.
+     * @param out  where entries are printed. Flushed after every frame.
+     */
+    public LogCollectorServer(int port, PrintWriter out) throws IOException {
+        mOut = out;
+        mSelector = Selector.open();
+
+        mServer = ServerSocketChannel.open();
+        mServer.socket().setReuseAddress(true);
+        mServer.socket().bind(new InetSocketAddress(port));
+        mServer.configureBlocking(false);
+        mServer.register(mSelector, SelectionKey.OP_ACCEPT);
+
+        mDatagrams = DatagramChannel.open();
+        mDatagrams.socket().bind(new InetSocketAddress(mServer.socket().getLocalPort()));
+        mDatagrams.configureBlocking(false);
+        mDatagrams.register(mSelector, SelectionKey.OP_READ);
+    }
+
+    public int getPort() {
+        return mServer.socket().getLocalPort();
+    }
+
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    public long getEntryCount() {
+        return mEntryCount;
+    }
+
+    /**
+     * Serves connections on the calling thread until {@link #close()} is called.
+     */
+    public void run() throws IOException {
+        try {
+            while (mRunning) {
+                mSelector.select();
+                Iterator<SelectionKey> keys = mSelector.selectedKeys().iterator();
+
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.channel() == mDatagrams) {
+                        receive();
+                    } else {
+                        read(key);
+                    }
+                }
+            }
+        } finally {
+            for (SelectionKey key : mSelector.keys()) {
+                closeQuietly(key.channel());
+            }
+
+            mSelector.close();
+            mOut.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        mRunning = false;
+        mSelector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel client = mServer.accept();
+
+        if (client != null) {
+            client.configureBlocking(false);
+            client.register(mSelector, SelectionKey.OP_READ, new Connection(client.socket().getRemoteSocketAddress()));
+        }
+    }
+
+    private void read(SelectionKey key) {
+        SocketChannel client = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+
+        try {
+            if (client.read(connection.mBuffer) < 0) {
+                closeQuietly(client);
+                return;
+            }
+
+            ByteBuffer buffer = connection.mBuffer;
+            buffer.flip();
+
+            while (buffer.remaining() >= LENGTH_SIZE) {
+                int length = buffer.getInt(buffer.position());
+
+                if (length <= 0 || length > MAX_FRAME_SIZE) {
+                    throw new IOException("Bad frame length " + length);
+                }
+
+                if (buffer.remaining() < LENGTH_SIZE + length) {
+                    if (buffer.capacity() < LENGTH_SIZE + length) {
+                        connection.grow(LENGTH_SIZE + length);
+                        return;
+                    }
+
+                    break;
+                }
+
+                buffer.position(buffer.position() + LENGTH_SIZE);
+                ByteBuffer frame = buffer.slice();
+                frame.limit(length);
+                buffer.position(buffer.position() + length);
+                printFrame(connection.mAddress, frame);
+            }
+
+            buffer.compact();
+        } catch (IOException e) {
+            System.err.println(connection.mAddress + ": " + e.getMessage());
+            closeQuietly(client);
+        }
+    }
+
+    private void receive() throws IOException {
+        mDatagram.clear();
+        SocketAddress address = mDatagrams.receive(mDatagram);
+
+        if (address == null) {
+            return;
+        }
+
+        mDatagram.flip();
+
+        if (mDatagram.remaining() < LENGTH_SIZE || mDatagram.getInt() != mDatagram.remaining()) {
+            System.err.println(address + ": malformed datagram");
+            return;
+        }
+
+        try {
+            printFrame(address, mDatagram);
+        } catch (IOException e) {
+            System.err.println(address + ": " + e.getMessage());
+        }
+    }
+
+    private void printFrame(SocketAddress address, ByteBuffer frame) throws IOException {
+        BinaryLogDecoder decoder = new BinaryLogDecoder(frame);
+        String prefix = address + " ";
+
+        while (decoder.next(mRecord)) {
+            mLine.setLength(0);
+            mLine.append(prefix);
+            mRecord.appendTo(mLine, mDateFormat);
+            mOut.println(mLine);
+            mEntryCount++;
+        }
+
+        mFrameCount++;
+        mOut.flush();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // Nothing to do.
+        }
+    }
+
+    private static final class Connection {
+        final SocketAddress mAddress;
+        ByteBuffer mBuffer = ByteBuffer.allocate(16 * 1024);
+
+        Connection(SocketAddress address) {
+            mAddress = address;
+        }
+
+        /**
+         * Makes room for a frame larger than the buffer. Called with the buffer flipped.
+         */
+        void grow(int capacity) {
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            grown.put(mBuffer);
+            mBuffer = grown;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.content.Context;
+import android.os.FileObserver;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Applies a log configuration file at runtime, so levels and sinks can be changed in the field
+ * without a new build. The file is a {@link Properties} file, {@code log.properties} in the
+ * app's files dir by default:
+ * <pre>
+ * # Lowest level logged by every tag: VERBOSE, DEBUG, INFO, WARNING, ERROR, ASSERT, the first
+ * # letter of one of those, or OFF.
+ * level=DEBUG
+ * # Lowest level for a single tag.
+ * tag.MediaPlayerWrapper=VERBOSE
+ * # Sinks to print to, by the names they were registered with. Omit to keep the sinks
+ * # configured in code.
+ * sinks=logcat,file
+ * </pre>
+ * The file is read on a background thread whenever it is written, moved into place or
+ * deleted, never while logging. Each change is applied as a whole: the global levels and tag
+ * overrides are swapped in one step, and a new sink selection is installed as a new root
+ * logger in one step. Deleting the file restores the configuration found at {@link #start()}.
+ */
+public class LogConfigWatcher {
+    public static final String DEFAULT_FILE_NAME = "log.properties";
+    private static final String TAG = LogConfigWatcher.class.getSimpleName();
+    private static final String KEY_LEVEL = "level";
+    private static final String KEY_SINKS = "sinks";
+    private static final String TAG_PREFIX = "tag.";
+    private static final int EVENTS = FileObserver.CLOSE_WRITE | FileObserver.MOVED_TO | FileObserver.MOVED_FROM | FileObserver.DELETE;
+
+    private final File mFile;
+    private final Map<String, BaseLog> mSinks;
+    private final FileObserver mObserver;
+    private BaseLog mBaseLogger;
+    private int mBaseMask;
+    private Map<String, Integer> mBaseTagMasks;
+    private boolean mStarted;
+
+    private LogConfigWatcher(Builder builder) {
+        mFile = builder.mFile;
+        mSinks = new LinkedHashMap<String, BaseLog>(builder.mSinks);
+        final String name = mFile.getName();
+        mObserver = new FileObserver(mFile.getParent(), EVENTS) {
+            @Override
+            public void onEvent(int event, String path) {
+                if (name.equals(path)) {
+                    reload();
+                }
+            }
+        };
+    }
+
+    public File getFile() {
+        return mFile;
+    }
+
+    /**
+     * Remembers the current logger and its levels as the configuration to fall back to, starts
+     * watching and applies the file, if there is one, on a background thread.
+     */
+    public synchronized void start() {
+        if (mStarted) {
+            return;
+        }
+
+        mStarted = true;
+        mBaseLogger = Logger.getLogger();
+        mBaseMask = mBaseLogger.getEnabledMask();
+        mBaseTagMasks = mBaseLogger.getTagMasks();
+
+        File parent = mFile.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            Log.w(TAG, "Couldn't create " + parent);
+        }
+
+        mObserver.startWatching();
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                reload();
+            }
+        }, TAG);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching and restores the configuration found at {@link #start()}.
+     */
+    public synchronized void stop() {
+        if (!mStarted) {
+            return;
+        }
+
+        mStarted = false;
+        mObserver.stopWatching();
+        apply(null);
+    }
+
+    /**
+     * Reads the file again and applies it. Called by the observer; can also be called directly,
+     * but not from the main thread.
+     */
+    public void reload() {
+        Properties properties = null;
+
+        if (mFile.isFile()) {
+            properties = new Properties();
+            InputStream in = null;
+
+            try {
+                in = new FileInputStream(mFile);
+                properties.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                Log.e(TAG, "Couldn't read " + mFile, e);
+                return;
+            } finally {
+                if (in != null) {
+                    try {
+                        in.close();
+                    } catch (IOException ignored) {
+                        // Already read.
+                    }
+                }
+            }
+        }
+
+        synchronized (this) {
+            if (mStarted) {
+                apply(properties);
+            }
+        }
+    }
+
+    /**
+     * @param properties the parsed file, or null to restore the base configuration.
+     */
+    private void apply(Properties properties) {
+        int mask = mBaseMask;
+        Map<String, Integer> tagMasks = new HashMap<String, Integer>(mBaseTagMasks);
+        BaseLog root = mBaseLogger;
+
+        if (properties != null) {
+            String level = properties.getProperty(KEY_LEVEL);
+
+            if (level != null) {
+                Integer parsed = parseMask(level);
+
+                if (parsed != null) {
+                    mask = parsed;
+                }
+            }
+
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith(TAG_PREFIX) && key.length() > TAG_PREFIX.length()) {
+                    Integer parsed = parseMask(properties.getProperty(key));
+
+                    if (parsed != null) {
+                        tagMasks.put(key.substring(TAG_PREFIX.length()), parsed);
+                    }
+                }
+            }
+
+            String sinks = properties.getProperty(KEY_SINKS);
+
+            if (sinks != null) {
+                root = createRoot(sinks);
+            }
+        }
+
+        // Configure the root completely before anyone can see it.
+        root.setLevels(mask, tagMasks);
+
+        if (Logger.getLogger() != root) {
+            new Logger.Builder().setLogger(root);
+        }
+
+        Log.i(TAG, "Applied " + ((properties == null) ? "the default log configuration" : mFile.getName()));
+    }
+
+    private BaseLog createRoot(String names) {
+        List<BaseLog> selected = new ArrayList<BaseLog>();
+
+        for (String name : names.split(",")) {
+            String trimmed = name.trim();
+
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+
+            BaseLog sink = mSinks.get(trimmed);
+
+            if (sink == null) {
+                Log.w(TAG, "Unknown sink '" + trimmed + "' in " + mFile);
+            } else {
+                selected.add(sink);
+            }
+        }
+
+        return new CompositeLog(selected.toArray(new BaseLog[selected.size()]));
+    }
+
+    /**
+     * @return the mask of levels at or above {@code value}, or null if it is not a level.
+     */
+    private Integer parseMask(String value) {
+        String level = value.trim().toUpperCase(Locale.US);
+
+        if ("OFF".equals(level)) {
+            return 0;
+        }
+
+        for (LogLevel logLevel : LogLevel.values()) {
+            if (logLevel.name().equals(level) || (level.length() == 1 && logLevel.name().charAt(0) == level.charAt(0))) {
+                return logLevel.getMaskAtLeast();
+            }
+        }
+
+        Log.w(TAG, "Unknown level '" + value + "' in " + mFile);
+        return null;
+    }
+
+    public static class Builder {
+        private final Map<String, BaseLog> mSinks = new LinkedHashMap<String, BaseLog>();
+        private File mFile;
+
+        /**
+         * Watches {@link #DEFAULT_FILE_NAME} in the app's files dir.
+         */
+        public Builder(@NonNull Context context) {
+            this(new File(context.getFilesDir(), DEFAULT_FILE_NAME));
+        }
+
+        public Builder(@NonNull File file) {
+            mFile = file;
+        }
+
+        /**
+         * Makes {@code sink} selectable with {@code sinks=name} in the file.
+         */
+        public Builder registerSink(@NonNull String name, @NonNull BaseLog sink) {
+            mSinks.put(name, sink);
+            return this;
+        }
+
+        public LogConfigWatcher build() {
+            return new LogConfigWatcher(this);
+        }
+    }
+}
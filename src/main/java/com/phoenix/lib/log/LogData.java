@@ -24,45 +24,336 @@
 
 package com.phoenix.lib.log;
 
-import java.text.DateFormat;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.Locale;
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
+ * One log entry. The message is only formatted when a sink first asks for it.
+ * <p/>
+ * With {@link #setRecycling(boolean) recycling} enabled, the entries {@link Logger} creates come
+ * from a pool and are reused once every holder has released them, which keeps the enabled
+ * logging path free of steady allocation. An entry passed to {@link BaseLog#print(LogData)} is
+ * only valid during that call. A sink that keeps it afterwards, for example in a queue or a
+ * list, calls {@link #retain()} first and {@link #release()} once done with it; fields must not
+ * be read after the release. Entries created with a constructor are never recycled.
+ * <p/>
  * date: 10/26/2014
  *
  * @author Dylan
  */
 class LogData {
-    public final LogLevel priority;
-    public final String tag;
-    public final String dateTimeStr;
-    public final long pid;
+    public static final int POOL_SIZE = 256;
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    private static final AtomicIntegerFieldUpdater<LogData> sRefCounts = AtomicIntegerFieldUpdater.newUpdater(LogData.class, "mRefCount");
+    private static final LogRingBuffer sPool = new LogRingBuffer(POOL_SIZE);
+    private static volatile boolean sCaptureNanoTime;
+    private static volatile boolean sRecycling;
+
+    // Not final so pooled entries can be reused; treat them as read-only.
+    public LogLevel priority;
+    public String tag;
+    /**
+     * Wall clock time the entry was created at, see {@link System#currentTimeMillis()}.
+     */
+    public long timeMillis;
+    /**
+     * Monotonic time the entry was created at, see {@link System#nanoTime()}. Only captured when
+     * {@link #setCaptureNanoTime(boolean)} is enabled, 0 otherwise.
+     */
+    public long nanoTime;
+    public long pid;
+    private String mFormat;
+    private Object[] mArgs;
+    private Throwable mThrowable;
     private String msg;
+    private String mDefaultEntry;
+    private LogFields mFields;
+    private boolean mRecovered;
+    private boolean mPooled;
+    private volatile int mRefCount = 1;
 
     public LogData(LogLevel priority, String tag, String msg) {
-        this.dateTimeStr = getDateTimeStamp();
+        this(priority, tag, msg, null, null);
+    }
+
+    /**
+     * Creates log data whose message is only built the first time {@link #getMsg()} is called.
+     *
+     * @param priority  Log level of the data being logged.
+     * @param tag       Tag for for the log data.
+     * @param format    the format string, or the literal message when {@code args} is null.
+     * @param args      arguments for the format string, may be null.
+     * @param throwable exception whose stack trace is appended to the message, may be null.
+     */
+    public LogData(LogLevel priority, String tag, String format, Object[] args, Throwable throwable) {
+        set(priority, tag, format, args, throwable, null);
+    }
+
+    /**
+     * Recreates an entry written by an earlier session, keeping its original time and thread.
+     */
+    LogData(LogLevel priority, String tag, String msg, long timeMillis, long threadId) {
+        set(priority, tag, msg, null, null, null);
+        this.timeMillis = timeMillis;
+        nanoTime = 0;
+        pid = threadId;
+        this.msg = msg;
+        mRecovered = true;
+    }
+
+    /**
+     * Takes an entry from the pool when recycling is enabled, or creates one. The caller owns
+     * the only reference and must {@link #release()} it after printing.
+     *
+     * @param fields key-value pairs of a structured entry, see {@link LogEvent}; may be null.
+     */
+    static LogData obtain(LogLevel priority, String tag, String format, Object[] args, Throwable throwable, LogFields fields) {
+        boolean recycling = sRecycling;
+        LogData logData = recycling ? sPool.poll() : null;
+
+        if (logData == null) {
+            logData = new LogData(priority, tag, format, args, throwable);
+            logData.mFields = fields;
+            logData.mPooled = recycling;
+        } else {
+            logData.set(priority, tag, format, args, throwable, fields);
+            logData.mRefCount = 1;
+        }
+
+        return logData;
+    }
+
+    /**
+     * Enables or disables recycling of the entries {@link Logger} creates. Off by default; turn
+     * it on before configuring sinks, and only with sinks that follow the {@link #retain()}
+     * contract.
+     */
+    public static void setRecycling(boolean recycling) {
+        sRecycling = recycling;
+    }
+
+    public static boolean isRecycling() {
+        return sRecycling;
+    }
+
+    private void set(LogLevel priority, String tag, String format, Object[] args, Throwable throwable, LogFields fields) {
+        timeMillis = System.currentTimeMillis();
+        nanoTime = sCaptureNanoTime ? System.nanoTime() : 0;
         pid = Thread.currentThread().getId();
         this.priority = priority;
         this.tag = tag;
-        this.msg = msg;
+        mFormat = format;
+        mArgs = args;
+        mThrowable = throwable;
+        mFields = fields;
+        msg = null;
+        mDefaultEntry = null;
+        mRecovered = false;
+    }
+
+    /**
+     * Keeps the entry valid after {@link BaseLog#print(LogData)} returns, until a matching
+     * {@link #release()}.
+     *
+     * @return this entry.
+     */
+    public LogData retain() {
+        sRefCounts.incrementAndGet(this);
+        return this;
+    }
+
+    /**
+     * Gives up one reference. The entry returns to the pool once the last one is released.
+     */
+    public void release() {
+        if (sRefCounts.decrementAndGet(this) == 0 && mPooled) {
+            clear();
+            sPool.offer(this);
+        }
+    }
+
+    private void clear() {
+        priority = null;
+        tag = null;
+        mFormat = null;
+        mArgs = null;
+        mThrowable = null;
+        mFields = null;
+        msg = null;
+        mDefaultEntry = null;
+    }
+
+    /**
+     * @param capture whether new entries also record {@link System#nanoTime()}, for measuring
+     *                intervals between entries precisely.
+     */
+    public static void setCaptureNanoTime(boolean capture) {
+        sCaptureNanoTime = capture;
+    }
+
+    /**
+     * @return true if the entry was recovered from a previous session rather than logged now.
+     */
+    public boolean isRecovered() {
+        return mRecovered;
+    }
+
+    /**
+     * @return the key-value pairs of a structured entry, or null for a plain message. They are
+     * also appended to {@link #getMsg()} as {@code key=value} text.
+     */
+    public LogFields getFields() {
+        return mFields;
+    }
+
+    /**
+     * Tells whether this entry prints the same message as {@code other} without formatting either
+     * one unless their format, arguments and throwable already match.
+     */
+    boolean hasSameMessage(LogData other) {
+        if (msg != null && other.msg != null) {
+            return msg.equals(other.msg);
+        }
+
+        if (!isSameThrowable(mThrowable, other.mThrowable)
+                || ((mFormat == null) ? other.mFormat != null : !mFormat.equals(other.mFormat))
+                || !Arrays.equals(mArgs, other.mArgs)) {
+            return false;
+        }
+
+        if ((mArgs == null || mArgs.length == 0) && mFields == null && other.mFields == null) {
+            return true;
+        }
+
+        // Equal arguments may still render differently, e.g. a mutable object logged twice.
+        String message = getMsg();
+        return (message == null) ? other.getMsg() == null : message.equals(other.getMsg());
+    }
+
+    /**
+     * Compares class and message down both cause chains rather than identity, so a retry loop
+     * that throws a new exception each time still counts as repeating itself.
+     */
+    private static boolean isSameThrowable(Throwable a, Throwable b) {
+        for (int depth = 0; a != b; depth++) {
+            if (a == null || b == null || a.getClass() != b.getClass() || depth > ThrowableRenderer.DEFAULT_MAX_CAUSES) {
+                return false;
+            }
+
+            String message = a.getMessage();
+            if ((message == null) ? b.getMessage() != null : !message.equals(b.getMessage())) {
+                return false;
+            }
+
+            a = a.getCause();
+            b = b.getCause();
+        }
+
+        return true;
     }
 
-    private static String getDateTimeStamp() {
-        Date dateNow = Calendar.getInstance().getTime();
-        return (DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, Locale.US).format(dateNow));
+    /**
+     * @return the message without the structured fields.
+     */
+    String getBaseMsg() {
+        return (mFields == null) ? getMsg() : mFormat;
     }
 
     public String getMsg() {
+        if (msg == null) {
+            msg = buildMsg();
+        }
+
         return msg;
     }
 
+    /**
+     * @return the message with its stack trace rendered by {@code renderer}, which shortens traces
+     * the calling sink has already written. Without a throwable this is {@link #getMsg()}.
+     */
+    public String getMsg(@NonNull ThrowableRenderer renderer) {
+        if (mThrowable == null || mFields != null) {
+            return getMsg();
+        }
+
+        return appendTrace(formatText(), renderer.render(mThrowable));
+    }
+
     public void setMsg(String msg) {
         this.msg = msg;
+        // The explicit message replaces the rendered stack trace as well.
+        mThrowable = null;
+        mDefaultEntry = null;
+    }
+
+    /**
+     * @return {@link #timeMillis} formatted as {@code MM-dd HH:mm:ss.SSS}.
+     */
+    public String getDateTimeStr() {
+        return LogTimeFormatter.get().format(timeMillis);
+    }
+
+    /**
+     * @return the entry laid out as a single line of text, terminated by a line separator. The
+     * line is built once and shared by every sink that asks for it.
+     */
+    public String getDefaultEntry() {
+        if (mDefaultEntry == null) {
+            mDefaultEntry = buildDefaultEntry();
+        }
+
+        return mDefaultEntry;
+    }
+
+    /**
+     * @return the {@link #getDefaultEntry() default line} with its stack trace rendered by
+     * {@code renderer}, see {@link #getMsg(ThrowableRenderer)}.
+     */
+    public String getDefaultEntry(@NonNull ThrowableRenderer renderer) {
+        if (mThrowable == null || mFields != null) {
+            return getDefaultEntry();
+        }
+
+        return buildDefaultEntry(getMsg(renderer));
+    }
+
+    private String buildDefaultEntry() {
+        return buildDefaultEntry(getMsg());
+    }
+
+    private String buildDefaultEntry(String message) {
+        StringBuilder entry = new StringBuilder(LogTimeFormatter.LENGTH + ((message == null) ? 0 : message.length()) + 64);
+        LogTimeFormatter.get().append(timeMillis, entry);
+
+        return entry.append(' ').append(pid)
+                .append(" [").append(tag).append("]:")
+                .append(message)
+                .append(LINE_SEPARATOR)
+                .toString();
+    }
+
+    private String buildMsg() {
+        if (mFields != null) {
+            return mFields.appendTo(new StringBuilder((mFormat == null) ? "" : mFormat)).toString();
+        }
+
+        String text = formatText();
+        return (mThrowable == null) ? text : appendTrace(text, ThrowableRenderer.renderFull(mThrowable));
+    }
+
+    private String formatText() {
+        try {
+            return (mArgs == null) ? mFormat : String.format(mFormat, mArgs);
+        } catch (IllegalFormatException e) {
+            // Formatting runs lazily inside the sinks, where an exception would lose the entry.
+            return mFormat;
+        }
     }
 
-    private String getDateTime() {
-        return dateTimeStr;
+    private static String appendTrace(String text, String trace) {
+        return (text == null) ? trace : text + LINE_SEPARATOR + trace;
     }
 }
@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Builds a structured entry, for example
+ * {@code Logger.atInfo(TAG).kv("streamId", id).kv("ms", elapsed).log("play")}.
+ * <p/>
+ * Each thread reuses one event, and primitive values stay unboxed; {@link #log(String)} copies
+ * the pairs into compact {@link LogFields}. Nothing is recorded when the level is disabled for
+ * the tag. Finish with {@link #log(String)}; an event that is never logged, e.g. because
+ * computing a value threw, is replaced by a new one the next time its thread starts an entry.
+ */
+public final class LogEvent {
+    private static final int INITIAL_FIELDS = 8;
+    private static final ThreadLocal<LogEvent> sEvents = new ThreadLocal<LogEvent>() {
+        @Override
+        protected LogEvent initialValue() {
+            return new LogEvent();
+        }
+    };
+
+    private BaseLog mLog;
+    private LogLevel mLevel;
+    private String mTag;
+    private boolean mEnabled;
+    private boolean mInUse;
+    private int mSize;
+    private String[] mKeys = new String[INITIAL_FIELDS];
+    private byte[] mTypes = new byte[INITIAL_FIELDS];
+    private long[] mValues = new long[INITIAL_FIELDS];
+    private String[] mStrings;
+
+    private LogEvent() {
+
+    }
+
+    /**
+     * @return the calling thread's event. If that is still in use, either because a value passed
+     * to {@link #kv(String, String)} logs on its own or because it was abandoned, a new event
+     * becomes the thread's event; a nested caller keeps its reference to the old one, and an
+     * abandoned one is simply dropped.
+     */
+    static LogEvent obtain(@NonNull BaseLog log, @NonNull LogLevel level, String tag) {
+        LogEvent event = sEvents.get();
+
+        if (event.mInUse) {
+            event = new LogEvent();
+            sEvents.set(event);
+        }
+
+        event.mInUse = true;
+        event.mLog = log;
+        event.mLevel = level;
+        event.mTag = tag;
+        event.mEnabled = log.isLevelEnabled(level, tag);
+        event.mSize = 0;
+        return event;
+    }
+
+    /**
+     * @return whether {@link #log(String)} will print anything, useful to skip computing values.
+     */
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    public LogEvent kv(@NonNull String key, long value) {
+        if (mEnabled) {
+            add(key, LogFields.TYPE_LONG, value);
+        }
+
+        return this;
+    }
+
+    public LogEvent kv(@NonNull String key, int value) {
+        return kv(key, (long) value);
+    }
+
+    public LogEvent kv(@NonNull String key, double value) {
+        if (mEnabled) {
+            add(key, LogFields.TYPE_DOUBLE, Double.doubleToRawLongBits(value));
+        }
+
+        return this;
+    }
+
+    public LogEvent kv(@NonNull String key, boolean value) {
+        if (mEnabled) {
+            add(key, LogFields.TYPE_BOOLEAN, value ? 1 : 0);
+        }
+
+        return this;
+    }
+
+    public LogEvent kv(@NonNull String key, String value) {
+        if (mEnabled) {
+            int index = add(key, LogFields.TYPE_STRING, 0);
+
+            if (mStrings == null) {
+                mStrings = new String[mKeys.length];
+            }
+
+            mStrings[index] = value;
+        }
+
+        return this;
+    }
+
+    /**
+     * Records {@code String.valueOf(value)}, only when the level is enabled.
+     */
+    public LogEvent kv(@NonNull String key, Object value) {
+        return mEnabled ? kv(key, String.valueOf(value)) : this;
+    }
+
+    /**
+     * Prints the entry with the given message and releases the event for reuse.
+     */
+    public void log(String msg) {
+        BaseLog log = mLog;
+
+        if (mEnabled) {
+            LogHelper.dispatch(log, LogData.obtain(mLevel, mTag, msg, null, null, (mSize == 0) ? null : copyFields()));
+        }
+
+        if (mStrings != null) {
+            Arrays.fill(mStrings, 0, mSize, null);
+        }
+
+        mLog = null;
+        mTag = null;
+        mSize = 0;
+        mInUse = false;
+    }
+
+    private LogFields copyFields() {
+        String[] strings = null;
+
+        for (int i = 0; i < mSize; i++) {
+            if (mTypes[i] == LogFields.TYPE_STRING) {
+                strings = Arrays.copyOf(mStrings, mSize);
+                break;
+            }
+        }
+
+        return new LogFields(mSize, Arrays.copyOf(mKeys, mSize), Arrays.copyOf(mTypes, mSize), Arrays.copyOf(mValues, mSize), strings);
+    }
+
+    private int add(String key, byte type, long value) {
+        if (mSize == mKeys.length) {
+            int capacity = mSize * 2;
+            mKeys = Arrays.copyOf(mKeys, capacity);
+            mTypes = Arrays.copyOf(mTypes, capacity);
+            mValues = Arrays.copyOf(mValues, capacity);
+
+            if (mStrings != null) {
+                mStrings = Arrays.copyOf(mStrings, capacity);
+            }
+        }
+
+        mKeys[mSize] = key;
+        mTypes[mSize] = type;
+        mValues[mSize] = value;
+        return mSize++;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Immutable key-value pairs attached to a structured entry, see {@link LogEvent}. Numbers and
+ * booleans are kept unboxed in a single {@code long[]}; only string values need objects.
+ */
+public final class LogFields {
+    public static final byte TYPE_LONG = 1;
+    public static final byte TYPE_DOUBLE = 2;
+    public static final byte TYPE_BOOLEAN = 3;
+    public static final byte TYPE_STRING = 4;
+
+    private final int mSize;
+    private final String[] mKeys;
+    private final byte[] mTypes;
+    private final long[] mValues;
+    private final String[] mStrings;
+
+    LogFields(int size, String[] keys, byte[] types, long[] values, String[] strings) {
+        mSize = size;
+        mKeys = keys;
+        mTypes = types;
+        mValues = values;
+        mStrings = strings;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public String getKey(int index) {
+        return mKeys[index];
+    }
+
+    /**
+     * @return one of {@link #TYPE_LONG}, {@link #TYPE_DOUBLE}, {@link #TYPE_BOOLEAN} or
+     * {@link #TYPE_STRING}.
+     */
+    public byte getType(int index) {
+        return mTypes[index];
+    }
+
+    public long getLong(int index) {
+        return mValues[index];
+    }
+
+    public double getDouble(int index) {
+        return Double.longBitsToDouble(mValues[index]);
+    }
+
+    public boolean getBoolean(int index) {
+        return mValues[index] != 0;
+    }
+
+    public String getString(int index) {
+        return (mStrings == null) ? null : mStrings[index];
+    }
+
+    /**
+     * Appends the fields as {@code key=value} pairs, each preceded by a space.
+     */
+    public StringBuilder appendTo(@NonNull StringBuilder builder) {
+        for (int i = 0; i < mSize; i++) {
+            builder.append(' ').append(mKeys[i]).append('=');
+
+            switch (mTypes[i]) {
+                case TYPE_LONG:
+                    builder.append(mValues[i]);
+                    break;
+
+                case TYPE_DOUBLE:
+                    builder.append(getDouble(i));
+                    break;
+
+                case TYPE_BOOLEAN:
+                    builder.append(getBoolean(i));
+                    break;
+
+                default:
+                    builder.append(getString(i));
+                    break;
+            }
+        }
+
+        return builder;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+import java.util.regex.Pattern;
+
+/**
+ * Immutable set of conditions an entry must meet to be shown by the in-app log viewer: a level
+ * mask, an exact tag and either a case-insensitive substring or a regular expression that is
+ * searched for in the message.
+ */
+public final class LogFilter {
+    public static final LogFilter ALL = new Builder().build();
+
+    private final int mLevelMask;
+    private final String mTag;
+    private final String mQuery;
+    private final Pattern mPattern;
+
+    private LogFilter(Builder builder) {
+        mLevelMask = builder.mLevelMask;
+        mTag = builder.mTag;
+        mQuery = builder.mQuery;
+        mPattern = builder.mPattern;
+    }
+
+    public boolean matches(@NonNull LogData logData) {
+        if ((logData.priority.getValue() & mLevelMask) == 0) {
+            return false;
+        }
+
+        if (mTag != null && !mTag.equals(logData.tag)) {
+            return false;
+        }
+
+        if (mQuery == null && mPattern == null) {
+            return true;
+        }
+
+        String msg = logData.getMsg();
+        if (msg == null) {
+            return false;
+        }
+
+        return (mPattern != null) ? mPattern.matcher(msg).find() : containsIgnoreCase(msg, mQuery);
+    }
+
+    public boolean isMatchAll() {
+        return mLevelMask == LogLevel.ALL_MASK && mTag == null && mQuery == null && mPattern == null;
+    }
+
+    private static boolean containsIgnoreCase(String text, String query) {
+        int last = text.length() - query.length();
+
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public static class Builder {
+        private int mLevelMask = LogLevel.ALL_MASK;
+        private String mTag;
+        private String mQuery;
+        private Pattern mPattern;
+
+        /**
+         * Only shows entries at or above {@code level}.
+         */
+        public Builder setMinLevel(@NonNull LogLevel level) {
+            mLevelMask = level.getMaskAtLeast();
+            return this;
+        }
+
+        /**
+         * Only shows entries at exactly the given levels.
+         */
+        public Builder setLevels(LogLevel... levels) {
+            mLevelMask = LogLevel.toMask(levels);
+            return this;
+        }
+
+        /**
+         * @param tag only show entries with exactly this tag, or null for every tag.
+         */
+        public Builder setTag(String tag) {
+            mTag = tag;
+            return this;
+        }
+
+        /**
+         * @param query text the message must contain, ignoring case. Replaces any regex.
+         */
+        public Builder setQuery(String query) {
+            mQuery = (query == null || query.length() == 0) ? null : query;
+            mPattern = null;
+            return this;
+        }
+
+        /**
+         * @param regex expression that must be found in the message. Replaces any query.
+         *
+         * @throws java.util.regex.PatternSyntaxException if the expression is invalid.
+         */
+        public Builder setRegex(String regex) {
+            mPattern = (regex == null || regex.length() == 0) ? null : Pattern.compile(regex);
+            mQuery = null;
+            return this;
+        }
+
+        public LogFilter build() {
+            return new LogFilter(this);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps a filtered view of the newest log entries up to date on a worker thread, so filtering
+ * and searching tens of thousands of entries never blocks the UI.
+ * <p/>
+ * The engine holds its own copy of the entry references. New entries are only matched against
+ * the current filter as they arrive; a new filter triggers one rescan that is abandoned as soon
+ * as another filter replaces it. Every change is published to the main thread as an immutable
+ * {@link Snapshot}, tagged with the engine that produced it so a listener can ignore snapshots
+ * of an engine it already replaced.
+ */
+public class LogFilterEngine {
+    private static final int RESCAN_CHECK_INTERVAL = 1024;
+
+    private final IOnFilteredListener mListener;
+    private final HandlerThread mThread;
+    private final Handler mWorker;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final LogData[] mStore;
+    private final Object mQuitLock = new Object();
+    private volatile int mFilterGeneration;
+    private volatile boolean mQuit;
+    // Everything below is only touched on the worker thread.
+    private int mStoreStart;
+    private int mStoreSize;
+    private LogFilter mFilter = LogFilter.ALL;
+    private LogData[] mMatches;
+    private int mMatchStart;
+    private int mMatchCount;
+    private List<LogData> mEvicted = new ArrayList<LogData>();
+
+    /**
+     * Receives snapshots on the main thread.
+     */
+    public interface IOnFilteredListener {
+        void onFiltered(Snapshot snapshot);
+    }
+
+    /**
+     * @param capacity number of newest entries searched, normally the adapter's capacity.
+     */
+    public LogFilterEngine(int capacity, @NonNull IOnFilteredListener listener) {
+        mListener = listener;
+        mStore = new LogData[Math.max(1, capacity)];
+        mMatches = new LogData[mStore.length];
+        mThread = new HandlerThread("LogFilterEngine", Process.THREAD_PRIORITY_BACKGROUND);
+        mThread.start();
+        mWorker = new Handler(mThread.getLooper());
+    }
+
+    /**
+     * Adds entries, oldest first. May be called from any thread; the list is copied and the
+     * engine {@link LogData#retain() retains} the entries until they leave its store.
+     */
+    public void append(@NonNull List<LogData> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        final LogData[] batch = entries.toArray(new LogData[entries.size()]);
+
+        // Checked and posted under the lock, so a batch is either queued ahead of quit()'s
+        // cleanup or never retained at all.
+        synchronized (mQuitLock) {
+            if (mQuit) {
+                return;
+            }
+
+            for (LogData logData : batch) {
+                logData.retain();
+            }
+
+            mWorker.post(new Runnable() {
+                @Override
+                public void run() {
+                    appendOnWorker(batch);
+                }
+            });
+        }
+    }
+
+    /**
+     * Replaces the filter and rescans every stored entry in the background.
+     */
+    public void setFilter(@NonNull final LogFilter filter) {
+        final int generation = ++mFilterGeneration;
+        mWorker.post(new Runnable() {
+            @Override
+            public void run() {
+                rescanOnWorker(filter, generation);
+            }
+        });
+    }
+
+    /**
+     * Stops the worker thread once the work already posted is done, and releases the stored
+     * entries. The engine can't be used afterwards.
+     */
+    public void quit() {
+        synchronized (mQuitLock) {
+            mQuit = true;
+        }
+
+        mWorker.post(new Runnable() {
+            @Override
+            public void run() {
+                final LogData[] stored = new LogData[mStoreSize];
+
+                for (int i = 0; i < stored.length; i++) {
+                    stored[i] = mStore[(mStoreStart + i) % mStore.length];
+                    mStore[(mStoreStart + i) % mStore.length] = null;
+                }
+
+                mStoreSize = 0;
+                mThread.quit();
+
+                // Snapshots already posted to the main thread may still show these entries, so
+                // they are released there, after those.
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (LogData logData : stored) {
+                            logData.release();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void appendOnWorker(LogData[] batch) {
+        if (mQuit) {
+            // Never stored or published, so nothing on the main thread can still show these.
+            for (LogData logData : batch) {
+                logData.release();
+            }
+
+            return;
+        }
+
+        int capacity = mStore.length;
+
+        for (LogData logData : batch) {
+            if (mStoreSize == capacity) {
+                LogData evicted = mStore[mStoreStart];
+                mStoreStart = (mStoreStart + 1) % capacity;
+                mStoreSize--;
+
+                if (mMatchCount > 0 && mMatches[mMatchStart] == evicted) {
+                    mMatchStart++;
+                    mMatchCount--;
+                }
+
+                // The snapshot on screen may still show it; release once the next one is applied.
+                mEvicted.add(evicted);
+            }
+
+            mStore[(mStoreStart + mStoreSize) % capacity] = logData;
+            mStoreSize++;
+
+            if (mFilter.matches(logData)) {
+                addMatch(logData);
+            }
+        }
+
+        publish();
+    }
+
+    private void rescanOnWorker(LogFilter filter, int generation) {
+        LogData[] matches = new LogData[mStore.length];
+        int count = 0;
+
+        for (int i = 0; i < mStoreSize; i++) {
+            if (i % RESCAN_CHECK_INTERVAL == 0 && generation != mFilterGeneration) {
+                return;
+            }
+
+            LogData logData = mStore[(mStoreStart + i) % mStore.length];
+            if (filter.matches(logData)) {
+                matches[count++] = logData;
+            }
+        }
+
+        mFilter = filter;
+        mMatches = matches;
+        mMatchStart = 0;
+        mMatchCount = count;
+        publish();
+    }
+
+    /**
+     * Only ever writes past the published range; once the array is full the live range moves to
+     * a new array, so published snapshots never change underneath the UI.
+     */
+    private void addMatch(LogData logData) {
+        if (mMatchStart + mMatchCount == mMatches.length) {
+            LogData[] compacted = new LogData[mStore.length];
+            System.arraycopy(mMatches, mMatchStart, compacted, 0, mMatchCount);
+            mMatches = compacted;
+            mMatchStart = 0;
+        }
+
+        mMatches[mMatchStart + mMatchCount] = logData;
+        mMatchCount++;
+    }
+
+    private void publish() {
+        final Snapshot snapshot = new Snapshot(this, mFilter, mMatches, mMatchStart, mMatchCount);
+        final List<LogData> evicted = mEvicted;
+        mEvicted = new ArrayList<LogData>();
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mListener.onFiltered(snapshot);
+
+                for (int i = 0; i < evicted.size(); i++) {
+                    evicted.get(i).release();
+                }
+            }
+        });
+    }
+
+    /**
+     * Immutable view of the entries matching a filter, oldest first.
+     */
+    public static final class Snapshot {
+        public final LogFilter filter;
+        public final int count;
+        final LogFilterEngine mEngine;
+        final LogData[] mEntries;
+        final int mStart;
+
+        Snapshot(LogFilterEngine engine, LogFilter filter, LogData[] entries, int start, int count) {
+            mEngine = engine;
+            this.filter = filter;
+            mEntries = entries;
+            mStart = start;
+            this.count = count;
+        }
+
+        /**
+         * @return the engine that published this snapshot.
+         */
+        public LogFilterEngine getEngine() {
+            return mEngine;
+        }
+
+        public LogData get(int index) {
+            return mEntries[mStart + index];
+        }
+
+        /**
+         * @return true if this snapshot only adds entries to the end of {@code previous} and
+         * drops entries from its start.
+         */
+        boolean continues(Snapshot previous) {
+            return previous != null && previous.filter == filter && previous.mEntries == mEntries && previous.mStart <= mStart;
+        }
+    }
+}
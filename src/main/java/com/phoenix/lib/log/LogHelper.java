@@ -25,7 +25,7 @@
 package com.phoenix.lib.log;
 
 import android.support.annotation.NonNull;
-import android.util.Log;
+import android.support.annotation.Nullable;
 
 /**
  * date: 10/26/2014
@@ -33,6 +33,8 @@ import android.util.Log;
  * @author Dylan
  */
 class LogHelper {
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
     private LogHelper() {
 
     }
@@ -46,8 +48,8 @@ class LogHelper {
      *                  to extract and print useful information.
      */
     public static void v(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg, @NonNull Throwable throwable) {
-        if (log.mEnabledLevels.contains(LogLevel.VERBOSE)) {
-            log.print(new LogData(LogLevel.VERBOSE, tag, String.format("%s%n%s", msg, Log.getStackTraceString(throwable))));
+        if (log.isLevelEnabled(LogLevel.VERBOSE, tag)) {
+            print(log, LogLevel.VERBOSE, tag, msg, null, throwable);
         }
     }
 
@@ -58,8 +60,8 @@ class LogHelper {
      * @param msg The actual message to be logged.
      */
     public static void v(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg) {
-        if (log.mEnabledLevels.contains(LogLevel.VERBOSE)) {
-            log.print(new LogData(LogLevel.VERBOSE, tag, msg));
+        if (log.isLevelEnabled(LogLevel.VERBOSE, tag)) {
+            print(log, LogLevel.VERBOSE, tag, msg, null, null);
         }
     }
 
@@ -72,8 +74,8 @@ class LogHelper {
      *                  to extract and print useful information.
      */
     public static void i(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg, @NonNull Throwable throwable) {
-        if (log.mEnabledLevels.contains(LogLevel.INFO)) {
-            log.print(new LogData(LogLevel.INFO, tag, String.format("%s%n%s", msg, Log.getStackTraceString(throwable))));
+        if (log.isLevelEnabled(LogLevel.INFO, tag)) {
+            print(log, LogLevel.INFO, tag, msg, null, throwable);
         }
     }
 
@@ -84,8 +86,8 @@ class LogHelper {
      * @param msg The actual message to be logged.
      */
     public static void i(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg) {
-        if (log.mEnabledLevels.contains(LogLevel.INFO)) {
-            log.print(new LogData(LogLevel.INFO, tag, msg));
+        if (log.isLevelEnabled(LogLevel.INFO, tag)) {
+            print(log, LogLevel.INFO, tag, msg, null, null);
         }
     }
 
@@ -98,8 +100,8 @@ class LogHelper {
      *                  to extract and print useful information.
      */
     public static void d(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg, @NonNull Throwable throwable) {
-        if (log.mEnabledLevels.contains(LogLevel.DEBUG)) {
-            log.print(new LogData(LogLevel.DEBUG, tag, String.format("%s%n%s", msg, Log.getStackTraceString(throwable))));
+        if (log.isLevelEnabled(LogLevel.DEBUG, tag)) {
+            print(log, LogLevel.DEBUG, tag, msg, null, throwable);
         }
     }
 
@@ -110,8 +112,8 @@ class LogHelper {
      * @param msg The actual message to be logged.
      */
     public static void d(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg) {
-        if (log.mEnabledLevels.contains(LogLevel.DEBUG)) {
-            log.print(new LogData(LogLevel.DEBUG, tag, msg));
+        if (log.isLevelEnabled(LogLevel.DEBUG, tag)) {
+            print(log, LogLevel.DEBUG, tag, msg, null, null);
         }
     }
 
@@ -122,8 +124,8 @@ class LogHelper {
      * @param msg The actual message to be logged.
      */
     public static void e(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg, @NonNull Throwable throwable) {
-        if (log.mEnabledLevels.contains(LogLevel.ERROR)) {
-            log.print(new LogData(LogLevel.ERROR, tag, String.format("%s%n%s", msg, Log.getStackTraceString(throwable))));
+        if (log.isLevelEnabled(LogLevel.ERROR, tag)) {
+            print(log, LogLevel.ERROR, tag, msg, null, throwable);
         }
     }
 
@@ -134,8 +136,8 @@ class LogHelper {
      * @param msg The actual message to be logged.
      */
     public static void e(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg) {
-        if (log.mEnabledLevels.contains(LogLevel.ERROR)) {
-            log.print(new LogData(LogLevel.ERROR, tag, msg));
+        if (log.isLevelEnabled(LogLevel.ERROR, tag)) {
+            print(log, LogLevel.ERROR, tag, msg, null, null);
         }
     }
 
@@ -146,8 +148,8 @@ class LogHelper {
      * @param msg The actual message to be logged.
      */
     public static void wtf(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg) {
-        if (log.mEnabledLevels.contains(LogLevel.ASSERT)) {
-            log.print(new LogData(LogLevel.ASSERT, tag, msg));
+        if (log.isLevelEnabled(LogLevel.ASSERT, tag)) {
+            print(log, LogLevel.ASSERT, tag, msg, null, null);
         }
     }
 
@@ -158,8 +160,8 @@ class LogHelper {
      * @param msg The actual message to be logged.
      */
     public static void w(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg) {
-        if (log.mEnabledLevels.contains(LogLevel.WARNING)) {
-            log.print(new LogData(LogLevel.WARNING, tag, msg));
+        if (log.isLevelEnabled(LogLevel.WARNING, tag)) {
+            print(log, LogLevel.WARNING, tag, msg, null, null);
         }
     }
 
@@ -172,8 +174,8 @@ class LogHelper {
      *                  to extract and print useful information.
      */
     public static void wtf(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg, @NonNull Throwable throwable) {
-        if (log.mEnabledLevels.contains(LogLevel.ASSERT)) {
-            log.print(new LogData(LogLevel.ASSERT, tag, String.format("%s%n%s", msg, Log.getStackTraceString(throwable))));
+        if (log.isLevelEnabled(LogLevel.ASSERT, tag)) {
+            print(log, LogLevel.ASSERT, tag, msg, null, throwable);
         }
     }
 
@@ -186,8 +188,8 @@ class LogHelper {
      *                  to extract and print useful information.
      */
     public static void w(@NonNull BaseLog log, @NonNull String tag, @NonNull String msg, @NonNull Throwable throwable) {
-        if (log.mEnabledLevels.contains(LogLevel.WARNING)) {
-            log.print(new LogData(LogLevel.WARNING, tag, String.format("%s%n%s", msg, Log.getStackTraceString(throwable))));
+        if (log.isLevelEnabled(LogLevel.WARNING, tag)) {
+            print(log, LogLevel.WARNING, tag, msg, null, throwable);
         }
     }
 
@@ -199,8 +201,8 @@ class LogHelper {
      *                  to extract and print useful information.
      */
     public static void wtf(@NonNull BaseLog log, @NonNull String tag, @NonNull Throwable throwable) {
-        if (log.mEnabledLevels.contains(LogLevel.ASSERT)) {
-            log.print(new LogData(LogLevel.ASSERT, tag, Log.getStackTraceString(throwable)));
+        if (log.isLevelEnabled(LogLevel.ASSERT, tag)) {
+            print(log, LogLevel.ASSERT, tag, null, null, throwable);
         }
     }
 
@@ -212,8 +214,66 @@ class LogHelper {
      *                  to extract and print useful information.
      */
     public static void w(@NonNull BaseLog log, @NonNull String tag, @NonNull Throwable throwable) {
-        if (log.mEnabledLevels.contains(LogLevel.WARNING)) {
-            log.print(new LogData(LogLevel.WARNING, tag, Log.getStackTraceString(throwable)));
+        if (log.isLevelEnabled(LogLevel.WARNING, tag)) {
+            print(log, LogLevel.WARNING, tag, null, null, throwable);
+        }
+    }
+
+    /**
+     * Hands a new entry to {@code log} and releases it afterwards, so the entry goes back to the
+     * pool when recycling is enabled and no sink kept it.
+     */
+    static void print(BaseLog log, LogLevel level, String tag, String format, Object[] args, Throwable throwable) {
+        dispatch(log, LogData.obtain(level, tag, format, args, throwable, null));
+    }
+
+    /**
+     * Prints an entry the caller owns, records it in {@link LogMetrics} and releases it.
+     */
+    static void dispatch(BaseLog log, LogData logData) {
+        try {
+            if (LogMetrics.isEnabled()) {
+                long start = System.nanoTime();
+                log.print(logData);
+                LogMetrics.onEntry(logData, System.nanoTime() - start);
+            } else {
+                log.print(logData);
+            }
+        } finally {
+            logData.release();
+        }
+    }
+
+    /**
+     * Prints a formatted message at the given priority. The level is checked before any
+     * {@link LogData} is created and the format string is only evaluated when a sink reads the
+     * message.
+     *
+     * @param level  priority of the message.
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param args   for formatting the output
+     */
+    public static void printFormatted(@NonNull BaseLog log, @NonNull LogLevel level, @NonNull String tag, @NonNull String format, @Nullable Object[] args) {
+        if (log.isLevelEnabled(level, tag)) {
+            print(log, level, tag, format, (args == null) ? EMPTY_ARGS : args, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at the given priority along with the stack trace of
+     * {@code throwable}. Both the message and the stack trace are rendered lazily.
+     *
+     * @param level     priority of the message.
+     * @param tag       Tag for for the log data. Can be used to organize log statements.
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     * @param format    the format string (see {@link java.util.Formatter#format})
+     * @param args      for formatting the output
+     */
+    public static void printFormatted(@NonNull BaseLog log, @NonNull LogLevel level, @NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @Nullable Object[] args) {
+        if (log.isLevelEnabled(level, tag)) {
+            print(log, level, tag, format, (args == null) ? EMPTY_ARGS : args, throwable);
         }
     }
 }
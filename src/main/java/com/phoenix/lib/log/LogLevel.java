@@ -37,11 +37,16 @@ import com.phoenix.lib.app.BaseApplication;
  */
 public enum LogLevel {
     VERBOSE(0x01, R.color.log_level_verbose, R.string.log_level_verbose),
-    INFO(0x02, R.color.log_level_info, R.string.log_level_info),
+    INFO(0x04, R.color.log_level_info, R.string.log_level_info),
     DEBUG(0x02, R.color.log_level_debug, R.string.log_level_debug),
-    ERROR(0x02, R.color.log_level_error, R.string.log_level_error),
-    ASSERT(0x02, R.color.log_level_assert, R.string.log_level_assert),
-    WARNING(0x02, R.color.log_level_warning, R.string.log_level_warning);
+    ERROR(0x10, R.color.log_level_error, R.string.log_level_error),
+    ASSERT(0x20, R.color.log_level_assert, R.string.log_level_assert),
+    WARNING(0x08, R.color.log_level_warning, R.string.log_level_warning);
+
+    /**
+     * Every level's {@link #getValue() bit} set.
+     */
+    public static final int ALL_MASK = 0x3F;
 
     private final int mColorId;
     private final int mValue;
@@ -85,10 +90,39 @@ public enum LogLevel {
         return color;
     }
 
+    /**
+     * @return a bit unique to this level. Bits increase with severity, from {@link #VERBOSE}
+     * to {@link #ASSERT}, so they can be combined into masks and compared.
+     */
     public int getValue() {
         return mValue;
     }
 
+    /**
+     * @return mask of this level and every more severe one.
+     */
+    public int getMaskAtLeast() {
+        return ALL_MASK & ~(mValue - 1);
+    }
+
+    public static int toMask(LogLevel... levels) {
+        int mask = 0;
+        for (LogLevel level : levels) {
+            mask |= level.mValue;
+        }
+
+        return mask;
+    }
+
+    public static int toMask(Iterable<LogLevel> levels) {
+        int mask = 0;
+        for (LogLevel level : levels) {
+            mask |= level.mValue;
+        }
+
+        return mask;
+    }
+
     public int getColor() {
         return (BaseApplication.getContext() != null) ? BaseApplication.getContext().getResources().getColor(mColorId) : getDefaultColor(this);
     }
@@ -0,0 +1,414 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts what logging costs: entries per level and per tag, entries dropped by full queues and
+ * suppressed by {@link ThrottlingLog}, log-scale histograms of the time spent in each sink's
+ * {@link BaseLog#print(LogData)}, and the depth of every {@link AsyncLog} queue. All counters are
+ * lock free.
+ * <p/>
+ * Collection is off by default; {@link #setEnabled(boolean)} turns it on. Read the numbers
+ * through the getters, or have {@link #startPeriodicSummary(long)} log a {@link #getSummary()}
+ * line at a fixed interval.
+ */
+public final class LogMetrics {
+    /**
+     * Histogram of the whole {@link Logger} call, all sinks included.
+     */
+    public static final String TOTAL = "total";
+    /**
+     * Tags counted after {@link #MAX_TAGS} distinct tags have been seen.
+     */
+    public static final String OTHER_TAGS = "(other)";
+    public static final int MAX_TAGS = 256;
+    private static final String TAG = LogMetrics.class.getSimpleName();
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    private static final AtomicLongArray sLevelCounts = new AtomicLongArray(LEVELS.length);
+    private static final ConcurrentHashMap<String, AtomicLong> sTagCounts = new ConcurrentHashMap<String, AtomicLong>();
+    private static final AtomicLong sDroppedCount = new AtomicLong();
+    private static final AtomicLong sSuppressedCount = new AtomicLong();
+    private static final ConcurrentHashMap<String, LatencyHistogram> sLatencies = new ConcurrentHashMap<String, LatencyHistogram>();
+    private static final CopyOnWriteArrayList<WeakReference<AsyncLog>> sQueues = new CopyOnWriteArrayList<WeakReference<AsyncLog>>();
+    private static final LatencyHistogram sTotalLatency = getSinkLatency(TOTAL);
+    private static volatile boolean sEnabled;
+    private static ScheduledExecutorService sSummaryExecutor;
+    private static ScheduledFuture<?> sSummary;
+
+    private LogMetrics() {
+
+    }
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Clears every counter and histogram. Queue high-water marks are reset to the current depth.
+     */
+    public static void reset() {
+        for (int i = 0; i < LEVELS.length; i++) {
+            sLevelCounts.set(i, 0);
+        }
+
+        sTagCounts.clear();
+        sDroppedCount.set(0);
+        sSuppressedCount.set(0);
+
+        for (LatencyHistogram histogram : sLatencies.values()) {
+            histogram.reset();
+        }
+
+        for (WeakReference<AsyncLog> reference : sQueues) {
+            AsyncLog queue = reference.get();
+
+            if (queue != null) {
+                queue.resetHighWaterMark();
+            }
+        }
+    }
+
+    static void onEntry(LogData logData, long elapsedNanos) {
+        sLevelCounts.incrementAndGet(logData.priority.ordinal());
+        String tag = (logData.tag == null) ? "" : logData.tag;
+        AtomicLong count = sTagCounts.get(tag);
+
+        if (count == null) {
+            count = getTagCounter(tag);
+        }
+
+        count.incrementAndGet();
+        sTotalLatency.record(elapsedNanos);
+    }
+
+    private static AtomicLong getTagCounter(String tag) {
+        if (sTagCounts.size() >= MAX_TAGS) {
+            tag = OTHER_TAGS;
+        }
+
+        AtomicLong created = new AtomicLong();
+        AtomicLong count = sTagCounts.putIfAbsent(tag, created);
+        return (count == null) ? created : count;
+    }
+
+    static void onDropped(long count) {
+        if (sEnabled) {
+            sDroppedCount.addAndGet(count);
+        }
+    }
+
+    static void onSuppressed(long count) {
+        if (sEnabled) {
+            sSuppressedCount.addAndGet(count);
+        }
+    }
+
+    static void registerQueue(AsyncLog queue) {
+        // Forget queues that were garbage collected.
+        for (WeakReference<AsyncLog> reference : sQueues) {
+            if (reference.get() == null) {
+                sQueues.remove(reference);
+            }
+        }
+
+        sQueues.add(new WeakReference<AsyncLog>(queue));
+    }
+
+    public static long getLevelCount(@NonNull LogLevel level) {
+        return sLevelCounts.get(level.ordinal());
+    }
+
+    /**
+     * @return a copy of the entry count of every tag seen.
+     */
+    public static Map<String, Long> getTagCounts() {
+        Map<String, Long> counts = new HashMap<String, Long>();
+
+        for (Map.Entry<String, AtomicLong> entry : sTagCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+
+        return counts;
+    }
+
+    /**
+     * @return entries dropped because a queue was full.
+     */
+    public static long getDroppedCount() {
+        return sDroppedCount.get();
+    }
+
+    /**
+     * @return entries withheld by rate limits or collapsed as duplicates.
+     */
+    public static long getSuppressedCount() {
+        return sSuppressedCount.get();
+    }
+
+    /**
+     * @return entries waiting in every {@link AsyncLog} queue right now.
+     */
+    public static int getQueueDepth() {
+        int depth = 0;
+
+        for (WeakReference<AsyncLog> reference : sQueues) {
+            AsyncLog queue = reference.get();
+
+            if (queue != null) {
+                depth += queue.getQueueSize();
+            }
+        }
+
+        return depth;
+    }
+
+    /**
+     * @return the deepest any single {@link AsyncLog} queue has been.
+     */
+    public static int getMaxQueueDepth() {
+        int max = 0;
+
+        for (WeakReference<AsyncLog> reference : sQueues) {
+            AsyncLog queue = reference.get();
+
+            if (queue != null) {
+                max = Math.max(max, queue.getHighWaterMark());
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * @param name a sink class name, or {@link #TOTAL}.
+     *
+     * @return the histogram of time spent in that sink's print, created if needed.
+     */
+    public static LatencyHistogram getSinkLatency(@NonNull String name) {
+        LatencyHistogram histogram = sLatencies.get(name);
+
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram(name);
+            histogram = sLatencies.putIfAbsent(name, created);
+
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+
+        return histogram;
+    }
+
+    static LatencyHistogram getSinkLatency(@NonNull BaseLog sink) {
+        String name = sink.getClass().getSimpleName();
+        return getSinkLatency(name.isEmpty() ? sink.getClass().getName() : name);
+    }
+
+    /**
+     * Prints {@code logData} to {@code sink} and records the time it took, when enabled.
+     */
+    static void print(BaseLog sink, LogData logData, LatencyHistogram latency) {
+        if (!sEnabled) {
+            sink.print(logData);
+            return;
+        }
+
+        long start = System.nanoTime();
+        sink.print(logData);
+        latency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * @return one line with every counter, the queue depth and the p50/p99/max latency of every
+     * sink in microseconds.
+     */
+    public static String getSummary() {
+        StringBuilder summary = new StringBuilder(256).append("entries");
+
+        for (int i = 0; i < LEVELS.length; i++) {
+            summary.append(' ').append(LEVELS[i].name().charAt(0)).append('=').append(sLevelCounts.get(i));
+        }
+
+        summary.append(" tags=").append(sTagCounts.size())
+                .append(" dropped=").append(sDroppedCount.get())
+                .append(" suppressed=").append(sSuppressedCount.get())
+                .append(" queue=").append(getQueueDepth()).append('/').append(getMaxQueueDepth());
+
+        for (LatencyHistogram histogram : sLatencies.values()) {
+            if (histogram.getCount() > 0) {
+                summary.append(' ').append(histogram.getName())
+                        .append("[n=").append(histogram.getCount())
+                        .append(" p50=").append(histogram.getPercentileNanos(0.5) / 1000)
+                        .append(" p99=").append(histogram.getPercentileNanos(0.99) / 1000)
+                        .append(" max=").append(histogram.getMaxNanos() / 1000).append("us]");
+            }
+        }
+
+        return summary.toString();
+    }
+
+    /**
+     * Logs {@link #getSummary()} at {@link LogLevel#INFO} every {@code intervalMillis} on a
+     * background thread, replacing any previous schedule.
+     */
+    public static synchronized void startPeriodicSummary(long intervalMillis) {
+        stopPeriodicSummary();
+
+        if (sSummaryExecutor == null) {
+            sSummaryExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, TAG);
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+
+        sSummary = sSummaryExecutor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                Logger.i(TAG, getSummary());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void stopPeriodicSummary() {
+        if (sSummary != null) {
+            sSummary.cancel(false);
+            sSummary = null;
+        }
+    }
+
+    /**
+     * Counts durations in power-of-two buckets of nanoseconds: bucket {@code i} holds durations
+     * from {@code 2^i} up to {@code 2^(i+1)} ns, and 0 ns lands in bucket 0. Recording is one
+     * increment on an {@link AtomicLongArray} plus the count, total and max.
+     */
+    public static final class LatencyHistogram {
+        private static final int BUCKETS = 64;
+        private final String mName;
+        private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong mCount = new AtomicLong();
+        private final AtomicLong mTotalNanos = new AtomicLong();
+        private final AtomicLong mMaxNanos = new AtomicLong();
+
+        LatencyHistogram(String name) {
+            mName = name;
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        void record(long nanos) {
+            long value = Math.max(nanos, 0);
+            mBuckets.incrementAndGet((value == 0) ? 0 : BUCKETS - 1 - Long.numberOfLeadingZeros(value));
+            mCount.incrementAndGet();
+            mTotalNanos.addAndGet(value);
+            long max;
+
+            while (value > (max = mMaxNanos.get()) && !mMaxNanos.compareAndSet(max, value)) {
+                // Retry until the max is at least this value.
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                mBuckets.set(i, 0);
+            }
+
+            mCount.set(0);
+            mTotalNanos.set(0);
+            mMaxNanos.set(0);
+        }
+
+        public long getCount() {
+            return mCount.get();
+        }
+
+        public long getTotalNanos() {
+            return mTotalNanos.get();
+        }
+
+        public long getMaxNanos() {
+            return mMaxNanos.get();
+        }
+
+        /**
+         * @param fraction between 0 and 1, for example 0.99.
+         *
+         * @return upper bound of the bucket holding that fraction of recorded durations.
+         */
+        public long getPercentileNanos(double fraction) {
+            long target = (long) Math.ceil(getCount() * fraction);
+            long seen = 0;
+
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += mBuckets.get(i);
+
+                if (seen >= target && seen > 0) {
+                    return (i >= BUCKETS - 1) ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                }
+            }
+
+            return 0;
+        }
+
+        /**
+         * @return a copy of the bucket counts, see the class documentation.
+         */
+        public long[] getBucketCounts() {
+            long[] counts = new long[BUCKETS];
+
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = mBuckets.get(i);
+            }
+
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, preallocated multi-producer/multi-consumer queue of {@link LogData}. Every slot
+ * carries a sequence number so producers and consumers claim slots with a single
+ * compare-and-set and never take a lock.
+ */
+final class LogRingBuffer {
+    private final LogData[] mEntries;
+    private final AtomicLongArray mSequences;
+    private final AtomicLong mTail = new AtomicLong();
+    private final AtomicLong mHead = new AtomicLong();
+    private final int mMask;
+
+    /**
+     * @param capacity number of slots, rounded up to the next power of two.
+     */
+    LogRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        mEntries = new LogData[size];
+        mSequences = new AtomicLongArray(size);
+        mMask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            mSequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return mEntries.length;
+    }
+
+    /**
+     * Adds an entry without blocking.
+     *
+     * @return false if the buffer is full.
+     */
+    public boolean offer(LogData logData) {
+        long pos = mTail.get();
+
+        while (true) {
+            int index = (int) pos & mMask;
+            long diff = mSequences.get(index) - pos;
+
+            if (diff == 0) {
+                if (mTail.compareAndSet(pos, pos + 1)) {
+                    mEntries[index] = logData;
+                    mSequences.set(index, pos + 1);
+                    return true;
+                }
+
+                pos = mTail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = mTail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest entry without blocking.
+     *
+     * @return the oldest entry or null if the buffer is empty.
+     */
+    public LogData poll() {
+        long pos = mHead.get();
+
+        while (true) {
+            int index = (int) pos & mMask;
+            long diff = mSequences.get(index) - (pos + 1);
+
+            if (diff == 0) {
+                if (mHead.compareAndSet(pos, pos + 1)) {
+                    LogData logData = mEntries[index];
+                    mEntries[index] = null;
+                    mSequences.set(index, pos + mMask + 1);
+                    return logData;
+                }
+
+                pos = mHead.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = mHead.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code batch.length} entries into {@code batch}.
+     *
+     * @return the number of entries moved.
+     */
+    public int drainTo(LogData[] batch) {
+        int count = 0;
+
+        while (count < batch.length) {
+            LogData logData = poll();
+
+            if (logData == null) {
+                break;
+            }
+
+            batch[count++] = logData;
+        }
+
+        return count;
+    }
+
+    /**
+     * @return total number of slots ever claimed by producers.
+     */
+    public long getOfferedCount() {
+        return mTail.get();
+    }
+
+    public int size() {
+        long size = mTail.get() - mHead.get();
+        return (size < 0) ? 0 : (int) Math.min(size, mEntries.length);
+    }
+
+    public boolean isEmpty() {
+        return mTail.get() == mHead.get();
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Queries the binary segments a {@link FileLogger} wrote by time range, level and tag. Segments
+ * whose {@link SegmentIndex} rules out a match are never opened, and within a segment only the
+ * indexed blocks that overlap the time range are decoded. Segments without an index, like the
+ * one still being written, are scanned in full. Has no Android dependencies, so the same code
+ * serves the in-app viewer and, through {@code LogStoreMain} in the {@code tools} module,
+ * exported bundles on a workstation.
+ */
+public class LogStore {
+    public static final String SEGMENT_SUFFIX = ".plog";
+    private static final String COMPRESSED_SUFFIX = ".gz";
+
+    private final File mDirectory;
+    private final String mName;
+
+    /**
+     * @param directory directory the segments are in.
+     * @param name      name the {@link FileLogger} was built with.
+     */
+    public LogStore(File directory, String name) {
+        mDirectory = directory;
+        mName = name;
+    }
+
+    /**
+     * @return the binary segments of the store, oldest first.
+     */
+    public File[] listSegments() {
+        File[] files = mDirectory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String filename) {
+                return filename.startsWith(mName + "-") && (filename.endsWith(SEGMENT_SUFFIX) || filename.endsWith(SEGMENT_SUFFIX + COMPRESSED_SUFFIX));
+            }
+        });
+
+        if (files == null) {
+            return new File[0];
+        }
+
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * @return up to {@link Query#setLimit(int) the limit} matching entries, oldest segment first.
+     */
+    public List<BinaryLogDecoder.Record> query(Query query) throws IOException {
+        final List<BinaryLogDecoder.Record> records = new ArrayList<BinaryLogDecoder.Record>();
+
+        query(query, new Visitor() {
+            @Override
+            public boolean onRecord(BinaryLogDecoder.Record record) {
+                BinaryLogDecoder.Record copy = new BinaryLogDecoder.Record();
+                copy.timeMillis = record.timeMillis;
+                copy.level = record.level;
+                copy.tag = record.tag;
+                copy.threadId = record.threadId;
+                copy.msg = record.msg;
+                copy.offset = record.offset;
+                records.add(copy);
+                return true;
+            }
+        });
+
+        return records;
+    }
+
+    /**
+     * Hands every matching entry to {@code visitor}, oldest segment first, until it returns
+     * false or {@link Query#setLimit(int) the limit} is reached.
+     *
+     * @return number of matching entries visited.
+     */
+    public int query(Query query, Visitor visitor) throws IOException {
+        BinaryLogDecoder.Record record = new BinaryLogDecoder.Record();
+        int matches = 0;
+        query.mSegmentsSkipped = 0;
+        query.mSegmentsSearched = 0;
+        query.mBlocksSkipped = 0;
+
+        for (File segment : listSegments()) {
+            SegmentIndex index;
+
+            try {
+                index = SegmentIndex.read(SegmentIndex.fileFor(segment));
+            } catch (IOException e) {
+                // Unreadable, scan the whole segment instead.
+                index = null;
+            }
+
+            if (index != null && !index.mayMatch(query.mFromMillis, query.mToMillis, query.mLevelMask, query.mTags)) {
+                query.mSegmentsSkipped++;
+                continue;
+            }
+
+            query.mSegmentsSearched++;
+            ByteBuffer data = load(segment);
+            BinaryLogDecoder decoder = new BinaryLogDecoder(data);
+            int blockCount = (index != null) ? index.getBlockCount() : 1;
+
+            for (int block = 0; block < blockCount; block++) {
+                long end = Long.MAX_VALUE;
+
+                if (index != null) {
+                    if (!index.blockMayMatch(block, query.mFromMillis, query.mToMillis)) {
+                        query.mBlocksSkipped++;
+                        continue;
+                    }
+
+                    decoder.seek((int) index.getBlockOffset(block), index.getBlockPreviousMillis(block), index.getTags());
+
+                    if (block + 1 < blockCount) {
+                        end = index.getBlockOffset(block + 1);
+                    }
+                }
+
+                while (decoder.next(record) && record.offset < end) {
+                    if (query.matches(record)) {
+                        matches++;
+
+                        if (!visitor.onRecord(record) || matches >= query.mLimit) {
+                            return matches;
+                        }
+                    }
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    private static ByteBuffer load(File segment) throws IOException {
+        if (segment.getName().endsWith(COMPRESSED_SUFFIX)) {
+            return ByteBuffer.wrap(BinaryLogDecoder.readFully(segment));
+        }
+
+        FileInputStream in = new FileInputStream(segment);
+
+        try {
+            // Only the pages of the blocks that are decoded get read.
+            FileChannel channel = in.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            in.close();
+        }
+    }
+
+    public interface Visitor {
+        /**
+         * @param record the entry, only valid during the call.
+         *
+         * @return false to stop the query.
+         */
+        boolean onRecord(BinaryLogDecoder.Record record);
+    }
+
+    /**
+     * What to look for. Matches every entry until narrowed down. The counters describe the last
+     * run of the query.
+     */
+    public static class Query {
+        private long mFromMillis = Long.MIN_VALUE;
+        private long mToMillis = Long.MAX_VALUE;
+        private int mLevelMask = -1;
+        private Set<String> mTags;
+        private int mLimit = Integer.MAX_VALUE;
+        private int mSegmentsSearched;
+        private int mSegmentsSkipped;
+        private int mBlocksSkipped;
+
+        /**
+         * @param fromMillis earliest time, inclusive.
+         * @param toMillis   latest time, inclusive.
+         */
+        public Query setTimeRange(long fromMillis, long toMillis) {
+            mFromMillis = fromMillis;
+            mToMillis = toMillis;
+            return this;
+        }
+
+        /**
+         * @param letter the logcat letter of the lowest level to match: V, D, I, W, E or A.
+         */
+        public Query setMinLevel(char letter) {
+            for (int level = 0; level < 32; level++) {
+                if (BinaryLogFormat.levelLetter(level) == Character.toUpperCase(letter)) {
+                    mLevelMask = -1 << level;
+                    return this;
+                }
+            }
+
+            throw new IllegalArgumentException("Unknown level " + letter);
+        }
+
+        /**
+         * Restricts the query to the given tags; may be called more than once.
+         */
+        public Query addTag(String tag) {
+            if (mTags == null) {
+                mTags = new HashSet<String>();
+            }
+
+            mTags.add(tag);
+            return this;
+        }
+
+        public Query setLimit(int count) {
+            mLimit = Math.max(1, count);
+            return this;
+        }
+
+        public int getSegmentsSearched() {
+            return mSegmentsSearched;
+        }
+
+        public int getSegmentsSkipped() {
+            return mSegmentsSkipped;
+        }
+
+        public int getBlocksSkipped() {
+            return mBlocksSkipped;
+        }
+
+        boolean matches(BinaryLogDecoder.Record record) {
+            return record.timeMillis >= mFromMillis && record.timeMillis <= mToMillis
+                    && ((1 << (record.level & 0x1F)) & mLevelMask) != 0
+                    && (mTags == null || mTags.contains(record.tag));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.util.Calendar;
+
+/**
+ * Formats epoch millis as {@code MM-dd HH:mm:ss.SSS}, the layout logcat uses. The date, hour and
+ * minute are only recomputed through a {@link Calendar} when the minute changes; within a minute
+ * just the second and millisecond digits are rewritten in place.
+ * <p/>
+ * Instances are not thread safe, use {@link #get()} for one bound to the calling thread.
+ */
+final class LogTimeFormatter {
+    public static final int LENGTH = 18;
+    private static final long MINUTE_MILLIS = 60 * 1000;
+    private static final ThreadLocal<LogTimeFormatter> sFormatters = new ThreadLocal<LogTimeFormatter>() {
+        @Override
+        protected LogTimeFormatter initialValue() {
+            return new LogTimeFormatter();
+        }
+    };
+
+    private final char[] mChars = "MM-dd HH:mm:ss.SSS".toCharArray();
+    private final Calendar mCalendar = Calendar.getInstance();
+    private long mMinuteStart = Long.MAX_VALUE;
+
+    /**
+     * @return the formatter bound to the calling thread.
+     */
+    public static LogTimeFormatter get() {
+        return sFormatters.get();
+    }
+
+    public void append(long millis, StringBuilder out) {
+        update(millis);
+        out.append(mChars);
+    }
+
+    public String format(long millis) {
+        update(millis);
+        return new String(mChars);
+    }
+
+    /**
+     * @return the formatted characters, valid until the next call on this formatter.
+     */
+    public char[] chars(long millis) {
+        update(millis);
+        return mChars;
+    }
+
+    private void update(long millis) {
+        if (millis < mMinuteStart || millis >= mMinuteStart + MINUTE_MILLIS) {
+            updateMinute(millis);
+        }
+
+        int inMinute = (int) (millis - mMinuteStart);
+        int seconds = inMinute / 1000;
+        int fraction = inMinute % 1000;
+        mChars[12] = (char) ('0' + seconds / 10);
+        mChars[13] = (char) ('0' + seconds % 10);
+        mChars[15] = (char) ('0' + fraction / 100);
+        mChars[16] = (char) ('0' + (fraction / 10) % 10);
+        mChars[17] = (char) ('0' + fraction % 10);
+    }
+
+    private void updateMinute(long millis) {
+        mCalendar.setTimeInMillis(millis);
+        putTwoDigits(0, mCalendar.get(Calendar.MONTH) + 1);
+        putTwoDigits(3, mCalendar.get(Calendar.DAY_OF_MONTH));
+        putTwoDigits(6, mCalendar.get(Calendar.HOUR_OF_DAY));
+        putTwoDigits(9, mCalendar.get(Calendar.MINUTE));
+        mMinuteStart = millis - mCalendar.get(Calendar.SECOND) * 1000L - mCalendar.get(Calendar.MILLISECOND);
+    }
+
+    private void putTwoDigits(int index, int value) {
+        mChars[index] = (char) ('0' + value / 10);
+        mChars[index + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -37,27 +37,27 @@ public class LogcatLogger extends BaseLog {
     public void print(@NonNull final LogData logData) {
         switch (logData.priority) {
             case VERBOSE:
-                Log.v(logData.tag, logData.getMsg());
+                Log.v(logData.tag, getText(logData));
                 break;
 
             case INFO:
-                Log.i(logData.tag, logData.getMsg());
+                Log.i(logData.tag, getText(logData));
                 break;
 
             case DEBUG:
-                Log.d(logData.tag, logData.getMsg());
+                Log.d(logData.tag, getText(logData));
                 break;
 
             case ERROR:
-                Log.e(logData.tag, logData.getMsg());
+                Log.e(logData.tag, getText(logData));
                 break;
 
             case ASSERT:
-                Log.wtf(logData.tag, logData.getMsg());
+                Log.wtf(logData.tag, getText(logData));
                 break;
 
             case WARNING:
-                Log.w(logData.tag, logData.getMsg());
+                Log.w(logData.tag, getText(logData));
                 break;
         }
     }
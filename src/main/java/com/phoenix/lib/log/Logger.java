@@ -1,8 +1,7 @@
 package com.phoenix.lib.log;
 
 import android.support.annotation.NonNull;
-
-import static java.util.Arrays.asList;
+import android.support.annotation.Nullable;
 
 /**
  * date:   10/26/2014
@@ -11,13 +10,13 @@ import static java.util.Arrays.asList;
  */
 public class Logger {
     private static Logger sInstance;
-    private BaseLog mLogger;
+    private volatile BaseLog mLogger;
 
     private Logger() {
         mLogger = new LogcatLogger();
     }
 
-    private static BaseLog getLogger() {
+    static BaseLog getLogger() {
         if (sInstance == null) {
             sInstance = new Logger();
         }
@@ -27,7 +26,7 @@ public class Logger {
 
     private static Logger getInstance() {
         if (sInstance == null) {
-            sInstance = null;
+            sInstance = new Logger();
         }
 
         return sInstance;
@@ -37,10 +36,69 @@ public class Logger {
         getLogger().enableReleaseMode();
     }
 
+    /**
+     * Pushes any entries still buffered by the current logger to their destination.
+     */
+    public static void flush() {
+        getLogger().flush();
+    }
+
+    /**
+     * Flushes and stops the current logger. Android kills processes without a callback, so this
+     * is for deliberate teardown such as tests or replacing the logger; to keep entries when the
+     * process may die, call {@link #flush()}, as {@code BaseApplication} does in
+     * {@code onTrimMemory}.
+     */
+    public static void shutdown() {
+        getLogger().shutdown();
+    }
+
     public static boolean isLogLevelEnabled(LogLevel logLevel) {
         return getLogger().isLevelEnabled(logLevel);
     }
 
+    public static boolean isLogLevelEnabled(LogLevel logLevel, String tag) {
+        return getLogger().isLevelEnabled(logLevel, tag);
+    }
+
+    /**
+     * Creates a handle that logs under {@code tag}. The handle caches the levels enabled for the
+     * tag and only looks them up again after the configuration changes, so keep it in a static
+     * field rather than calling this for every message.
+     */
+    public static TaggedLogger forTag(@NonNull String tag) {
+        return new TaggedLogger(tag);
+    }
+
+    /**
+     * Starts a structured entry, for example
+     * {@code Logger.atInfo(TAG).kv("streamId", id).kv("ms", elapsed).log("play")}.
+     * The returned event belongs to the calling thread; finish it with {@link LogEvent#log(String)}.
+     */
+    public static LogEvent at(@NonNull LogLevel level, String tag) {
+        return LogEvent.obtain(getLogger(), level, tag);
+    }
+
+    public static LogEvent atVerbose(String tag) {
+        return at(LogLevel.VERBOSE, tag);
+    }
+
+    public static LogEvent atDebug(String tag) {
+        return at(LogLevel.DEBUG, tag);
+    }
+
+    public static LogEvent atInfo(String tag) {
+        return at(LogLevel.INFO, tag);
+    }
+
+    public static LogEvent atWarning(String tag) {
+        return at(LogLevel.WARNING, tag);
+    }
+
+    public static LogEvent atError(String tag) {
+        return at(LogLevel.ERROR, tag);
+    }
+
     /**
      * Prints a message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority.
      *
@@ -71,12 +129,11 @@ public class Logger {
      * @param format the format string (see {@link java.util.Formatter#format})
      * @param args   for formatting the output
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
+     * @throws NullPointerException if {@code format == null}
      * @see {@link String#format(String, Object...)}
      */
     public static void v(@NonNull String tag, @NonNull String format, @NonNull Object... args) {
-        LogHelper.v(getLogger(), tag, String.format(format, asList(args)));
+        LogHelper.printFormatted(getLogger(), LogLevel.VERBOSE, tag, format, args);
     }
 
     /**
@@ -89,166 +146,198 @@ public class Logger {
      *                  to extract and print useful information.
      * @param args      for formatting the output
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
+     * @throws NullPointerException if {@code format == null}
      * @see {@link String#format(String, Object...)}
      */
     public static void v(@NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @NonNull Object... args) {
-        LogHelper.v(getLogger(), tag, String.format(format, asList(args)), throwable);
+        LogHelper.printFormatted(getLogger(), LogLevel.VERBOSE, tag, throwable, format, args);
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
-     * @param tag Tag for for the log data. Can be used to organize log statements.
-     * @param msg The actual message to be logged.
-     */
-    public static void i(@NonNull String tag, @NonNull String msg) {
-        LogHelper.i(getLogger(), tag, msg);
-    }
-
-    /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
      *
-     * @param tag       Tag for for the log data. Can be used to organize log statements.
-     * @param msg       The actual message to be logged.
-     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
-     *                  to extract and print useful information.
+     * @see {@link String#format(String, Object...)}
      */
-    public static void i(@NonNull String tag, @NonNull Throwable throwable, @NonNull String msg) {
-        LogHelper.i(getLogger(), tag, msg, throwable);
+    public static void v(@NonNull String tag, @NonNull String format, @Nullable Object arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.VERBOSE, tag)) {
+            LogHelper.printFormatted(log, LogLevel.VERBOSE, tag, format, new Object[]{arg1});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
-     * Used as {@link String#format(String, Object...) format}.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
      * @param tag    Tag for for the log data. Can be used to organize log statements.
      * @param format the format string (see {@link java.util.Formatter#format})
-     * @param args   for formatting the output
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
      * @see {@link String#format(String, Object...)}
      */
-    public static void i(@NonNull String tag, @NonNull String format, @NonNull Object... args) {
-        LogHelper.i(getLogger(), tag, String.format(format, asList(args)));
+    public static void v(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.VERBOSE, tag)) {
+            LogHelper.printFormatted(log, LogLevel.VERBOSE, tag, format, new Object[]{arg1, arg2});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
-     * Used as {@link String#format(String, Object...) format}.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
-     * @param tag       Tag for for the log data. Can be used to organize log statements.
-     * @param format    the format string (see {@link java.util.Formatter#format})
-     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
-     *                  to extract and print useful information.
-     * @param args      for formatting the output
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     * @param arg3   third argument for formatting the output
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
      * @see {@link String#format(String, Object...)}
      */
-    public static void i(@NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @NonNull Object... args) {
-        LogHelper.i(getLogger(), tag, String.format(format, asList(args)), throwable);
+    public static void v(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2, @Nullable Object arg3) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.VERBOSE, tag)) {
+            LogHelper.printFormatted(log, LogLevel.VERBOSE, tag, format, new Object[]{arg1, arg2, arg3});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
-     * @param tag Tag for for the log data. Can be used to organize log statements.
-     * @param msg The actual message to be logged.
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
      */
-    public static void d(@NonNull String tag, @NonNull String msg) {
-        LogHelper.d(getLogger(), tag, msg);
+    public static void v(@NonNull String tag, @NonNull String format, long arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.VERBOSE, tag)) {
+            LogHelper.printFormatted(log, LogLevel.VERBOSE, tag, format, new Object[]{arg1});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
-     * @param tag       Tag for for the log data. Can be used to organize log statements.
-     * @param msg       The actual message to be logged.
-     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
-     *                  to extract and print useful information.
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
+     *
+     * @see {@link String#format(String, Object...)}
      */
-    public static void d(@NonNull String tag, @NonNull Throwable throwable, @NonNull String msg) {
-        LogHelper.d(getLogger(), tag, msg, throwable);
+    public static void v(@NonNull String tag, @NonNull String format, int arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.VERBOSE, tag)) {
+            LogHelper.printFormatted(log, LogLevel.VERBOSE, tag, format, new Object[]{arg1});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
-     * Used as {@link String#format(String, Object...) format}.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
      * @param tag    Tag for for the log data. Can be used to organize log statements.
      * @param format the format string (see {@link java.util.Formatter#format})
-     * @param args   for formatting the output
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
      * @see {@link String#format(String, Object...)}
      */
-    public static void d(@NonNull String tag, @NonNull String format, @NonNull Object... args) {
-        LogHelper.d(getLogger(), tag, String.format(format, asList(args)));
+    public static void v(@NonNull String tag, @NonNull String format, char arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.VERBOSE, tag)) {
+            LogHelper.printFormatted(log, LogLevel.VERBOSE, tag, format, new Object[]{arg1});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
-     * Used as {@link String#format(String, Object...) format}.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
-     * @param tag       Tag for for the log data. Can be used to organize log statements.
-     * @param format    the format string (see {@link java.util.Formatter#format})
-     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
-     *                  to extract and print useful information.
-     * @param args      for formatting the output
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
      * @see {@link String#format(String, Object...)}
      */
-    public static void d(@NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @NonNull Object... args) {
-        LogHelper.d(getLogger(), tag, String.format(format, asList(args)), throwable);
+    public static void v(@NonNull String tag, @NonNull String format, double arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.VERBOSE, tag)) {
+            LogHelper.printFormatted(log, LogLevel.VERBOSE, tag, format, new Object[]{arg1});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
      *
      * @param tag Tag for for the log data. Can be used to organize log statements.
      * @param msg The actual message to be logged.
      */
-    public static void e(@NonNull String tag, @NonNull String msg) {
-        LogHelper.e(getLogger(), tag, msg);
+    public static void i(@NonNull String tag, @NonNull String msg) {
+        LogHelper.i(getLogger(), tag, msg);
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
      *
      * @param tag       Tag for for the log data. Can be used to organize log statements.
      * @param msg       The actual message to be logged.
      * @param throwable If an exception was thrown, this can be sent along for the logging facilities
      *                  to extract and print useful information.
      */
-    public static void e(@NonNull String tag, @NonNull Throwable throwable, @NonNull String msg) {
-        LogHelper.e(getLogger(), tag, msg, throwable);
+    public static void i(@NonNull String tag, @NonNull Throwable throwable, @NonNull String msg) {
+        LogHelper.i(getLogger(), tag, msg, throwable);
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
      * Used as {@link String#format(String, Object...) format}.
      *
      * @param tag    Tag for for the log data. Can be used to organize log statements.
-     * @param format The actual message to be logged.
+     * @param format the format string (see {@link java.util.Formatter#format})
      * @param args   for formatting the output
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
+     * @throws NullPointerException if {@code format == null}
      * @see {@link String#format(String, Object...)}
      */
-    public static void e(@NonNull String tag, @NonNull String format, @NonNull Object... args) {
-        LogHelper.e(getLogger(), tag, String.format(format, asList(args)));
+    public static void i(@NonNull String tag, @NonNull String format, @NonNull Object... args) {
+        LogHelper.printFormatted(getLogger(), LogLevel.INFO, tag, format, args);
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
      * Used as {@link String#format(String, Object...) format}.
      *
      * @param tag       Tag for for the log data. Can be used to organize log statements.
@@ -257,130 +346,199 @@ public class Logger {
      *                  to extract and print useful information.
      * @param args      for formatting the output
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
+     * @throws NullPointerException if {@code format == null}
      * @see {@link String#format(String, Object...)}
      */
-    public static void e(@NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @NonNull Object... args) {
-        LogHelper.e(getLogger(), tag, String.format(format, asList(args)), throwable);
+    public static void i(@NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @NonNull Object... args) {
+        LogHelper.printFormatted(getLogger(), LogLevel.INFO, tag, throwable, format, args);
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
-     * @param tag Tag for for the log data. Can be used to organize log statements.
-     * @param msg The actual message to be logged.
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
      */
-    public static void wtf(@NonNull String tag, @NonNull String msg) {
-        LogHelper.wtf(getLogger(), tag, msg);
+    public static void i(@NonNull String tag, @NonNull String format, @Nullable Object arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.INFO, tag)) {
+            LogHelper.printFormatted(log, LogLevel.INFO, tag, format, new Object[]{arg1});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
-     * @param tag       Tag for for the log data. Can be used to organize log statements.
-     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
-     *                  to extract and print useful information.
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
      */
-    public static void wtf(@NonNull String tag, @NonNull Throwable throwable) {
-        LogHelper.wtf(getLogger(), tag, throwable);
+    public static void i(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.INFO, tag)) {
+            LogHelper.printFormatted(log, LogLevel.INFO, tag, format, new Object[]{arg1, arg2});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
-     * @param tag       Tag for for the log data. Can be used to organize log statements.
-     * @param msg       The actual message to be logged.
-     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
-     *                  to extract and print useful information.
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     * @param arg3   third argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
      */
-    public static void wtf(@NonNull String tag, @NonNull Throwable throwable, @NonNull String msg) {
-        LogHelper.wtf(getLogger(), tag, msg, throwable);
+    public static void i(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2, @Nullable Object arg3) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.INFO, tag)) {
+            LogHelper.printFormatted(log, LogLevel.INFO, tag, format, new Object[]{arg1, arg2, arg3});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
-     * Used as {@link String#format(String, Object...) format}.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
      * @param tag    Tag for for the log data. Can be used to organize log statements.
      * @param format the format string (see {@link java.util.Formatter#format})
-     * @param args   for formatting the output
+     * @param arg1   argument for formatting the output
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
      * @see {@link String#format(String, Object...)}
      */
-    public static void wtf(@NonNull String tag, @NonNull String format, @NonNull Object... args) {
-        LogHelper.wtf(getLogger(), tag, String.format(format, asList(args)));
+    public static void i(@NonNull String tag, @NonNull String format, long arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.INFO, tag)) {
+            LogHelper.printFormatted(log, LogLevel.INFO, tag, format, new Object[]{arg1});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
-     * Used as {@link String#format(String, Object...) format}.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
-     * @param tag       Tag for for the log data. Can be used to organize log statements.
-     * @param format    the format string (see {@link java.util.Formatter#format})
-     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
-     *                  to extract and print useful information.
-     * @param args      for formatting the output
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
      * @see {@link String#format(String, Object...)}
      */
-    public static void wtf(@NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @NonNull Object... args) {
-        LogHelper.wtf(getLogger(), tag, String.format(format, asList(args)), throwable);
+    public static void i(@NonNull String tag, @NonNull String format, int arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.INFO, tag)) {
+            LogHelper.printFormatted(log, LogLevel.INFO, tag, format, new Object[]{arg1});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
-     * @param tag Tag for for the log data. Can be used to organize log statements.
-     * @param msg The actual message to be logged.
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
+     *
+     * @see {@link String#format(String, Object...)}
      */
-    public static void w(@NonNull String tag, @NonNull String msg) {
-        LogHelper.w(getLogger(), tag, msg);
+    public static void i(@NonNull String tag, @NonNull String format, char arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.INFO, tag)) {
+            LogHelper.printFormatted(log, LogLevel.INFO, tag, format, new Object[]{arg1});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
      *
-     * @param tag       Tag for for the log data. Can be used to organize log statements.
-     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
-     *                  to extract and print useful information.
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
      */
-    public static void w(@NonNull String tag, @NonNull Throwable throwable) {
-        LogHelper.w(getLogger(), tag, throwable);
+    public static void i(@NonNull String tag, @NonNull String format, double arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.INFO, tag)) {
+            LogHelper.printFormatted(log, LogLevel.INFO, tag, format, new Object[]{arg1});
+        }
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     *
+     * @param tag Tag for for the log data. Can be used to organize log statements.
+     * @param msg The actual message to be logged.
+     */
+    public static void d(@NonNull String tag, @NonNull String msg) {
+        LogHelper.d(getLogger(), tag, msg);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
      *
      * @param tag       Tag for for the log data. Can be used to organize log statements.
      * @param msg       The actual message to be logged.
      * @param throwable If an exception was thrown, this can be sent along for the logging facilities
      *                  to extract and print useful information.
      */
-    public static void w(@NonNull String tag, @NonNull Throwable throwable, @NonNull String msg) {
-        LogHelper.w(getLogger(), tag, msg, throwable);
+    public static void d(@NonNull String tag, @NonNull Throwable throwable, @NonNull String msg) {
+        LogHelper.d(getLogger(), tag, msg, throwable);
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Used as {@link String#format(String, Object...) format}.
      *
      * @param tag    Tag for for the log data. Can be used to organize log statements.
      * @param format the format string (see {@link java.util.Formatter#format})
      * @param args   for formatting the output
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
+     * @throws NullPointerException if {@code format == null}
+     * @see {@link String#format(String, Object...)}
      */
-    public static void w(@NonNull String tag, @NonNull String format, @NonNull Object... args) {
-        LogHelper.w(getLogger(), tag, String.format(format, asList(args)));
+    public static void d(@NonNull String tag, @NonNull String format, @NonNull Object... args) {
+        LogHelper.printFormatted(getLogger(), LogLevel.DEBUG, tag, format, args);
     }
 
     /**
-     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
+     * Used as {@link String#format(String, Object...) format}.
      *
      * @param tag       Tag for for the log data. Can be used to organize log statements.
      * @param format    the format string (see {@link java.util.Formatter#format})
@@ -388,18 +546,800 @@ public class Logger {
      *                  to extract and print useful information.
      * @param args      for formatting the output
      *
-     * @throws NullPointerException             if {@code format == null}
-     * @throws java.util.IllegalFormatException if the format is invalid.
+     * @throws NullPointerException if {@code format == null}
+     * @see {@link String#format(String, Object...)}
      */
-    public static void w(@NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @NonNull Object... args) {
-        LogHelper.w(getLogger(), tag, String.format(format, asList(args)), throwable);
+    public static void d(@NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @NonNull Object... args) {
+        LogHelper.printFormatted(getLogger(), LogLevel.DEBUG, tag, throwable, format, args);
     }
 
-    public static class Builder {
-        private static final Logger mLogger = getInstance();
-
-        public Builder setLogger(BaseLog logger) {
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.DEBUG, tag)) {
+            LogHelper.printFormatted(log, LogLevel.DEBUG, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.DEBUG, tag)) {
+            LogHelper.printFormatted(log, LogLevel.DEBUG, tag, format, new Object[]{arg1, arg2});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     * @param arg3   third argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2, @Nullable Object arg3) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.DEBUG, tag)) {
+            LogHelper.printFormatted(log, LogLevel.DEBUG, tag, format, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void d(@NonNull String tag, @NonNull String format, long arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.DEBUG, tag)) {
+            LogHelper.printFormatted(log, LogLevel.DEBUG, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void d(@NonNull String tag, @NonNull String format, int arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.DEBUG, tag)) {
+            LogHelper.printFormatted(log, LogLevel.DEBUG, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void d(@NonNull String tag, @NonNull String format, char arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.DEBUG, tag)) {
+            LogHelper.printFormatted(log, LogLevel.DEBUG, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void d(@NonNull String tag, @NonNull String format, double arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.DEBUG, tag)) {
+            LogHelper.printFormatted(log, LogLevel.DEBUG, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     *
+     * @param tag Tag for for the log data. Can be used to organize log statements.
+     * @param msg The actual message to be logged.
+     */
+    public static void e(@NonNull String tag, @NonNull String msg) {
+        LogHelper.e(getLogger(), tag, msg);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     *
+     * @param tag       Tag for for the log data. Can be used to organize log statements.
+     * @param msg       The actual message to be logged.
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     */
+    public static void e(@NonNull String tag, @NonNull Throwable throwable, @NonNull String msg) {
+        LogHelper.e(getLogger(), tag, msg, throwable);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Used as {@link String#format(String, Object...) format}.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format The actual message to be logged.
+     * @param args   for formatting the output
+     *
+     * @throws NullPointerException if {@code format == null}
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void e(@NonNull String tag, @NonNull String format, @NonNull Object... args) {
+        LogHelper.printFormatted(getLogger(), LogLevel.ERROR, tag, format, args);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Used as {@link String#format(String, Object...) format}.
+     *
+     * @param tag       Tag for for the log data. Can be used to organize log statements.
+     * @param format    the format string (see {@link java.util.Formatter#format})
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     * @param args      for formatting the output
+     *
+     * @throws NullPointerException if {@code format == null}
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void e(@NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @NonNull Object... args) {
+        LogHelper.printFormatted(getLogger(), LogLevel.ERROR, tag, throwable, format, args);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void e(@NonNull String tag, @NonNull String format, @Nullable Object arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ERROR, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ERROR, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void e(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ERROR, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ERROR, tag, format, new Object[]{arg1, arg2});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     * @param arg3   third argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void e(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2, @Nullable Object arg3) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ERROR, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ERROR, tag, format, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void e(@NonNull String tag, @NonNull String format, long arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ERROR, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ERROR, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void e(@NonNull String tag, @NonNull String format, int arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ERROR, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ERROR, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void e(@NonNull String tag, @NonNull String format, char arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ERROR, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ERROR, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void e(@NonNull String tag, @NonNull String format, double arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ERROR, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ERROR, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     *
+     * @param tag Tag for for the log data. Can be used to organize log statements.
+     * @param msg The actual message to be logged.
+     */
+    public static void wtf(@NonNull String tag, @NonNull String msg) {
+        LogHelper.wtf(getLogger(), tag, msg);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     *
+     * @param tag       Tag for for the log data. Can be used to organize log statements.
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     */
+    public static void wtf(@NonNull String tag, @NonNull Throwable throwable) {
+        LogHelper.wtf(getLogger(), tag, throwable);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     *
+     * @param tag       Tag for for the log data. Can be used to organize log statements.
+     * @param msg       The actual message to be logged.
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     */
+    public static void wtf(@NonNull String tag, @NonNull Throwable throwable, @NonNull String msg) {
+        LogHelper.wtf(getLogger(), tag, msg, throwable);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Used as {@link String#format(String, Object...) format}.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param args   for formatting the output
+     *
+     * @throws NullPointerException if {@code format == null}
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void wtf(@NonNull String tag, @NonNull String format, @NonNull Object... args) {
+        LogHelper.printFormatted(getLogger(), LogLevel.ASSERT, tag, format, args);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Used as {@link String#format(String, Object...) format}.
+     *
+     * @param tag       Tag for for the log data. Can be used to organize log statements.
+     * @param format    the format string (see {@link java.util.Formatter#format})
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     * @param args      for formatting the output
+     *
+     * @throws NullPointerException if {@code format == null}
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void wtf(@NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @NonNull Object... args) {
+        LogHelper.printFormatted(getLogger(), LogLevel.ASSERT, tag, throwable, format, args);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void wtf(@NonNull String tag, @NonNull String format, @Nullable Object arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ASSERT, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ASSERT, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void wtf(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ASSERT, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ASSERT, tag, format, new Object[]{arg1, arg2});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     * @param arg3   third argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void wtf(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2, @Nullable Object arg3) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ASSERT, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ASSERT, tag, format, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void wtf(@NonNull String tag, @NonNull String format, long arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ASSERT, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ASSERT, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void wtf(@NonNull String tag, @NonNull String format, int arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ASSERT, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ASSERT, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void wtf(@NonNull String tag, @NonNull String format, char arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ASSERT, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ASSERT, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void wtf(@NonNull String tag, @NonNull String format, double arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.ASSERT, tag)) {
+            LogHelper.printFormatted(log, LogLevel.ASSERT, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     *
+     * @param tag Tag for for the log data. Can be used to organize log statements.
+     * @param msg The actual message to be logged.
+     */
+    public static void w(@NonNull String tag, @NonNull String msg) {
+        LogHelper.w(getLogger(), tag, msg);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     *
+     * @param tag       Tag for for the log data. Can be used to organize log statements.
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     */
+    public static void w(@NonNull String tag, @NonNull Throwable throwable) {
+        LogHelper.w(getLogger(), tag, throwable);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     *
+     * @param tag       Tag for for the log data. Can be used to organize log statements.
+     * @param msg       The actual message to be logged.
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     */
+    public static void w(@NonNull String tag, @NonNull Throwable throwable, @NonNull String msg) {
+        LogHelper.w(getLogger(), tag, msg, throwable);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param args   for formatting the output
+     *
+     * @throws NullPointerException if {@code format == null}
+     */
+    public static void w(@NonNull String tag, @NonNull String format, @NonNull Object... args) {
+        LogHelper.printFormatted(getLogger(), LogLevel.WARNING, tag, format, args);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     *
+     * @param tag       Tag for for the log data. Can be used to organize log statements.
+     * @param format    the format string (see {@link java.util.Formatter#format})
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     * @param args      for formatting the output
+     *
+     * @throws NullPointerException if {@code format == null}
+     */
+    public static void w(@NonNull String tag, @NonNull Throwable throwable, @NonNull String format, @NonNull Object... args) {
+        LogHelper.printFormatted(getLogger(), LogLevel.WARNING, tag, throwable, format, args);
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void w(@NonNull String tag, @NonNull String format, @Nullable Object arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.WARNING, tag)) {
+            LogHelper.printFormatted(log, LogLevel.WARNING, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void w(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.WARNING, tag)) {
+            LogHelper.printFormatted(log, LogLevel.WARNING, tag, format, new Object[]{arg1, arg2});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     * @param arg3   third argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void w(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2, @Nullable Object arg3) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.WARNING, tag)) {
+            LogHelper.printFormatted(log, LogLevel.WARNING, tag, format, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void w(@NonNull String tag, @NonNull String format, long arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.WARNING, tag)) {
+            LogHelper.printFormatted(log, LogLevel.WARNING, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void w(@NonNull String tag, @NonNull String format, int arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.WARNING, tag)) {
+            LogHelper.printFormatted(log, LogLevel.WARNING, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void w(@NonNull String tag, @NonNull String format, char arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.WARNING, tag)) {
+            LogHelper.printFormatted(log, LogLevel.WARNING, tag, format, new Object[]{arg1});
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     * Used as {@link String#format(String, Object...) format}. The level is checked before the
+     * arguments are boxed, so a disabled call allocates nothing and the message is only
+     * formatted once a sink reads it.
+     *
+     * @param tag    Tag for for the log data. Can be used to organize log statements.
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     *
+     * @see {@link String#format(String, Object...)}
+     */
+    public static void w(@NonNull String tag, @NonNull String format, double arg1) {
+        final BaseLog log = getLogger();
+
+        if (log.isLevelEnabled(LogLevel.WARNING, tag)) {
+            LogHelper.printFormatted(log, LogLevel.WARNING, tag, format, new Object[]{arg1});
+        }
+    }
+
+    public static class Builder {
+        private static final Logger mLogger = getInstance();
+
+        public Builder setLogger(BaseLog logger) {
             mLogger.mLogger = logger;
+            BaseLog.onConfigChanged();
+            return this;
+        }
+
+        /**
+         * Adds a sink next to the current one; both receive every entry. Use a
+         * {@link CompositeLog} directly for per-sink levels and tag filters.
+         */
+        public Builder addLogger(BaseLog logger) {
+            BaseLog current = mLogger.mLogger;
+
+            if (current instanceof CompositeLog) {
+                ((CompositeLog) current).attach(logger);
+            } else {
+                mLogger.mLogger = new CompositeLog(current, logger);
+            }
+
+            BaseLog.onConfigChanged();
             return this;
         }
 
@@ -408,8 +1348,14 @@ public class Logger {
             return this;
         }
 
+        /**
+         * Installs the configuration. Entries recovered from the previous session's
+         * {@link MappedBufferLog} are then replayed to the configured sinks in the background.
+         */
         public void build() {
             sInstance = mLogger;
+            BaseLog.onConfigChanged();
+            MappedBufferLog.replayPreviousSession(mLogger.mLogger);
         }
     }
 
@@ -0,0 +1,490 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.content.Context;
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Black box recorder that keeps the most recent entries in a fixed-size memory-mapped file.
+ * Writes only touch the page cache, so they cost about as much as a memory copy and the
+ * entries survive the process being killed or crashing; they are lost only if the device
+ * itself goes down before the kernel writes the pages back (see {@link #shutdown()}).
+ * <p/>
+ * The file is a ring of records. Each record carries a sync marker, its length and a CRC32 of
+ * its payload, so a record torn by a crash mid-write, or partly overwritten after the ring
+ * wrapped, is skipped when the file is read back.
+ * <pre>
+ * file    := magic "PBOX", version int, capacity int, session start millis long, record*
+ * record  := sync short, payload length int, payload CRC32 int, payload
+ * payload := sequence long, time millis long, level byte, thread id long,
+ *            tag length short, UTF-8 tag, message length int, UTF-8 message
+ * </pre>
+ * Every new session moves the previous file aside. Call {@link #preparePreviousSession(Context)}
+ * early ({@code BaseApplication} does) and the recovered entries are replayed to the configured
+ * sinks on a background thread once {@link Logger.Builder#build()} runs. Every process of the app
+ * has its own {@link #getDefaultFile(Context) default file}, so starting a second process doesn't
+ * move aside the black box the first one is still writing.
+ */
+public class MappedBufferLog extends BaseLog {
+    public static final String DEFAULT_FILE_NAME = "log-blackbox.bin";
+    public static final String PREVIOUS_SUFFIX = ".prev";
+    public static final int DEFAULT_CAPACITY = 256 * 1024;
+    public static final int MIN_CAPACITY = 4 * 1024;
+    private static final String TAG = MappedBufferLog.class.getSimpleName();
+    private static final int MAGIC = 0x50424F58;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 20;
+    private static final short SYNC = (short) 0xB10C;
+    private static final int RECORD_HEADER_SIZE = 10;
+    private static final int PAYLOAD_FIXED_SIZE = 8 + 8 + 1 + 8 + 2 + 4;
+    private static final int MAX_TAG_BYTES = 256;
+
+    private static File sPendingSession;
+
+    private final File mFile;
+    private final int mCapacity;
+    private final MappedByteBuffer mBuffer;
+    private final ByteBuffer mData;
+    private final byte[] mScratch;
+    private final ByteBuffer mPayload;
+    private final CRC32 mCrc = new CRC32();
+    private int mHead;
+    private long mSequence;
+
+    /**
+     * Records to the {@link #getDefaultFile(Context) default file} of this process.
+     */
+    public MappedBufferLog(@NonNull Context context) {
+        this(getDefaultFile(context), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param file     file backing the ring. A file left by a previous session is moved to
+     *                 {@link #PREVIOUS_SUFFIX} first, unless that was already done.
+     * @param capacity bytes reserved for records, at least {@link #MIN_CAPACITY}. A single
+     *                 record is limited to a quarter of it; longer messages are truncated.
+     */
+    public MappedBufferLog(@NonNull File file, int capacity) {
+        mFile = file;
+        mCapacity = Math.max(capacity, MIN_CAPACITY);
+        mScratch = new byte[mCapacity / 4];
+        mPayload = ByteBuffer.wrap(mScratch, RECORD_HEADER_SIZE, mScratch.length - RECORD_HEADER_SIZE).slice();
+        preparePreviousSession(file);
+        mBuffer = map(file, FILE_HEADER_SIZE + mCapacity);
+
+        if (mBuffer == null) {
+            mData = null;
+            return;
+        }
+
+        mBuffer.putInt(0, MAGIC);
+        mBuffer.putInt(4, VERSION);
+        mBuffer.putInt(8, mCapacity);
+        mBuffer.putLong(12, System.currentTimeMillis());
+        mBuffer.position(FILE_HEADER_SIZE);
+        mData = mBuffer.slice();
+    }
+
+    /**
+     * @return {@link #DEFAULT_FILE_NAME} in the app's files dir for the main process; other
+     * processes, e.g. {@code com.example:player}, get their name added, as in
+     * {@code log-blackbox-player.bin}.
+     */
+    public static File getDefaultFile(@NonNull Context context) {
+        String process = getProcessName();
+
+        if (process == null || process.equals(context.getPackageName())) {
+            return new File(context.getFilesDir(), DEFAULT_FILE_NAME);
+        }
+
+        String suffix = process.substring(process.indexOf(':') + 1).replaceAll("[^A-Za-z0-9._-]", "_");
+        int extension = DEFAULT_FILE_NAME.lastIndexOf('.');
+        return new File(context.getFilesDir(), DEFAULT_FILE_NAME.substring(0, extension) + "-" + suffix + DEFAULT_FILE_NAME.substring(extension));
+    }
+
+    /**
+     * @return the name of this process, read from {@code /proc} rather than asked from the
+     * ActivityManager, or null if it can't be read.
+     */
+    @Nullable
+    private static String getProcessName() {
+        InputStream in = null;
+
+        try {
+            in = new FileInputStream("/proc/self/cmdline");
+            byte[] cmdline = new byte[256];
+            int length = Math.max(in.read(cmdline), 0);
+            int end = 0;
+
+            while (end < length && cmdline[end] != 0) {
+                end++;
+            }
+
+            return (end == 0) ? null : new String(cmdline, 0, end, Utf8.UTF_8);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                    // Nothing useful left to do.
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the file left by the previous session aside so it can be replayed. Cheap enough for
+     * {@link android.app.Application#onCreate()}; the file is only read on a background thread.
+     */
+    public static void preparePreviousSession(@NonNull Context context) {
+        preparePreviousSession(getDefaultFile(context));
+    }
+
+    public static synchronized void preparePreviousSession(@NonNull File file) {
+        if (!file.exists()) {
+            return;
+        }
+
+        File previous = getPreviousFile(file);
+
+        if (previous.exists() && !previous.delete()) {
+            Log.w(TAG, "Couldn't delete " + previous);
+        }
+
+        if (file.renameTo(previous)) {
+            sPendingSession = previous;
+        } else {
+            Log.w(TAG, "Couldn't move " + file + " aside");
+        }
+    }
+
+    /**
+     * @return where the file of the previous session is kept.
+     */
+    public static File getPreviousFile(@NonNull File file) {
+        return new File(file.getPath() + PREVIOUS_SUFFIX);
+    }
+
+    /**
+     * Reads every intact record from a black box file.
+     *
+     * @return the entries in the order they were logged, marked as {@link LogData#isRecovered()}.
+     */
+    @NonNull
+    public static List<LogData> recover(@NonNull File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(BinaryLogDecoder.readFully(file));
+
+        if (buffer.remaining() < FILE_HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException(file + " is not a black box file");
+        }
+
+        int capacity = Math.min(buffer.getInt(8), buffer.remaining() - FILE_HEADER_SIZE);
+        buffer.position(FILE_HEADER_SIZE);
+        buffer.limit(FILE_HEADER_SIZE + capacity);
+        ByteBuffer data = buffer.slice();
+        List<Record> records = new ArrayList<Record>();
+        CRC32 crc = new CRC32();
+        int position = 0;
+
+        while (position + RECORD_HEADER_SIZE + PAYLOAD_FIXED_SIZE <= capacity) {
+            Record record = readRecord(data, position, crc);
+
+            if (record == null) {
+                position++;
+            } else {
+                records.add(record);
+                position += record.mSize;
+            }
+        }
+
+        Collections.sort(records, new Comparator<Record>() {
+            @Override
+            public int compare(Record lhs, Record rhs) {
+                return (lhs.mSequence < rhs.mSequence) ? -1 : ((lhs.mSequence == rhs.mSequence) ? 0 : 1);
+            }
+        });
+
+        List<LogData> entries = new ArrayList<LogData>(records.size());
+
+        for (Record record : records) {
+            entries.add(record.mLogData);
+        }
+
+        return entries;
+    }
+
+    /**
+     * Prints the session moved aside by {@link #preparePreviousSession(File)} to {@code target}
+     * on a background thread, once per session.
+     */
+    static void replayPreviousSession(@NonNull final BaseLog target) {
+        final File file;
+
+        synchronized (MappedBufferLog.class) {
+            file = sPendingSession;
+            sPendingSession = null;
+        }
+
+        if (file == null) {
+            return;
+        }
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                replay(file, target);
+            }
+        }, TAG + "-replay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void replay(File file, BaseLog target) {
+        List<LogData> entries;
+
+        try {
+            entries = recover(file);
+        } catch (IOException e) {
+            Log.e(TAG, "Couldn't recover " + file, e);
+            return;
+        }
+
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        if (target.isLevelEnabled(LogLevel.WARNING, TAG)) {
+            target.print(new LogData(LogLevel.WARNING, TAG, "Replaying " + entries.size() + " entries from the previous session"));
+        }
+
+        for (LogData logData : entries) {
+            if (target.isLevelEnabled(logData.priority, logData.tag)) {
+                target.print(logData);
+            }
+        }
+
+        target.flush();
+    }
+
+    @Nullable
+    private static MappedByteBuffer map(File file, int size) {
+        File parent = file.getParentFile();
+
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            Log.e(TAG, "Couldn't create " + parent);
+            return null;
+        }
+
+        RandomAccessFile randomAccessFile = null;
+
+        try {
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            // A fresh file reads back as zeros, so nothing from an older session can resurface.
+            randomAccessFile.setLength(0);
+            randomAccessFile.setLength(size);
+
+            // The mapping stays valid after the file is closed.
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            Log.e(TAG, "Couldn't map " + file, e);
+            return null;
+        } finally {
+            if (randomAccessFile != null) {
+                try {
+                    randomAccessFile.close();
+                } catch (IOException e) {
+                    Log.e(TAG, "Couldn't close " + file, e);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static Record readRecord(ByteBuffer data, int position, CRC32 crc) {
+        if (data.getShort(position) != SYNC) {
+            return null;
+        }
+
+        int length = data.getInt(position + 2);
+
+        if (length < PAYLOAD_FIXED_SIZE || length > data.limit() - position - RECORD_HEADER_SIZE) {
+            return null;
+        }
+
+        int start = position + RECORD_HEADER_SIZE;
+        crc.reset();
+        crc.update(data.array(), data.arrayOffset() + start, length);
+
+        if ((int) crc.getValue() != data.getInt(position + 6)) {
+            return null;
+        }
+
+        ByteBuffer payload = data.duplicate();
+        payload.limit(start + length);
+        payload.position(start);
+        long sequence = payload.getLong();
+        long millis = payload.getLong();
+        LogLevel level = BinaryLogEncoder.levelFromCode(payload.get());
+        long threadId = payload.getLong();
+        String tag = readString(payload, payload.getShort() & 0xFFFF);
+        String msg = (payload.remaining() < 4) ? null : readString(payload, payload.getInt());
+
+        if (tag == null || msg == null) {
+            return null;
+        }
+
+        return new Record(sequence, RECORD_HEADER_SIZE + length, new LogData(level, tag, msg, millis, threadId));
+    }
+
+    @Nullable
+    private static String readString(ByteBuffer payload, int length) {
+        if (length < 0 || length > payload.remaining()) {
+            return null;
+        }
+
+        String value = new String(payload.array(), payload.arrayOffset() + payload.position(), length, Utf8.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+
+    public File getFile() {
+        return mFile;
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    @Override
+    protected synchronized void print(@NonNull LogData logData) {
+        if (mData == null || logData.isRecovered()) {
+            return;
+        }
+
+        mPayload.clear();
+        mPayload.putLong(mSequence);
+        mPayload.putLong(logData.timeMillis);
+        mPayload.put(BinaryLogEncoder.levelCode(logData.priority));
+        mPayload.putLong(logData.pid);
+        putString(logData.tag, 2, MAX_TAG_BYTES);
+        putString(logData.getMsg(), 4, mPayload.remaining() - 4);
+
+        int length = mPayload.position();
+        mCrc.reset();
+        mCrc.update(mScratch, RECORD_HEADER_SIZE, length);
+
+        int size = RECORD_HEADER_SIZE + length;
+
+        if (mHead + size > mCapacity) {
+            // Clear the unused end so no older record survives behind the newer ones.
+            for (int i = mHead; i < mCapacity; i++) {
+                mData.put(i, (byte) 0);
+            }
+
+            mHead = 0;
+        }
+
+        // The payload goes in before the header, so a record is only recognized once complete.
+        mData.position(mHead + RECORD_HEADER_SIZE);
+        mData.put(mScratch, RECORD_HEADER_SIZE, length);
+        mData.putInt(mHead + 2, length);
+        mData.putInt(mHead + 6, (int) mCrc.getValue());
+        mData.putShort(mHead, SYNC);
+        mHead += size;
+        mSequence++;
+    }
+
+    private void putString(String value, int lengthBytes, int maxBytes) {
+        String text = (value == null) ? "" : value;
+        int lengthPosition = mPayload.position();
+        mPayload.position(lengthPosition + lengthBytes);
+
+        int start = mPayload.position();
+        int limit = mPayload.limit();
+        mPayload.limit(Math.min(limit, start + Math.max(maxBytes, 0)));
+        Utf8.write(text, 0, text.length(), mPayload);
+        mPayload.limit(limit);
+
+        int length = mPayload.position() - start;
+
+        if (lengthBytes == 2) {
+            mPayload.putShort(lengthPosition, (short) length);
+        } else {
+            mPayload.putInt(lengthPosition, length);
+        }
+    }
+
+    /**
+     * Does nothing: entries are in the page cache as soon as they are printed, which is all a
+     * process crash needs. Forcing the mapping to storage is left to {@link #shutdown()}.
+     */
+    @Override
+    public void flush() {
+
+    }
+
+    /**
+     * Writes the ring back to storage, which is only needed to survive the device losing power.
+     */
+    @Override
+    public synchronized void shutdown() {
+        if (mBuffer != null) {
+            mBuffer.force();
+        }
+    }
+
+    private static final class Record {
+        private final long mSequence;
+        private final int mSize;
+        private final LogData mLogData;
+
+        private Record(long sequence, int size, LogData logData) {
+            mSequence = sequence;
+            mSize = size;
+            mLogData = logData;
+        }
+    }
+}
@@ -0,0 +1,515 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Lays entries out according to a pattern such as {@code "%d{HH:mm:ss.SSS} %t [%tag] %level: %msg%n"}.
+ * The pattern is parsed once into an array of field writers, which either append to a
+ * {@link StringBuilder} or encode straight into a UTF-8 {@link ByteBuffer}, so a formatted entry
+ * costs no format parsing and, for file sinks, no intermediate String.
+ * <p/>
+ * Conversions:
+ * <ul>
+ * <li>{@code %d} or {@code %d{pattern}}: the entry time, {@code MM-dd HH:mm:ss.SSS} by default.
+ * The pattern supports the {@code y M d H m s S} letters of {@link java.text.SimpleDateFormat};
+ * other characters are copied as they are.</li>
+ * <li>{@code %t}: the id of the logging thread.</li>
+ * <li>{@code %tag}, {@code %msg}: tag and message.</li>
+ * <li>{@code %level}: the level as the single letter logcat uses.</li>
+ * <li>{@code %n}: the line separator; {@code %%}: a percent sign.</li>
+ * </ul>
+ * Layouts are immutable and thread safe, and can be used as the {@link ILogEncoder} of a
+ * {@link FileLogger}.
+ */
+public final class PatternLayout implements ILogEncoder {
+    /**
+     * Same layout as {@link LogData#getDefaultEntry()}.
+     */
+    public static final String DEFAULT_PATTERN = "%d %t [%tag]:%msg%n";
+    private static final String DEFAULT_DATE_PATTERN = "MM-dd HH:mm:ss.SSS";
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private final String mPattern;
+    private final FieldWriter[] mWriters;
+    private final String mFileSuffix;
+
+    public PatternLayout(@NonNull String pattern) {
+        this(pattern, ".log");
+    }
+
+    /**
+     * @param pattern    the layout, see the class documentation.
+     * @param fileSuffix suffix of the files a {@link FileLogger} writes with this layout.
+     *
+     * @throws IllegalArgumentException if the pattern has an unknown conversion.
+     */
+    public PatternLayout(@NonNull String pattern, @NonNull String fileSuffix) {
+        mPattern = pattern;
+        mFileSuffix = fileSuffix;
+        mWriters = parse(pattern);
+    }
+
+    public String getPattern() {
+        return mPattern;
+    }
+
+    @Override
+    public String getFileSuffix() {
+        return mFileSuffix;
+    }
+
+    @Override
+    public void startSegment(@NonNull ByteBuffer out, long startMillis) {
+
+    }
+
+    @Override
+    public void encode(@NonNull LogData logData, @NonNull ByteBuffer out) {
+        String msg = logData.getMsg();
+
+        for (FieldWriter writer : mWriters) {
+            writer.write(logData, msg, out);
+        }
+    }
+
+    public StringBuilder appendTo(@NonNull LogData logData, @NonNull StringBuilder out) {
+        return appendTo(logData, logData.getMsg(), out);
+    }
+
+    public String format(@NonNull LogData logData) {
+        return format(logData, logData.getMsg());
+    }
+
+    /**
+     * Lays out the entry with its stack trace rendered by {@code renderer}, see
+     * {@link LogData#getMsg(ThrowableRenderer)}.
+     */
+    public String format(@NonNull LogData logData, @NonNull ThrowableRenderer renderer) {
+        return format(logData, logData.getMsg(renderer));
+    }
+
+    private String format(LogData logData, String msg) {
+        return appendTo(logData, msg, new StringBuilder(64 + ((msg == null) ? 0 : msg.length()))).toString();
+    }
+
+    private StringBuilder appendTo(LogData logData, String msg, StringBuilder out) {
+        for (FieldWriter writer : mWriters) {
+            writer.append(logData, msg, out);
+        }
+
+        return out;
+    }
+
+    private static FieldWriter[] parse(String pattern) {
+        List<FieldWriter> writers = new ArrayList<FieldWriter>();
+        StringBuilder literal = new StringBuilder();
+        int length = pattern.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = pattern.charAt(i++);
+
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+
+            if (i == length) {
+                throw new IllegalArgumentException("Pattern ends with '%': " + pattern);
+            }
+
+            if (pattern.charAt(i) == '%') {
+                literal.append('%');
+                i++;
+                continue;
+            }
+
+            int nameStart = i;
+
+            while (i < length && Character.isLetter(pattern.charAt(i))) {
+                i++;
+            }
+
+            String name = pattern.substring(nameStart, i);
+            String option = null;
+
+            if (i < length && pattern.charAt(i) == '{') {
+                int close = pattern.indexOf('}', i);
+
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed '{' in pattern: " + pattern);
+                }
+
+                option = pattern.substring(i + 1, close);
+                i = close + 1;
+            }
+
+            if ("n".equals(name)) {
+                literal.append(LINE_SEPARATOR);
+                continue;
+            }
+
+            addLiteral(writers, literal);
+
+            if ("d".equals(name)) {
+                writers.add(new DateWriter((option == null) ? DEFAULT_DATE_PATTERN : option));
+            } else if ("t".equals(name)) {
+                writers.add(new ThreadWriter());
+            } else if ("tag".equals(name)) {
+                writers.add(new TagWriter());
+            } else if ("level".equals(name)) {
+                writers.add(new LevelWriter());
+            } else if ("msg".equals(name)) {
+                writers.add(new MessageWriter());
+            } else {
+                throw new IllegalArgumentException("Unknown conversion %" + name + " in pattern: " + pattern);
+            }
+        }
+
+        addLiteral(writers, literal);
+        return writers.toArray(new FieldWriter[writers.size()]);
+    }
+
+    private static void addLiteral(List<FieldWriter> writers, StringBuilder literal) {
+        if (literal.length() > 0) {
+            writers.add(new LiteralWriter(literal.toString()));
+            literal.setLength(0);
+        }
+    }
+
+    private static byte[] utf8(String text) {
+        ByteBuffer bytes = ByteBuffer.allocate(Utf8.encodedLength(text));
+        Utf8.write(text, 0, text.length(), bytes);
+        return bytes.array();
+    }
+
+    private static void putString(String value, ByteBuffer out) {
+        String text = (value == null) ? "null" : value;
+
+        if (Utf8.write(text, 0, text.length(), out) != text.length()) {
+            throw new BufferOverflowException();
+        }
+    }
+
+    /**
+     * Writes {@code value} in decimal, left padded with zeros to {@code minDigits}.
+     */
+    private static void putDecimal(long value, int minDigits, ByteBuffer out) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                putString(Long.toString(value), out);
+                return;
+            }
+
+            out.put((byte) '-');
+            value = -value;
+        }
+
+        int digits = Math.max(digitCount(value), minDigits);
+
+        if (out.remaining() < digits) {
+            throw new BufferOverflowException();
+        }
+
+        int position = out.position();
+
+        for (int i = digits - 1; i >= 0; i--) {
+            out.put(position + i, (byte) ('0' + (value % 10)));
+            value /= 10;
+        }
+
+        out.position(position + digits);
+    }
+
+    private static void appendDecimal(long value, int minDigits, StringBuilder out) {
+        for (int i = digitCount(value); i < minDigits; i++) {
+            out.append('0');
+        }
+
+        out.append(value);
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+
+        return digits;
+    }
+
+    private abstract static class FieldWriter {
+        abstract void write(LogData logData, String msg, ByteBuffer out);
+
+        abstract void append(LogData logData, String msg, StringBuilder out);
+    }
+
+    private static final class LiteralWriter extends FieldWriter {
+        private final String mText;
+        private final byte[] mBytes;
+
+        private LiteralWriter(String text) {
+            mText = text;
+            mBytes = utf8(text);
+        }
+
+        @Override
+        void write(LogData logData, String msg, ByteBuffer out) {
+            out.put(mBytes);
+        }
+
+        @Override
+        void append(LogData logData, String msg, StringBuilder out) {
+            out.append(mText);
+        }
+    }
+
+    private static final class ThreadWriter extends FieldWriter {
+        @Override
+        void write(LogData logData, String msg, ByteBuffer out) {
+            putDecimal(logData.pid, 1, out);
+        }
+
+        @Override
+        void append(LogData logData, String msg, StringBuilder out) {
+            out.append(logData.pid);
+        }
+    }
+
+    private static final class TagWriter extends FieldWriter {
+        @Override
+        void write(LogData logData, String msg, ByteBuffer out) {
+            putString(logData.tag, out);
+        }
+
+        @Override
+        void append(LogData logData, String msg, StringBuilder out) {
+            out.append(logData.tag);
+        }
+    }
+
+    private static final class LevelWriter extends FieldWriter {
+        @Override
+        void write(LogData logData, String msg, ByteBuffer out) {
+            out.put((byte) letter(logData));
+        }
+
+        @Override
+        void append(LogData logData, String msg, StringBuilder out) {
+            out.append(letter(logData));
+        }
+
+        private static char letter(LogData logData) {
+            return BinaryLogFormat.levelLetter(BinaryLogEncoder.levelCode(logData.priority));
+        }
+    }
+
+    private static final class MessageWriter extends FieldWriter {
+        @Override
+        void write(LogData logData, String msg, ByteBuffer out) {
+            putString(msg, out);
+        }
+
+        @Override
+        void append(LogData logData, String msg, StringBuilder out) {
+            out.append(msg);
+        }
+    }
+
+    /**
+     * Writes the time. Everything up to the first second or millisecond field only changes once a
+     * minute, so it is rendered once per minute into an immutable snapshot and copied from there;
+     * the {@link Calendar} is not consulted otherwise. Snapshots are replaced as a whole, which
+     * keeps concurrent writers consistent without locking.
+     */
+    private static final class DateWriter extends FieldWriter {
+        private final char[] mLetters;
+        private final int[] mWidths;
+        private final String[] mLiterals;
+        private final byte[][] mLiteralBytes;
+        private final int mMinuteParts;
+        private volatile Minute mMinute = new Minute(Long.MAX_VALUE, null, "");
+
+        private DateWriter(String pattern) {
+            List<String> literals = new ArrayList<String>();
+            StringBuilder letters = new StringBuilder();
+            List<Integer> widths = new ArrayList<Integer>();
+            int length = pattern.length();
+            int i = 0;
+
+            while (i < length) {
+                char c = pattern.charAt(i);
+                int start = i;
+
+                if (!Character.isLetter(c)) {
+                    while (i < length && !Character.isLetter(pattern.charAt(i))) {
+                        i++;
+                    }
+
+                    letters.append((char) 0);
+                    widths.add(0);
+                    literals.add(pattern.substring(start, i));
+                    continue;
+                }
+
+                if ("yMdHmsS".indexOf(c) < 0) {
+                    throw new IllegalArgumentException("Unsupported date letter '" + c + "' in " + pattern);
+                }
+
+                while (i < length && pattern.charAt(i) == c) {
+                    i++;
+                }
+
+                letters.append(c);
+                widths.add(i - start);
+                literals.add(null);
+            }
+
+            mLetters = letters.toString().toCharArray();
+            mWidths = new int[widths.size()];
+
+            for (int j = 0; j < mWidths.length; j++) {
+                mWidths[j] = widths.get(j);
+            }
+
+            mLiterals = literals.toArray(new String[literals.size()]);
+            mLiteralBytes = new byte[mLiterals.length][];
+
+            for (int j = 0; j < mLiterals.length; j++) {
+                mLiteralBytes[j] = (mLiterals[j] == null) ? null : utf8(mLiterals[j]);
+            }
+
+            int minuteParts = 0;
+
+            while (minuteParts < mLetters.length && mLetters[minuteParts] != 's' && mLetters[minuteParts] != 'S') {
+                minuteParts++;
+            }
+
+            mMinuteParts = minuteParts;
+        }
+
+        @Override
+        void write(LogData logData, String msg, ByteBuffer out) {
+            long millis = logData.timeMillis;
+            Minute minute = minute(millis);
+            out.put(minute.mBytes);
+
+            for (int i = mMinuteParts; i < mLetters.length; i++) {
+                if (mLetters[i] == 0) {
+                    out.put(mLiteralBytes[i]);
+                } else {
+                    putDecimal(value(i, millis, minute.mStart, minute.mFields), mWidths[i], out);
+                }
+            }
+        }
+
+        @Override
+        void append(LogData logData, String msg, StringBuilder out) {
+            long millis = logData.timeMillis;
+            Minute minute = minute(millis);
+            out.append(minute.mText);
+            appendParts(mMinuteParts, mLetters.length, millis, minute.mStart, minute.mFields, out);
+        }
+
+        private Minute minute(long millis) {
+            Minute minute = mMinute;
+
+            if (millis < minute.mStart || millis - minute.mStart >= 60 * 1000) {
+                Calendar calendar = Calendar.getInstance();
+                calendar.setTimeInMillis(millis);
+                long start = millis - calendar.get(Calendar.SECOND) * 1000L - calendar.get(Calendar.MILLISECOND);
+                int[] fields = {calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH),
+                        calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE)};
+                StringBuilder text = new StringBuilder();
+                appendParts(0, mMinuteParts, millis, start, fields, text);
+                minute = new Minute(start, fields, text.toString());
+                mMinute = minute;
+            }
+
+            return minute;
+        }
+
+        private void appendParts(int from, int to, long millis, long minuteStart, int[] fields, StringBuilder out) {
+            for (int i = from; i < to; i++) {
+                if (mLetters[i] == 0) {
+                    out.append(mLiterals[i]);
+                } else {
+                    appendDecimal(value(i, millis, minuteStart, fields), mWidths[i], out);
+                }
+            }
+        }
+
+        /**
+         * @param fields year, month, day, hour and minute of the current minute.
+         */
+        private int value(int part, long millis, long minuteStart, int[] fields) {
+            switch (mLetters[part]) {
+                case 'y':
+                    return (mWidths[part] == 2) ? fields[0] % 100 : fields[0];
+
+                case 'M':
+                    return fields[1];
+
+                case 'd':
+                    return fields[2];
+
+                case 'H':
+                    return fields[3];
+
+                case 'm':
+                    return fields[4];
+
+                case 's':
+                    return (int) ((millis - minuteStart) / 1000);
+
+                default:
+                    return (int) ((millis - minuteStart) % 1000);
+            }
+        }
+    }
+
+    private static final class Minute {
+        private final long mStart;
+        private final int[] mFields;
+        private final String mText;
+        private final byte[] mBytes;
+
+        private Minute(long start, int[] fields, String text) {
+            mStart = start;
+            mFields = fields;
+            mText = text;
+            mBytes = utf8(text);
+        }
+    }
+}
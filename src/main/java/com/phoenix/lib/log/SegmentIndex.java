@@ -0,0 +1,307 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse index of one binary log segment, kept next to it in a {@code .idx} file so queries can
+ * skip segments, and parts of segments, that can't contain a match. Pure Java so it can be used
+ * by the desktop tools.
+ * <p/>
+ * The index records the time range of the segment, a bitmap of the level bytes it contains and
+ * its tags in the order the encoder numbered them, which doubles as an exact tag set and lets a
+ * decoder start in the middle of the segment. The segment is split into blocks of a fixed number
+ * of entries; for every block it keeps the byte offset of the first entry, the time the entry
+ * before it was delta-coded against, and the time range of the block.
+ * <pre>
+ * index := magic "PIDX", version byte, entry count, level bitmap (int), min millis, max millis,
+ *          tag count, UTF tag*, block count, block*
+ * block := offset (long), previous millis, min millis, max millis
+ * </pre>
+ */
+final class SegmentIndex {
+    public static final String SUFFIX = ".idx";
+    private static final byte[] MAGIC = {'P', 'I', 'D', 'X'};
+    private static final byte VERSION = 1;
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String COMPRESSED_SUFFIX = ".gz";
+
+    private final int mInterval;
+    private final List<String> mTags = new ArrayList<String>();
+    private final Map<String, Integer> mTagIds = new HashMap<String, Integer>();
+    private int mEntryCount;
+    private int mLevelMask;
+    private long mMinMillis = Long.MAX_VALUE;
+    private long mMaxMillis = Long.MIN_VALUE;
+    private long mLastMillis;
+    private int mBlockCount;
+    private long[] mBlockOffsets = new long[16];
+    private long[] mBlockPreviousMillis = new long[16];
+    private long[] mBlockMinMillis = new long[16];
+    private long[] mBlockMaxMillis = new long[16];
+
+    /**
+     * @param interval    entries per block.
+     * @param startMillis base time of the segment.
+     */
+    SegmentIndex(int interval, long startMillis) {
+        mInterval = Math.max(1, interval);
+        mLastMillis = startMillis;
+    }
+
+    /**
+     * @return the index file kept for {@code segment}, compressed or not.
+     */
+    public static File fileFor(File segment) {
+        String name = segment.getName();
+
+        if (name.endsWith(COMPRESSED_SUFFIX)) {
+            name = name.substring(0, name.length() - COMPRESSED_SUFFIX.length());
+        }
+
+        return new File(segment.getParentFile(), name + SUFFIX);
+    }
+
+    /**
+     * Records an entry the encoder just wrote.
+     *
+     * @param offset byte offset of the entry, including any tag record written for it.
+     * @param level  level byte of the entry.
+     */
+    void add(long offset, long millis, int level, String tag) {
+        if (mEntryCount % mInterval == 0) {
+            if (mBlockCount == mBlockOffsets.length) {
+                int size = mBlockCount * 2;
+                mBlockOffsets = Arrays.copyOf(mBlockOffsets, size);
+                mBlockPreviousMillis = Arrays.copyOf(mBlockPreviousMillis, size);
+                mBlockMinMillis = Arrays.copyOf(mBlockMinMillis, size);
+                mBlockMaxMillis = Arrays.copyOf(mBlockMaxMillis, size);
+            }
+
+            mBlockOffsets[mBlockCount] = offset;
+            mBlockPreviousMillis[mBlockCount] = mLastMillis;
+            mBlockMinMillis[mBlockCount] = millis;
+            mBlockMaxMillis[mBlockCount] = millis;
+            mBlockCount++;
+        }
+
+        int block = mBlockCount - 1;
+        mBlockMinMillis[block] = Math.min(mBlockMinMillis[block], millis);
+        mBlockMaxMillis[block] = Math.max(mBlockMaxMillis[block], millis);
+        mMinMillis = Math.min(mMinMillis, millis);
+        mMaxMillis = Math.max(mMaxMillis, millis);
+        mLevelMask |= 1 << (level & 0x1F);
+        mLastMillis = millis;
+        mEntryCount++;
+
+        String name = (tag == null) ? "" : tag;
+        if (!mTagIds.containsKey(name)) {
+            mTagIds.put(name, mTags.size());
+            mTags.add(name);
+        }
+    }
+
+    public int getEntryCount() {
+        return mEntryCount;
+    }
+
+    /**
+     * @return bit {@code 1 << level} is set for every level byte in the segment.
+     */
+    public int getLevelMask() {
+        return mLevelMask;
+    }
+
+    public long getMinMillis() {
+        return mMinMillis;
+    }
+
+    public long getMaxMillis() {
+        return mMaxMillis;
+    }
+
+    /**
+     * @return the tags of the segment, indexed by the ids the encoder gave them.
+     */
+    public List<String> getTags() {
+        return Collections.unmodifiableList(mTags);
+    }
+
+    public int getBlockCount() {
+        return mBlockCount;
+    }
+
+    public long getBlockOffset(int block) {
+        return mBlockOffsets[block];
+    }
+
+    /**
+     * @return the time the first entry of the block is delta-coded against.
+     */
+    public long getBlockPreviousMillis(int block) {
+        return mBlockPreviousMillis[block];
+    }
+
+    /**
+     * @param levelMask level bytes that may match, as in {@link #getLevelMask()}.
+     * @param tags      tags that may match, or null for any.
+     *
+     * @return false if no entry of the segment can match.
+     */
+    public boolean mayMatch(long fromMillis, long toMillis, int levelMask, Collection<String> tags) {
+        if (mEntryCount == 0 || mMaxMillis < fromMillis || mMinMillis > toMillis || (mLevelMask & levelMask) == 0) {
+            return false;
+        }
+
+        if (tags == null) {
+            return true;
+        }
+
+        for (String tag : tags) {
+            if (mTagIds.containsKey(tag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return false if no entry of the block can be in the time range.
+     */
+    public boolean blockMayMatch(int block, long fromMillis, long toMillis) {
+        return mBlockMaxMillis[block] >= fromMillis && mBlockMinMillis[block] <= toMillis;
+    }
+
+    /**
+     * Writes the index to a temporary file first, so readers never see a partial index.
+     */
+    void write(File file) throws IOException {
+        File temp = new File(file.getPath() + TEMP_SUFFIX);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+
+        try {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(mEntryCount);
+            out.writeInt(mLevelMask);
+            out.writeLong(mMinMillis);
+            out.writeLong(mMaxMillis);
+            out.writeInt(mTags.size());
+
+            for (String tag : mTags) {
+                out.writeUTF(tag);
+            }
+
+            out.writeInt(mBlockCount);
+
+            for (int i = 0; i < mBlockCount; i++) {
+                out.writeLong(mBlockOffsets[i]);
+                out.writeLong(mBlockPreviousMillis[i]);
+                out.writeLong(mBlockMinMillis[i]);
+                out.writeLong(mBlockMaxMillis[i]);
+            }
+        } finally {
+            out.close();
+        }
+
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Couldn't rename " + temp + " to " + file);
+        }
+    }
+
+    /**
+     * @return the index, or null if the file doesn't exist.
+     *
+     * @throws IOException if the file isn't a valid index.
+     */
+    static SegmentIndex read(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+
+            if (!Arrays.equals(magic, MAGIC) || in.readByte() != VERSION) {
+                throw new IOException("Not a segment index: " + file);
+            }
+
+            SegmentIndex index = new SegmentIndex(1, 0);
+            index.mEntryCount = in.readInt();
+            index.mLevelMask = in.readInt();
+            index.mMinMillis = in.readLong();
+            index.mMaxMillis = in.readLong();
+
+            int tagCount = in.readInt();
+            for (int i = 0; i < tagCount; i++) {
+                String tag = in.readUTF();
+                index.mTagIds.put(tag, i);
+                index.mTags.add(tag);
+            }
+
+            int blockCount = in.readInt();
+            if (blockCount < 0 || blockCount > index.mEntryCount) {
+                throw new IOException("Corrupt segment index: " + file);
+            }
+
+            index.mBlockCount = blockCount;
+            index.mBlockOffsets = new long[blockCount];
+            index.mBlockPreviousMillis = new long[blockCount];
+            index.mBlockMinMillis = new long[blockCount];
+            index.mBlockMaxMillis = new long[blockCount];
+
+            for (int i = 0; i < blockCount; i++) {
+                index.mBlockOffsets[i] = in.readLong();
+                index.mBlockPreviousMillis[i] = in.readLong();
+                index.mBlockMinMillis[i] = in.readLong();
+                index.mBlockMaxMillis[i] = in.readLong();
+            }
+
+            return index;
+        } finally {
+            in.close();
+        }
+    }
+}
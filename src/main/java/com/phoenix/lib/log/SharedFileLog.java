@@ -0,0 +1,438 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.content.Context;
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Lets several processes of the app, like a {@code :player} process for background audio, log
+ * into one memory-mapped ring file, so their entries can be read back as a single stream in the
+ * exact order they were logged.
+ * <p/>
+ * Appending reserves space and takes a global sequence number from the file header while
+ * holding a {@link FileLock} on the header, then writes the record into the mapping without
+ * any lock. Java offers no compare-and-swap on mapped memory shared between processes, so the
+ * header lock stands in for one; it is only held for the two header fields, a couple of
+ * microseconds. Each record carries the process id and the sequence number, a sync marker and a
+ * CRC32, so records torn by a crash or overwritten after the ring wrapped are skipped by
+ * {@link #read(File)}.
+ * <pre>
+ * file    := magic "PSHL", version int, capacity int, reserved int, next offset long,
+ *            next sequence long, created millis long, padding to 64 bytes, record*
+ * record  := sync short, payload length int, payload CRC32 int, payload
+ * payload := sequence long, time millis long, pid int, level byte, thread id long,
+ *            tag length short, UTF-8 tag, message length int, UTF-8 message
+ * </pre>
+ * Use one instance per process. The first process to open the file sets its capacity; the
+ * others adopt it.
+ */
+public class SharedFileLog extends BaseLog {
+    public static final String DEFAULT_FILE_NAME = "log-shared.bin";
+    public static final int DEFAULT_CAPACITY = 1024 * 1024;
+    public static final int MIN_CAPACITY = 4 * 1024;
+    private static final String TAG = SharedFileLog.class.getSimpleName();
+    private static final int MAGIC = 0x5053484C;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 64;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int NEXT_OFFSET_OFFSET = 16;
+    private static final int NEXT_SEQUENCE_OFFSET = 24;
+    private static final int CREATED_OFFSET = 32;
+    private static final short SYNC = (short) 0x5EC0;
+    private static final int RECORD_HEADER_SIZE = 10;
+    private static final int PAYLOAD_FIXED_SIZE = 8 + 8 + 4 + 1 + 8 + 2 + 4;
+    private static final int MAX_TAG_BYTES = 256;
+
+    private final File mFile;
+    private final int mPid = Process.myPid();
+    private final CRC32 mCrc = new CRC32();
+    private final Object mReserveLock = new Object();
+    private RandomAccessFile mRandomAccessFile;
+    private MappedByteBuffer mBuffer;
+    private ByteBuffer mData;
+    private int mCapacity;
+    private byte[] mScratch;
+    private ByteBuffer mPayload;
+    /**
+     * Sequence number of the last reservation, guarded by {@link #mReserveLock}.
+     */
+    private long mReservedSequence;
+
+    /**
+     * Logs to {@link #DEFAULT_FILE_NAME} in the app's files dir, which every process of the app
+     * shares.
+     */
+    public SharedFileLog(@NonNull Context context) {
+        this(getDefaultFile(context), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity bytes reserved for records if this process creates the file, at least
+     *                 {@link #MIN_CAPACITY}. A single record is limited to a quarter of the
+     *                 capacity; longer messages are truncated.
+     */
+    public SharedFileLog(@NonNull File file, int capacity) {
+        mFile = file;
+
+        try {
+            open(Math.max(capacity, MIN_CAPACITY));
+        } catch (IOException e) {
+            Log.e(TAG, "Couldn't open " + file, e);
+            close();
+        }
+    }
+
+    public static File getDefaultFile(@NonNull Context context) {
+        return new File(context.getFilesDir(), DEFAULT_FILE_NAME);
+    }
+
+    private void open(int capacity) throws IOException {
+        File parent = mFile.getParentFile();
+
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Couldn't create " + parent);
+        }
+
+        mRandomAccessFile = new RandomAccessFile(mFile, "rw");
+        FileChannel channel = mRandomAccessFile.getChannel();
+        FileLock lock = channel.lock(0, FILE_HEADER_SIZE, false);
+
+        try {
+            // Whoever holds the lock first creates the file; later processes adopt its layout.
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            int read = (channel.size() >= FILE_HEADER_SIZE) ? channel.read(header, 0) : 0;
+
+            if (read == FILE_HEADER_SIZE && header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                    && header.getInt(CAPACITY_OFFSET) >= MIN_CAPACITY
+                    && channel.size() >= FILE_HEADER_SIZE + header.getInt(CAPACITY_OFFSET)) {
+                capacity = header.getInt(CAPACITY_OFFSET);
+            } else {
+                mRandomAccessFile.setLength(0);
+                mRandomAccessFile.setLength(FILE_HEADER_SIZE + capacity);
+                header.clear();
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putInt(CAPACITY_OFFSET, capacity);
+                header.putLong(NEXT_OFFSET_OFFSET, 0);
+                header.putLong(NEXT_SEQUENCE_OFFSET, 0);
+                header.putLong(CREATED_OFFSET, System.currentTimeMillis());
+
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            }
+
+            mBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_SIZE + capacity);
+        } finally {
+            lock.release();
+        }
+
+        mCapacity = capacity;
+        mScratch = new byte[capacity / 4];
+        mPayload = ByteBuffer.wrap(mScratch, RECORD_HEADER_SIZE, mScratch.length - RECORD_HEADER_SIZE).slice();
+        mBuffer.position(FILE_HEADER_SIZE);
+        mData = mBuffer.slice();
+    }
+
+    private void close() {
+        mData = null;
+
+        if (mRandomAccessFile != null) {
+            try {
+                mRandomAccessFile.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Couldn't close " + mFile, e);
+            }
+
+            mRandomAccessFile = null;
+        }
+    }
+
+    public File getFile() {
+        return mFile;
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    @Override
+    protected synchronized void print(@NonNull LogData logData) {
+        if (mData == null || logData.isRecovered()) {
+            return;
+        }
+
+        // Everything but the sequence number is encoded before taking the lock.
+        mPayload.clear();
+        mPayload.putLong(0);
+        mPayload.putLong(logData.timeMillis);
+        mPayload.putInt(mPid);
+        mPayload.put(BinaryLogEncoder.levelCode(logData.priority));
+        mPayload.putLong(logData.pid);
+        putString(logData.tag, 2, MAX_TAG_BYTES);
+        putString(logData.getMsg(), 4, mPayload.remaining() - 4);
+
+        int length = mPayload.position();
+        int size = RECORD_HEADER_SIZE + length;
+        long sequence;
+        int position;
+
+        try {
+            synchronized (mReserveLock) {
+                position = reserve(size);
+                sequence = mReservedSequence;
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Couldn't reserve space in " + mFile, e);
+            close();
+            return;
+        }
+
+        mPayload.putLong(0, sequence);
+        mCrc.reset();
+        mCrc.update(mScratch, RECORD_HEADER_SIZE, length);
+
+        // The payload goes in before the header, so a record is only recognized once complete.
+        ByteBuffer data = mData.duplicate();
+        data.position(position + RECORD_HEADER_SIZE);
+        data.put(mScratch, RECORD_HEADER_SIZE, length);
+        data.putInt(position + 2, length);
+        data.putInt(position + 6, (int) mCrc.getValue());
+        data.putShort(position, SYNC);
+    }
+
+    /**
+     * Takes {@code size} bytes and the next sequence number from the shared header.
+     *
+     * Must hold {@link #mReserveLock}: file locks are held per process, so the threads of this
+     * process take turns first.
+     *
+     * @return position of the record in the ring. The sequence number is left in
+     * {@link #mReservedSequence}.
+     */
+    private int reserve(int size) throws IOException {
+        FileLock lock = mRandomAccessFile.getChannel().lock(0, FILE_HEADER_SIZE, false);
+
+        try {
+            long offset = mBuffer.getLong(NEXT_OFFSET_OFFSET);
+            long sequence = mBuffer.getLong(NEXT_SEQUENCE_OFFSET);
+            long position = offset % mCapacity;
+
+            if (position + size > mCapacity) {
+                // Records never wrap; skip the rest of the ring.
+                offset += mCapacity - position;
+                position = 0;
+            }
+
+            mBuffer.putLong(NEXT_OFFSET_OFFSET, offset + size);
+            mBuffer.putLong(NEXT_SEQUENCE_OFFSET, sequence + 1);
+            mReservedSequence = sequence;
+            return (int) position;
+        } finally {
+            lock.release();
+        }
+    }
+
+    private void putString(String value, int lengthBytes, int maxBytes) {
+        String text = (value == null) ? "" : value;
+        int lengthPosition = mPayload.position();
+        mPayload.position(lengthPosition + lengthBytes);
+
+        int start = mPayload.position();
+        int limit = mPayload.limit();
+        mPayload.limit(Math.min(limit, start + Math.max(maxBytes, 0)));
+        Utf8.write(text, 0, text.length(), mPayload);
+        mPayload.limit(limit);
+
+        int length = mPayload.position() - start;
+
+        if (lengthBytes == 2) {
+            mPayload.putShort(lengthPosition, (short) length);
+        } else {
+            mPayload.putInt(lengthPosition, length);
+        }
+    }
+
+    /**
+     * Writes the mapping back to storage, only needed to survive the device losing power.
+     */
+    @Override
+    public synchronized void flush() {
+        if (mData != null) {
+            mBuffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        flush();
+        close();
+    }
+
+    /**
+     * Reads every intact record of a shared log file, from all processes.
+     *
+     * @return the entries in the order they were logged, marked as {@link LogData#isRecovered()}.
+     */
+    @NonNull
+    public static List<Entry> read(@NonNull File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(BinaryLogDecoder.readFully(file));
+
+        if (buffer.remaining() < FILE_HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException(file + " is not a shared log file");
+        }
+
+        int capacity = Math.min(buffer.getInt(CAPACITY_OFFSET), buffer.remaining() - FILE_HEADER_SIZE);
+        buffer.position(FILE_HEADER_SIZE);
+        buffer.limit(FILE_HEADER_SIZE + capacity);
+        ByteBuffer data = buffer.slice();
+        List<Entry> entries = new ArrayList<Entry>();
+        CRC32 crc = new CRC32();
+        int position = 0;
+
+        while (position + RECORD_HEADER_SIZE + PAYLOAD_FIXED_SIZE <= capacity) {
+            Entry entry = readRecord(data, position, crc);
+
+            if (entry == null) {
+                position++;
+            } else {
+                entries.add(entry);
+                position += entry.mSize;
+            }
+        }
+
+        Collections.sort(entries, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry lhs, Entry rhs) {
+                return (lhs.mSequence < rhs.mSequence) ? -1 : ((lhs.mSequence == rhs.mSequence) ? 0 : 1);
+            }
+        });
+
+        return entries;
+    }
+
+    private static Entry readRecord(ByteBuffer data, int position, CRC32 crc) {
+        if (data.getShort(position) != SYNC) {
+            return null;
+        }
+
+        int length = data.getInt(position + 2);
+
+        if (length < PAYLOAD_FIXED_SIZE || length > data.limit() - position - RECORD_HEADER_SIZE) {
+            return null;
+        }
+
+        int start = position + RECORD_HEADER_SIZE;
+        crc.reset();
+        crc.update(data.array(), data.arrayOffset() + start, length);
+
+        if ((int) crc.getValue() != data.getInt(position + 6)) {
+            return null;
+        }
+
+        ByteBuffer payload = data.duplicate();
+        payload.limit(start + length);
+        payload.position(start);
+        long sequence = payload.getLong();
+        long millis = payload.getLong();
+        int pid = payload.getInt();
+        LogLevel level = BinaryLogEncoder.levelFromCode(payload.get());
+        long threadId = payload.getLong();
+        String tag = readString(payload, payload.getShort() & 0xFFFF);
+        String msg = (payload.remaining() < 4) ? null : readString(payload, payload.getInt());
+
+        if (tag == null || msg == null) {
+            return null;
+        }
+
+        return new Entry(sequence, pid, RECORD_HEADER_SIZE + length, new LogData(level, tag, msg, millis, threadId));
+    }
+
+    private static String readString(ByteBuffer payload, int length) {
+        if (length < 0 || length > payload.remaining()) {
+            return null;
+        }
+
+        String value = new String(payload.array(), payload.arrayOffset() + payload.position(), length, Utf8.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+
+    /**
+     * One record read back by {@link #read(File)}.
+     */
+    public static final class Entry {
+        private final long mSequence;
+        private final int mPid;
+        private final int mSize;
+        private final LogData mLogData;
+
+        private Entry(long sequence, int pid, int size, LogData logData) {
+            mSequence = sequence;
+            mPid = pid;
+            mSize = size;
+            mLogData = logData;
+        }
+
+        /**
+         * @return position of the entry in the stream of all processes.
+         */
+        public long getSequence() {
+            return mSequence;
+        }
+
+        /**
+         * @return id of the process that logged the entry.
+         */
+        public int getPid() {
+            return mPid;
+        }
+
+        public LogData getLogData() {
+            return mLogData;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + mSequence + " " + mPid + " " + mLogData.getDefaultEntry().trim();
+        }
+    }
+}
@@ -0,0 +1,816 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.content.Context;
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams log entries to a {@link LogCollectorServer} over TCP or UDP. Entries are collected
+ * into frames, each a self-contained {@link BinaryLogFormat binary log} segment behind a 4 byte
+ * big endian length, so the collector gets the level, tag, thread and time of every entry
+ * rather than flattened text:
+ * <pre>
+ * frame := length (4 bytes, big endian), magic "PLOG", version, base millis, record*
+ * </pre>
+ * A frame is sent once it holds the configured number of entries, once it is full or once the
+ * flush interval has passed. All network I/O happens on one background thread with non-blocking
+ * channels; printing only encodes the entry into the current frame. Over UDP every frame is one
+ * datagram.
+ * <p/>
+ * Over TCP the socket is also watched for reads, and the connection is checked before every
+ * frame, so a collector that closed the connection is noticed before frames are written into
+ * the void.
+ * <p/>
+ * While the collector can't be reached the thread reconnects with exponential backoff and
+ * appends finished frames to a bounded spool file, which is sent first once the connection is
+ * back. Without a spool file, or once it is full, frames are dropped and counted. Frames waiting
+ * in memory are bounded as well, so a slow network can't grow the heap.
+ */
+public class SocketLog extends BaseLog {
+    public static final String DEFAULT_SPOOL_FILE_NAME = "log-spool.bin";
+    private static final String TAG = SocketLog.class.getSimpleName();
+    private static final int LENGTH_SIZE = 4;
+    private static final long FLUSH_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private final String mHost;
+    private final int mPort;
+    private final Transport mTransport;
+    private final int mBatchSize;
+    private final long mFlushIntervalMillis;
+    private final long mMinReconnectDelayMillis;
+    private final long mMaxReconnectDelayMillis;
+    private final long mMaxPendingBytes;
+    private final File mSpoolFile;
+    private final long mMaxSpoolBytes;
+    private final BinaryLogEncoder mEncoder = new BinaryLogEncoder();
+    private final ByteBuffer mFrame;
+    private final ConcurrentLinkedQueue<Frame> mPending = new ConcurrentLinkedQueue<Frame>();
+    private final AtomicLong mPendingBytes = new AtomicLong();
+    private final AtomicLong mDroppedCount = new AtomicLong();
+    private final AtomicLong mSentCount = new AtomicLong();
+    /**
+     * Frames that were sent, spooled or dropped.
+     */
+    private final AtomicLong mHandledFrames = new AtomicLong();
+    private final Object mFlushLock = new Object();
+    private final Selector mSelector;
+    private final Thread mSender;
+    private volatile boolean mRunning = true;
+    /**
+     * Entries in {@link #mFrame}, guarded by {@code this}.
+     */
+    private int mFrameEntries;
+    /**
+     * Frames queued so far, guarded by {@code this}.
+     */
+    private long mQueuedFrames;
+
+    // Only touched by the sender thread.
+    private final ByteBuffer mReadBuffer = ByteBuffer.allocate(256);
+    private ByteChannel mChannel;
+    private SelectionKey mKey;
+    private boolean mConnected;
+    private long mNextConnectMillis;
+    private long mReconnectDelayMillis;
+    private Frame mInFlight;
+    private FileChannel mSpool;
+    private long mSpoolReadPosition;
+
+    private SocketLog(Builder builder) throws IOException {
+        mHost = builder.mHost;
+        mPort = builder.mPort;
+        mTransport = builder.mTransport;
+        mBatchSize = builder.mBatchSize;
+        mFlushIntervalMillis = builder.mFlushIntervalMillis;
+        mMinReconnectDelayMillis = builder.mMinReconnectDelayMillis;
+        mMaxReconnectDelayMillis = builder.mMaxReconnectDelayMillis;
+        mReconnectDelayMillis = mMinReconnectDelayMillis;
+        mMaxPendingBytes = builder.mMaxPendingBytes;
+        mSpoolFile = builder.mSpoolFile;
+        mMaxSpoolBytes = builder.mMaxSpoolBytes;
+        mFrame = ByteBuffer.allocate(builder.mMaxFrameSize);
+        mFrame.position(LENGTH_SIZE);
+        mSelector = Selector.open();
+        mSender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                send();
+            }
+        }, "SocketLog-" + mHost + ":" + mPort);
+        mSender.setDaemon(true);
+        mSender.start();
+    }
+
+    public String getHost() {
+        return mHost;
+    }
+
+    public int getPort() {
+        return mPort;
+    }
+
+    public Transport getTransport() {
+        return mTransport;
+    }
+
+    /**
+     * @return whether the collector is currently connected. Over UDP this only means the
+     * channel is open; a missing collector is noticed when the network reports it.
+     */
+    public boolean isConnected() {
+        return mConnected;
+    }
+
+    /**
+     * @return number of entries that were dropped because neither memory nor the spool had room.
+     */
+    public long getDroppedCount() {
+        return mDroppedCount.get();
+    }
+
+    /**
+     * @return number of frames written to the collector, including spooled ones.
+     */
+    public long getSentFrameCount() {
+        return mSentCount.get();
+    }
+
+    @Override
+    protected synchronized void print(@NonNull LogData logData) {
+        if (!mRunning) {
+            drop(1);
+            return;
+        }
+
+        if (!encode(logData)) {
+            if (mFrameEntries == 0) {
+                // Too big for any frame.
+                drop(1);
+                return;
+            }
+
+            queueFrame();
+
+            if (!encode(logData)) {
+                drop(1);
+                return;
+            }
+        }
+
+        if (++mFrameEntries >= mBatchSize) {
+            queueFrame();
+        }
+    }
+
+    /**
+     * @return false if the entry didn't fit, leaving the frame as it was.
+     */
+    private boolean encode(LogData logData) {
+        int start = mFrame.position();
+
+        try {
+            if (mFrameEntries == 0) {
+                mEncoder.startSegment(mFrame, logData.timeMillis);
+            }
+
+            mEncoder.encode(logData, mFrame);
+            return true;
+        } catch (BufferOverflowException e) {
+            mFrame.position(start);
+            return false;
+        }
+    }
+
+    /**
+     * Hands the current frame to the sender thread and starts a new one. Must hold {@code this}.
+     */
+    private void queueFrame() {
+        if (mFrameEntries == 0) {
+            return;
+        }
+
+        int size = mFrame.position();
+        mFrame.putInt(0, size - LENGTH_SIZE);
+
+        if (mPendingBytes.get() + size > mMaxPendingBytes) {
+            drop(mFrameEntries);
+            mHandledFrames.incrementAndGet();
+        } else {
+            ByteBuffer data = ByteBuffer.allocate(size);
+            data.put(mFrame.array(), 0, size);
+            data.flip();
+            mPendingBytes.addAndGet(size);
+            mPending.offer(new Frame(data, mFrameEntries));
+        }
+
+        mQueuedFrames++;
+
+        mFrame.clear();
+        mFrame.position(LENGTH_SIZE);
+        mFrameEntries = 0;
+        mSelector.wakeup();
+    }
+
+    private void drop(int entries) {
+        mDroppedCount.addAndGet(entries);
+        LogMetrics.onDropped(entries);
+    }
+
+    /**
+     * Sends the current frame and waits, up to a second, until every queued frame has been
+     * written to the collector or the spool.
+     */
+    @Override
+    public void flush() {
+        long target;
+
+        synchronized (this) {
+            queueFrame();
+            target = mQueuedFrames;
+        }
+
+        if (Thread.currentThread() == mSender) {
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+        boolean interrupted = false;
+
+        synchronized (mFlushLock) {
+            long now;
+
+            while (mSender.isAlive() && mHandledFrames.get() < target && (now = System.currentTimeMillis()) < deadline) {
+                try {
+                    mFlushLock.wait(deadline - now);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Flushes, stops the sender thread and closes the connection. Whatever couldn't be sent
+     * stays in the spool for the next instance.
+     */
+    @Override
+    public void shutdown() {
+        if (!mRunning) {
+            return;
+        }
+
+        flush();
+        mRunning = false;
+        mSelector.wakeup();
+
+        try {
+            mSender.join(FLUSH_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send() {
+        long nextFlushMillis = System.currentTimeMillis() + mFlushIntervalMillis;
+
+        try {
+            openSpool();
+
+            while (true) {
+                long now = System.currentTimeMillis();
+
+                if (now >= nextFlushMillis) {
+                    synchronized (this) {
+                        queueFrame();
+                    }
+
+                    nextFlushMillis = now + mFlushIntervalMillis;
+                }
+
+                if (mChannel == null && now >= mNextConnectMillis && mRunning) {
+                    connect();
+                }
+
+                if (mConnected) {
+                    write();
+                } else if (mChannel == null) {
+                    spoolPending();
+                }
+
+                synchronized (mFlushLock) {
+                    mFlushLock.notifyAll();
+                }
+
+                if (!mRunning && (!mConnected || (mInFlight == null && mPending.isEmpty()))) {
+                    break;
+                }
+
+                long timeout = nextFlushMillis - now;
+                if (mChannel == null) {
+                    timeout = Math.min(timeout, mNextConnectMillis - now);
+                }
+
+                mSelector.select(Math.max(1, timeout));
+                handleSelected();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Sender stopped", e);
+        } finally {
+            spoolPending();
+            disconnect(null);
+            closeQuietly();
+
+            synchronized (mFlushLock) {
+                mFlushLock.notifyAll();
+            }
+        }
+    }
+
+    private void connect() {
+        try {
+            InetSocketAddress address = new InetSocketAddress(mHost, mPort);
+
+            if (address.isUnresolved()) {
+                throw new IOException("Unknown host " + mHost);
+            }
+
+            if (mTransport == Transport.UDP) {
+                DatagramChannel channel = DatagramChannel.open();
+                mChannel = channel;
+                channel.configureBlocking(false);
+                channel.connect(address);
+                mKey = channel.register(mSelector, 0);
+                onConnected();
+            } else {
+                SocketChannel channel = SocketChannel.open();
+                mChannel = channel;
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+
+                if (channel.connect(address)) {
+                    mKey = channel.register(mSelector, SelectionKey.OP_READ);
+                    onConnected();
+                } else {
+                    mKey = channel.register(mSelector, SelectionKey.OP_CONNECT);
+                }
+            }
+        } catch (IOException e) {
+            disconnect(e);
+        }
+    }
+
+    private void onConnected() {
+        mConnected = true;
+        mReconnectDelayMillis = mMinReconnectDelayMillis;
+    }
+
+    private void handleSelected() {
+        Iterator<SelectionKey> keys = mSelector.selectedKeys().iterator();
+
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+
+            if (!key.isValid()) {
+                continue;
+            }
+
+            if (key.isConnectable()) {
+                try {
+                    if (((SocketChannel) key.channel()).finishConnect()) {
+                        key.interestOps(SelectionKey.OP_READ);
+                        onConnected();
+                    }
+                } catch (IOException e) {
+                    disconnect(e);
+                }
+
+                continue;
+            }
+
+            if (key.isReadable() && !checkOpen()) {
+                continue;
+            }
+
+            if (key.isWritable()) {
+                key.interestOps(idleOps());
+            }
+        }
+    }
+
+    /**
+     * @return the operations to watch while nothing is waiting to be written: reads over TCP, to
+     * notice the collector closing the connection.
+     */
+    private int idleOps() {
+        return (mTransport == Transport.TCP) ? SelectionKey.OP_READ : 0;
+    }
+
+    /**
+     * Reads and discards whatever the collector sent. A TCP write to a connection the collector
+     * already closed still succeeds, so this is how a closed connection is noticed.
+     *
+     * @return false if the connection is gone, after {@link #disconnect(IOException)}.
+     */
+    private boolean checkOpen() {
+        try {
+            while (true) {
+                mReadBuffer.clear();
+                int read = mChannel.read(mReadBuffer);
+
+                if (read < 0) {
+                    disconnect(new IOException("Connection closed by the collector"));
+                    return false;
+                }
+
+                if (read == 0) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            disconnect(e);
+            return false;
+        }
+    }
+
+    /**
+     * Closes the channel and schedules the next attempt.
+     *
+     * @param e why, or null when shutting down.
+     */
+    private void disconnect(IOException e) {
+        if (mChannel != null) {
+            try {
+                mChannel.close();
+            } catch (IOException ignored) {
+                // Closing anyway.
+            }
+        }
+
+        if (e != null && (mConnected || mReconnectDelayMillis == mMinReconnectDelayMillis)) {
+            // Only the first failure of a run, so a missing collector doesn't flood logcat.
+            Log.w(TAG, "Collector " + mHost + ":" + mPort + " unreachable: " + e.getMessage());
+        }
+
+        mChannel = null;
+        mKey = null;
+        mConnected = false;
+        mNextConnectMillis = System.currentTimeMillis() + mReconnectDelayMillis;
+        mReconnectDelayMillis = Math.min(mReconnectDelayMillis * 2, mMaxReconnectDelayMillis);
+
+        if (mInFlight != null) {
+            // A partly written frame is sent again in full on the next connection.
+            if (mInFlight.mSpooled) {
+                mSpoolReadPosition -= mInFlight.mData.limit();
+                mInFlight = null;
+            } else {
+                mInFlight.mData.rewind();
+            }
+        }
+    }
+
+    /**
+     * Writes spooled frames, then queued ones, until done or the socket buffer is full.
+     */
+    private void write() {
+        try {
+            while (true) {
+                if (mInFlight == null) {
+                    if (mTransport == Transport.TCP && !checkOpen()) {
+                        return;
+                    }
+
+                    mInFlight = nextFrame();
+
+                    if (mInFlight == null) {
+                        return;
+                    }
+                }
+
+                mChannel.write(mInFlight.mData);
+
+                if (mInFlight.mData.hasRemaining()) {
+                    mKey.interestOps(idleOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+
+                mSentCount.incrementAndGet();
+                onHandled(mInFlight);
+                mInFlight = null;
+            }
+        } catch (IOException e) {
+            disconnect(e);
+        }
+    }
+
+    private Frame nextFrame() throws IOException {
+        Frame frame = readSpool();
+        return (frame != null) ? frame : mPending.poll();
+    }
+
+    private void onHandled(Frame frame) {
+        if (!frame.mSpooled) {
+            mPendingBytes.addAndGet(-frame.mData.limit());
+            mHandledFrames.incrementAndGet();
+        }
+    }
+
+    /**
+     * Moves everything waiting in memory to the spool while disconnected.
+     */
+    private void spoolPending() {
+        Frame frame = mInFlight;
+        mInFlight = null;
+
+        if (frame == null || frame.mSpooled) {
+            frame = mPending.poll();
+        }
+
+        while (frame != null) {
+            frame.mData.rewind();
+
+            if (!writeSpool(frame.mData)) {
+                drop(frame.mEntries);
+            }
+
+            onHandled(frame);
+            frame = mPending.poll();
+        }
+    }
+
+    private void openSpool() {
+        if (mSpoolFile == null) {
+            return;
+        }
+
+        try {
+            File parent = mSpoolFile.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Couldn't create " + parent);
+            }
+
+            mSpool = new RandomAccessFile(mSpoolFile, "rw").getChannel();
+        } catch (IOException e) {
+            Log.e(TAG, "Couldn't open the spool, frames will be dropped while disconnected", e);
+        }
+    }
+
+    /**
+     * @return false if the spool is missing or full.
+     */
+    private boolean writeSpool(ByteBuffer data) {
+        if (mSpool == null) {
+            return false;
+        }
+
+        try {
+            long size = mSpool.size();
+
+            if (size + data.remaining() > mMaxSpoolBytes) {
+                return false;
+            }
+
+            while (data.hasRemaining()) {
+                size += mSpool.write(data, size);
+            }
+
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Couldn't write to the spool", e);
+            return false;
+        }
+    }
+
+    private Frame readSpool() throws IOException {
+        if (mSpool == null) {
+            return null;
+        }
+
+        long size = mSpool.size();
+
+        if (mSpoolReadPosition >= size) {
+            if (size > 0) {
+                mSpool.truncate(0);
+            }
+
+            mSpoolReadPosition = 0;
+            return null;
+        }
+
+        ByteBuffer length = ByteBuffer.allocate(LENGTH_SIZE);
+        readSpool(length, mSpoolReadPosition);
+        int frameLength = length.getInt(0);
+
+        if (frameLength <= 0 || mSpoolReadPosition + LENGTH_SIZE + frameLength > size) {
+            Log.w(TAG, "Discarding a corrupt spool");
+            mSpool.truncate(0);
+            mSpoolReadPosition = 0;
+            return null;
+        }
+
+        ByteBuffer data = ByteBuffer.allocate(LENGTH_SIZE + frameLength);
+        readSpool(data, mSpoolReadPosition);
+        data.flip();
+        mSpoolReadPosition += data.limit();
+
+        Frame frame = new Frame(data, 0);
+        frame.mSpooled = true;
+        return frame;
+    }
+
+    private void readSpool(ByteBuffer out, long position) throws IOException {
+        while (out.hasRemaining()) {
+            int read = mSpool.read(out, position);
+
+            if (read < 0) {
+                throw new IOException("Spool truncated");
+            }
+
+            position += read;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            mSelector.close();
+
+            if (mSpool != null) {
+                mSpool.close();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Couldn't close", e);
+        }
+    }
+
+    public enum Transport {
+        /**
+         * Ordered and reliable while connected; a lost connection is noticed and spooled.
+         */
+        TCP,
+        /**
+         * No connection to keep up, but frames the network loses are gone.
+         */
+        UDP
+    }
+
+    private static final class Frame {
+        final ByteBuffer mData;
+        final int mEntries;
+        boolean mSpooled;
+
+        Frame(ByteBuffer data, int entries) {
+            mData = data;
+            mEntries = entries;
+        }
+    }
+
+    public static class Builder {
+        private final String mHost;
+        private final int mPort;
+        private Transport mTransport = Transport.TCP;
+        private int mBatchSize = 64;
+        private int mMaxFrameSize = 16 * 1024;
+        private long mFlushIntervalMillis = 200;
+        private long mMinReconnectDelayMillis = 500;
+        private long mMaxReconnectDelayMillis = TimeUnit.SECONDS.toMillis(30);
+        private long mMaxPendingBytes = 256 * 1024;
+        private File mSpoolFile;
+        private long mMaxSpoolBytes = 4 * 1024 * 1024;
+
+        /**
+         * Spools to {@link #DEFAULT_SPOOL_FILE_NAME} in the app's cache dir.
+         */
+        public Builder(@NonNull Context context, @NonNull String host, int port) {
+            this(host, port);
+            mSpoolFile = new File(context.getCacheDir(), DEFAULT_SPOOL_FILE_NAME);
+        }
+
+        /**
+         * Drops frames while disconnected unless {@link #setSpoolFile(File)} is called.
+         */
+        public Builder(@NonNull String host, int port) {
+            mHost = host;
+            mPort = port;
+        }
+
+        public Builder setTransport(@NonNull Transport transport) {
+            mTransport = transport;
+            return this;
+        }
+
+        /**
+         * @param count a frame is sent once it holds this many entries.
+         */
+        public Builder setBatchSize(int count) {
+            mBatchSize = Math.max(1, count);
+            return this;
+        }
+
+        /**
+         * @param bytes largest frame, including the length. Keep it below the path MTU for UDP
+         *              if fragmented datagrams tend to get lost on the network used.
+         */
+        public Builder setMaxFrameSize(int bytes) {
+            mMaxFrameSize = Math.max(1024, Math.min(bytes, 65507));
+            return this;
+        }
+
+        /**
+         * @param millis a frame that isn't full is sent after this long.
+         */
+        public Builder setFlushInterval(long millis) {
+            mFlushIntervalMillis = Math.max(1, millis);
+            return this;
+        }
+
+        /**
+         * @param minMillis delay before the first reconnect, doubled after every failed attempt.
+         * @param maxMillis longest delay between attempts.
+         */
+        public Builder setReconnectDelay(long minMillis, long maxMillis) {
+            mMinReconnectDelayMillis = Math.max(1, minMillis);
+            mMaxReconnectDelayMillis = Math.max(mMinReconnectDelayMillis, maxMillis);
+            return this;
+        }
+
+        /**
+         * @param bytes frames waiting in memory for the sender thread. Frames that don't fit
+         *              are dropped.
+         */
+        public Builder setMaxPendingBytes(long bytes) {
+            mMaxPendingBytes = bytes;
+            return this;
+        }
+
+        /**
+         * @param file where frames are kept while the collector is unreachable, or null to drop
+         *             them.
+         */
+        public Builder setSpoolFile(File file) {
+            mSpoolFile = file;
+            return this;
+        }
+
+        /**
+         * @param bytes once the spool reaches this size, further frames are dropped.
+         */
+        public Builder setMaxSpoolBytes(long bytes) {
+            mMaxSpoolBytes = bytes;
+            return this;
+        }
+
+        /**
+         * @throws IOException if no selector could be opened.
+         */
+        public SocketLog build() throws IOException {
+            return new SocketLog(this);
+        }
+    }
+}
@@ -0,0 +1,904 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Logs under a fixed tag through the current {@link Logger}. The levels enabled for the tag are
+ * resolved once and cached as a bitmask, and only resolved again when
+ * {@link BaseLog#getConfigGeneration() the configuration} changes. A level check is then one
+ * volatile read and one bit test.
+ * <pre>
+ * private static final TaggedLogger LOG = Logger.forTag("MediaPlayerWrapper");
+ * ...
+ * LOG.d("Calling start() For: %s", mName);
+ * </pre>
+ */
+public final class TaggedLogger {
+    private final String mTag;
+    private Resolved mResolved = new Resolved(-1, 0, null);
+
+    TaggedLogger(@NonNull String tag) {
+        mTag = tag;
+    }
+
+    public String getTag() {
+        return mTag;
+    }
+
+    public boolean isLoggable(@NonNull LogLevel level) {
+        return resolve(level) != null;
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority.
+     *
+     * @param msg The actual message to be logged.
+     */
+    public void v(@NonNull String msg) {
+        BaseLog log = resolve(LogLevel.VERBOSE);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.VERBOSE, mTag, msg, null, null);
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority.
+     *
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     * @param msg       The actual message to be logged.
+     */
+    public void v(@NonNull Throwable throwable, @NonNull String msg) {
+        BaseLog log = resolve(LogLevel.VERBOSE);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.VERBOSE, mTag, msg, null, throwable);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void v(@NonNull String format, @Nullable Object arg1) {
+        BaseLog log = resolve(LogLevel.VERBOSE);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.VERBOSE, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     */
+    public void v(@NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        BaseLog log = resolve(LogLevel.VERBOSE);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.VERBOSE, mTag, format, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void v(@NonNull String format, long arg1) {
+        BaseLog log = resolve(LogLevel.VERBOSE);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.VERBOSE, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
+     */
+    public void v(@NonNull String format, int arg1) {
+        BaseLog log = resolve(LogLevel.VERBOSE);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.VERBOSE, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
+     */
+    public void v(@NonNull String format, char arg1) {
+        BaseLog log = resolve(LogLevel.VERBOSE);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.VERBOSE, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void v(@NonNull String format, double arg1) {
+        BaseLog log = resolve(LogLevel.VERBOSE);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.VERBOSE, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#VERBOSE} priority.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param args   for formatting the output
+     */
+    public void v(@NonNull String format, @NonNull Object... args) {
+        BaseLog log = resolve(LogLevel.VERBOSE);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.VERBOSE, mTag, format, args, null);
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
+     *
+     * @param msg The actual message to be logged.
+     */
+    public void d(@NonNull String msg) {
+        BaseLog log = resolve(LogLevel.DEBUG);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.DEBUG, mTag, msg, null, null);
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
+     *
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     * @param msg       The actual message to be logged.
+     */
+    public void d(@NonNull Throwable throwable, @NonNull String msg) {
+        BaseLog log = resolve(LogLevel.DEBUG);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.DEBUG, mTag, msg, null, throwable);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void d(@NonNull String format, @Nullable Object arg1) {
+        BaseLog log = resolve(LogLevel.DEBUG);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.DEBUG, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     */
+    public void d(@NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        BaseLog log = resolve(LogLevel.DEBUG);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.DEBUG, mTag, format, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void d(@NonNull String format, long arg1) {
+        BaseLog log = resolve(LogLevel.DEBUG);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.DEBUG, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
+     */
+    public void d(@NonNull String format, int arg1) {
+        BaseLog log = resolve(LogLevel.DEBUG);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.DEBUG, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
+     */
+    public void d(@NonNull String format, char arg1) {
+        BaseLog log = resolve(LogLevel.DEBUG);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.DEBUG, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void d(@NonNull String format, double arg1) {
+        BaseLog log = resolve(LogLevel.DEBUG);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.DEBUG, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#DEBUG} priority.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param args   for formatting the output
+     */
+    public void d(@NonNull String format, @NonNull Object... args) {
+        BaseLog log = resolve(LogLevel.DEBUG);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.DEBUG, mTag, format, args, null);
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     *
+     * @param msg The actual message to be logged.
+     */
+    public void i(@NonNull String msg) {
+        BaseLog log = resolve(LogLevel.INFO);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.INFO, mTag, msg, null, null);
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     *
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     * @param msg       The actual message to be logged.
+     */
+    public void i(@NonNull Throwable throwable, @NonNull String msg) {
+        BaseLog log = resolve(LogLevel.INFO);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.INFO, mTag, msg, null, throwable);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#INFO} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void i(@NonNull String format, @Nullable Object arg1) {
+        BaseLog log = resolve(LogLevel.INFO);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.INFO, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#INFO} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     */
+    public void i(@NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        BaseLog log = resolve(LogLevel.INFO);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.INFO, mTag, format, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#INFO} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void i(@NonNull String format, long arg1) {
+        BaseLog log = resolve(LogLevel.INFO);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.INFO, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#INFO} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
+     */
+    public void i(@NonNull String format, int arg1) {
+        BaseLog log = resolve(LogLevel.INFO);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.INFO, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#INFO} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
+     */
+    public void i(@NonNull String format, char arg1) {
+        BaseLog log = resolve(LogLevel.INFO);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.INFO, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#INFO} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void i(@NonNull String format, double arg1) {
+        BaseLog log = resolve(LogLevel.INFO);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.INFO, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#INFO} priority.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param args   for formatting the output
+     */
+    public void i(@NonNull String format, @NonNull Object... args) {
+        BaseLog log = resolve(LogLevel.INFO);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.INFO, mTag, format, args, null);
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     *
+     * @param msg The actual message to be logged.
+     */
+    public void w(@NonNull String msg) {
+        BaseLog log = resolve(LogLevel.WARNING);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.WARNING, mTag, msg, null, null);
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     *
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     * @param msg       The actual message to be logged.
+     */
+    public void w(@NonNull Throwable throwable, @NonNull String msg) {
+        BaseLog log = resolve(LogLevel.WARNING);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.WARNING, mTag, msg, null, throwable);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void w(@NonNull String format, @Nullable Object arg1) {
+        BaseLog log = resolve(LogLevel.WARNING);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.WARNING, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     */
+    public void w(@NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        BaseLog log = resolve(LogLevel.WARNING);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.WARNING, mTag, format, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void w(@NonNull String format, long arg1) {
+        BaseLog log = resolve(LogLevel.WARNING);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.WARNING, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
+     */
+    public void w(@NonNull String format, int arg1) {
+        BaseLog log = resolve(LogLevel.WARNING);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.WARNING, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
+     */
+    public void w(@NonNull String format, char arg1) {
+        BaseLog log = resolve(LogLevel.WARNING);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.WARNING, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void w(@NonNull String format, double arg1) {
+        BaseLog log = resolve(LogLevel.WARNING);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.WARNING, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#WARNING} priority.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param args   for formatting the output
+     */
+    public void w(@NonNull String format, @NonNull Object... args) {
+        BaseLog log = resolve(LogLevel.WARNING);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.WARNING, mTag, format, args, null);
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     *
+     * @param msg The actual message to be logged.
+     */
+    public void e(@NonNull String msg) {
+        BaseLog log = resolve(LogLevel.ERROR);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ERROR, mTag, msg, null, null);
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     *
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     * @param msg       The actual message to be logged.
+     */
+    public void e(@NonNull Throwable throwable, @NonNull String msg) {
+        BaseLog log = resolve(LogLevel.ERROR);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ERROR, mTag, msg, null, throwable);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void e(@NonNull String format, @Nullable Object arg1) {
+        BaseLog log = resolve(LogLevel.ERROR);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ERROR, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     */
+    public void e(@NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        BaseLog log = resolve(LogLevel.ERROR);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ERROR, mTag, format, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void e(@NonNull String format, long arg1) {
+        BaseLog log = resolve(LogLevel.ERROR);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ERROR, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
+     */
+    public void e(@NonNull String format, int arg1) {
+        BaseLog log = resolve(LogLevel.ERROR);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ERROR, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
+     */
+    public void e(@NonNull String format, char arg1) {
+        BaseLog log = resolve(LogLevel.ERROR);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ERROR, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void e(@NonNull String format, double arg1) {
+        BaseLog log = resolve(LogLevel.ERROR);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ERROR, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ERROR} priority.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param args   for formatting the output
+     */
+    public void e(@NonNull String format, @NonNull Object... args) {
+        BaseLog log = resolve(LogLevel.ERROR);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ERROR, mTag, format, args, null);
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     *
+     * @param msg The actual message to be logged.
+     */
+    public void wtf(@NonNull String msg) {
+        BaseLog log = resolve(LogLevel.ASSERT);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ASSERT, mTag, msg, null, null);
+        }
+    }
+
+    /**
+     * Prints a message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     *
+     * @param throwable If an exception was thrown, this can be sent along for the logging facilities
+     *                  to extract and print useful information.
+     * @param msg       The actual message to be logged.
+     */
+    public void wtf(@NonNull Throwable throwable, @NonNull String msg) {
+        BaseLog log = resolve(LogLevel.ASSERT);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ASSERT, mTag, msg, null, throwable);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void wtf(@NonNull String format, @Nullable Object arg1) {
+        BaseLog log = resolve(LogLevel.ASSERT);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ASSERT, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority. Nothing is allocated when the level
+     * is disabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   first argument for formatting the output
+     * @param arg2   second argument for formatting the output
+     */
+    public void wtf(@NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        BaseLog log = resolve(LogLevel.ASSERT);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ASSERT, mTag, format, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void wtf(@NonNull String format, long arg1) {
+        BaseLog log = resolve(LogLevel.ASSERT);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ASSERT, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as an {@link Integer}, so
+     *               {@code byte}, {@code short} and {@code int} arguments keep working with
+     *               conversions like {@code %c} that reject a {@link Long}.
+     */
+    public void wtf(@NonNull String format, int arg1) {
+        BaseLog log = resolve(LogLevel.ASSERT);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ASSERT, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output. Boxed as a {@link Character}, so
+     *               {@code %c} keeps working.
+     */
+    public void wtf(@NonNull String format, char arg1) {
+        BaseLog log = resolve(LogLevel.ASSERT);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ASSERT, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority. The argument is only
+     * boxed when the level is enabled for this tag.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param arg1   argument for formatting the output
+     */
+    public void wtf(@NonNull String format, double arg1) {
+        BaseLog log = resolve(LogLevel.ASSERT);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ASSERT, mTag, format, new Object[]{arg1}, null);
+        }
+    }
+
+    /**
+     * Prints a formatted message at {@link com.phoenix.lib.log.LogLevel#ASSERT} priority.
+     *
+     * @param format the format string (see {@link java.util.Formatter#format})
+     * @param args   for formatting the output
+     */
+    public void wtf(@NonNull String format, @NonNull Object... args) {
+        BaseLog log = resolve(LogLevel.ASSERT);
+
+        if (log != null) {
+            LogHelper.print(log, LogLevel.ASSERT, mTag, format, args, null);
+        }
+    }
+
+    /**
+     * @return the logger to print to, or null if {@code level} is disabled for this tag.
+     */
+    private BaseLog resolve(LogLevel level) {
+        int generation = BaseLog.getConfigGeneration();
+        Resolved resolved = mResolved;
+
+        if (resolved.mGeneration != generation) {
+            BaseLog log = Logger.getLogger();
+            resolved = new Resolved(generation, log.getEnabledMask(mTag), log);
+            mResolved = resolved;
+        }
+
+        return ((resolved.mMask & level.getValue()) != 0) ? resolved.mLog : null;
+    }
+
+    /**
+     * Immutable so it can be swapped in without locking; final fields make it safe to publish
+     * through the plain {@link #mResolved} field.
+     */
+    private static final class Resolved {
+        final int mGeneration;
+        final int mMask;
+        final BaseLog mLog;
+
+        Resolved(int generation, int mask, BaseLog log) {
+            mGeneration = generation;
+            mMask = mask;
+            mLog = log;
+        }
+    }
+}
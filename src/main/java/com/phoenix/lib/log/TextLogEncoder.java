@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes every entry as the UTF-8 encoded {@link LogData#getDefaultEntry() default text line}, or
+ * laid out by a {@link PatternLayout} when one is set.
+ * Stack traces are written in full once per segment and referred to by id afterwards.
+ */
+public class TextLogEncoder implements ILogEncoder {
+    private final ThrowableRenderer mThrowableRenderer = new ThrowableRenderer();
+    private volatile PatternLayout mLayout;
+    private LogData mOverflowed;
+    private long mOverflowedMillis;
+    private String mOverflowedEntry;
+
+    public TextLogEncoder() {
+        this(null);
+    }
+
+    /**
+     * @param layout lays out every line, null for the default line.
+     */
+    public TextLogEncoder(PatternLayout layout) {
+        mLayout = layout;
+    }
+
+    public void setLayout(PatternLayout layout) {
+        mLayout = layout;
+    }
+
+    public PatternLayout getLayout() {
+        return mLayout;
+    }
+
+    @Override
+    public String getFileSuffix() {
+        return ".log";
+    }
+
+    /**
+     * Forgets the stack traces written so far, so each segment has every trace in full once.
+     */
+    @Override
+    public void startSegment(@NonNull ByteBuffer out, long startMillis) {
+        mThrowableRenderer.clearCache();
+        mOverflowed = null;
+        mOverflowedEntry = null;
+    }
+
+    @Override
+    public void encode(@NonNull LogData logData, @NonNull ByteBuffer out) {
+        // Rendering a stack trace updates the renderer, so an entry that didn't fit is kept and
+        // written as it is when the sink retries.
+        boolean retry = logData == mOverflowed && logData.timeMillis == mOverflowedMillis;
+        String entry = retry ? mOverflowedEntry : render(logData);
+        mOverflowed = null;
+        mOverflowedEntry = null;
+
+        if (Utf8.write(entry, 0, entry.length(), out) != entry.length()) {
+            mOverflowed = logData;
+            mOverflowedMillis = logData.timeMillis;
+            mOverflowedEntry = entry;
+            throw new BufferOverflowException();
+        }
+    }
+
+    private String render(LogData logData) {
+        PatternLayout layout = mLayout;
+        return (layout == null) ? logData.getDefaultEntry(mThrowableRenderer) : layout.format(logData, mThrowableRenderer);
+    }
+}
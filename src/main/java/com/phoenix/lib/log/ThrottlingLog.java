@@ -0,0 +1,323 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Protects a sink from log storms, e.g. a {@link android.media.MediaPlayer} error callback that
+ * loops. Entries pass two checks before reaching the wrapped sink:
+ * <ul>
+ * <li>Consecutive identical entries of a tag (same level and message) are collapsed into a
+ * single "repeated N times" entry, printed once the tag logs a different entry, on
+ * {@link #flush()} or at the latest {@link #setRepeatSummaryDelay(long) a delay} after the
+ * first repeat. Entries are compared by format, arguments and throwable first, so distinct
+ * entries are never formatted here.</li>
+ * <li>Every tag and level has its own token bucket; entries beyond its rate are dropped and
+ * reported in one summary entry once the bucket refills.</li>
+ * </ul>
+ * The state of a tag is created the first time the tag is seen, afterwards accepting an entry
+ * doesn't allocate. Each tag has its own lock, so threads logging under different tags never
+ * contend.
+ */
+public class ThrottlingLog extends BaseLog {
+    public static final double DEFAULT_PERMITS_PER_SECOND = 50;
+    public static final int DEFAULT_BURST = 100;
+    public static final long DEFAULT_REPEAT_SUMMARY_DELAY_MILLIS = 1000;
+    private static final long MICROS_PER_PERMIT = 1000000L;
+    private static ScheduledExecutorService sSummaryTimer;
+
+    private final BaseLog mDelegate;
+    private final long mCapacityMicros;
+    private final double mMicrosPerNano;
+    private final ConcurrentHashMap<String, TagState> mTags = new ConcurrentHashMap<String, TagState>();
+    private final AtomicLong mRateLimitedCount = new AtomicLong();
+    private final AtomicLong mDuplicateCount = new AtomicLong();
+    private volatile boolean mCollapseDuplicates = true;
+    private volatile long mRepeatSummaryDelayMillis = DEFAULT_REPEAT_SUMMARY_DELAY_MILLIS;
+
+    public ThrottlingLog(@NonNull BaseLog delegate) {
+        this(delegate, DEFAULT_PERMITS_PER_SECOND, DEFAULT_BURST);
+    }
+
+    /**
+     * @param delegate          sink that receives the entries that get through.
+     * @param permitsPerSecond  sustained entries per second allowed for each tag and level.
+     * @param burst             entries a tag and level may print in a row before being limited.
+     */
+    public ThrottlingLog(@NonNull BaseLog delegate, double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        }
+
+        mDelegate = delegate;
+        mCapacityMicros = burst * MICROS_PER_PERMIT;
+        mMicrosPerNano = permitsPerSecond * MICROS_PER_PERMIT / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public BaseLog getDelegate() {
+        return mDelegate;
+    }
+
+    public void setCollapseDuplicates(boolean collapse) {
+        mCollapseDuplicates = collapse;
+    }
+
+    /**
+     * @param delayMillis longest time a "repeated N times" summary waits for a different entry
+     *                    before it is printed anyway.
+     */
+    public void setRepeatSummaryDelay(long delayMillis) {
+        mRepeatSummaryDelayMillis = delayMillis;
+    }
+
+    /**
+     * @return entries dropped because their tag and level exceeded the rate limit.
+     */
+    public long getRateLimitedCount() {
+        return mRateLimitedCount.get();
+    }
+
+    /**
+     * @return entries collapsed because they repeated the previous entry.
+     */
+    public long getDuplicateCount() {
+        return mDuplicateCount.get();
+    }
+
+    @Override
+    protected void print(@NonNull LogData logData) {
+        if (!mDelegate.isLevelEnabled(logData.priority, logData.tag)) {
+            return;
+        }
+
+        String key = (logData.tag == null) ? "" : logData.tag;
+        TagState state = mTags.get(key);
+        if (state == null) {
+            TagState created = new TagState(mCapacityMicros, System.nanoTime());
+            state = mTags.putIfAbsent(key, created);
+
+            if (state == null) {
+                state = created;
+            }
+        }
+
+        LogData repeatSummary = null;
+        LogData previous = null;
+
+        if (mCollapseDuplicates) {
+            synchronized (state) {
+                if (isRepeat(state.mLastEntry, logData)) {
+                    if (state.mRepeats++ == 0) {
+                        state.mPendingSummary = getSummaryTimer().schedule(state.mRepeatSummaryTask, mRepeatSummaryDelayMillis, TimeUnit.MILLISECONDS);
+                    }
+
+                    mDuplicateCount.incrementAndGet();
+                    LogMetrics.onSuppressed(1);
+                    return;
+                }
+
+                repeatSummary = state.takeRepeatSummary();
+                previous = state.mLastEntry;
+                state.mLastEntry = logData.retain();
+            }
+        }
+
+        if (previous != null) {
+            previous.release();
+        }
+
+        if (repeatSummary != null) {
+            mDelegate.print(repeatSummary);
+        }
+
+        int suppressed = state.tryAcquire(logData.priority.ordinal(), System.nanoTime(), mCapacityMicros, mMicrosPerNano);
+
+        if (suppressed < 0) {
+            mRateLimitedCount.incrementAndGet();
+            LogMetrics.onSuppressed(1);
+            return;
+        }
+
+        if (suppressed > 0) {
+            mDelegate.print(new LogData(logData.priority, logData.tag, "Rate limit dropped %d messages", new Object[]{suppressed}, null));
+        }
+
+        mDelegate.print(logData);
+    }
+
+    /**
+     * Prints any pending "repeated" summaries, then flushes the wrapped sink.
+     */
+    @Override
+    public void flush() {
+        for (TagState state : mTags.values()) {
+            LogData repeatSummary;
+            LogData previous;
+
+            synchronized (state) {
+                repeatSummary = state.takeRepeatSummary();
+                previous = state.mLastEntry;
+                state.mLastEntry = null;
+            }
+
+            if (previous != null) {
+                previous.release();
+            }
+
+            if (repeatSummary != null) {
+                mDelegate.print(repeatSummary);
+            }
+        }
+
+        mDelegate.flush();
+    }
+
+    @Override
+    public void shutdown() {
+        flush();
+        mDelegate.shutdown();
+    }
+
+    private static boolean isRepeat(LogData last, LogData logData) {
+        if (last == null || last.priority != logData.priority) {
+            return false;
+        }
+
+        String tag = logData.tag;
+
+        return ((tag == null) ? last.tag == null : tag.equals(last.tag))
+                && logData.hasSameMessage(last);
+    }
+
+    private static synchronized ScheduledExecutorService getSummaryTimer() {
+        if (sSummaryTimer == null) {
+            sSummaryTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ThrottlingLog");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+
+        return sSummaryTimer;
+    }
+
+    /**
+     * The last entry of one tag with its pending repeats, and token buckets for every level of the
+     * tag. Guarded by its own monitor. Tokens are counted in millionths of a permit so refills
+     * stay exact with integer math.
+     */
+    private final class TagState {
+        private final long[] mTokens = new long[LogLevel.values().length];
+        private final long[] mRefilledAt = new long[mTokens.length];
+        private final int[] mSuppressed = new int[mTokens.length];
+        private final Runnable mRepeatSummaryTask = new Runnable() {
+            @Override
+            public void run() {
+                printRepeatSummary();
+            }
+        };
+        private LogData mLastEntry;
+        private int mRepeats;
+        private ScheduledFuture<?> mPendingSummary;
+
+        TagState(long capacity, long now) {
+            for (int i = 0; i < mTokens.length; i++) {
+                mTokens[i] = capacity;
+                mRefilledAt[i] = now;
+            }
+        }
+
+        /**
+         * Prints the pending "repeated" summary, if any, while keeping the last entry so later
+         * repeats start a new count.
+         */
+        void printRepeatSummary() {
+            LogData repeatSummary;
+
+            synchronized (this) {
+                repeatSummary = takeRepeatSummary();
+            }
+
+            if (repeatSummary != null) {
+                mDelegate.print(repeatSummary);
+            }
+        }
+
+        LogData takeRepeatSummary() {
+            if (mPendingSummary != null) {
+                mPendingSummary.cancel(false);
+                mPendingSummary = null;
+            }
+
+            if (mRepeats == 0) {
+                return null;
+            }
+
+            LogData summary = new LogData(mLastEntry.priority, mLastEntry.tag, "Previous message repeated %d times", new Object[]{mRepeats}, null);
+            mRepeats = 0;
+            return summary;
+        }
+
+        /**
+         * @return -1 if the entry must be dropped, otherwise the number of entries dropped since
+         * the last one that got through.
+         */
+        synchronized int tryAcquire(int level, long now, long capacity, double microsPerNano) {
+            long elapsed = now - mRefilledAt[level];
+
+            long refill = (elapsed > 0) ? (long) Math.min(capacity, elapsed * microsPerNano) : 0;
+
+            // Leave the clock alone until at least one micro-token accrued, so frequent calls
+            // don't keep discarding the fractional part.
+            if (refill > 0) {
+                mTokens[level] = Math.min(capacity, mTokens[level] + refill);
+                mRefilledAt[level] = now;
+            }
+
+            if (mTokens[level] < MICROS_PER_PERMIT) {
+                mSuppressed[level]++;
+                return -1;
+            }
+
+            mTokens[level] -= MICROS_PER_PERMIT;
+            int suppressed = mSuppressed[level];
+            mSuppressed[level] = 0;
+            return suppressed;
+        }
+    }
+}
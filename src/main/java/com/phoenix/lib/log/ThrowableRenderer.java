@@ -0,0 +1,310 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.support.annotation.NonNull;
+
+import java.net.UnknownHostException;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders stack traces for log entries. Output is bounded by a maximum number of frames per
+ * exception and of "Caused by" levels.
+ * <p/>
+ * {@link #renderFull(Throwable)} always renders the whole trace and is what
+ * {@link LogData#getMsg()} uses, so filters and other sinks reading the message never affect each
+ * other. A sink that writes a stream, a file or a console owns a renderer instance: each distinct
+ * trace is rendered in full the first time that renderer sees it and given a reference id; when a
+ * trace with the same structure (exception classes and stack frames, not messages) is logged
+ * again, only its first line and the id are printed. Ids are qualified with {@link #SESSION_ID},
+ * so references stay unambiguous in logs collected from several runs.
+ * <p/>
+ * Like {@link android.util.Log#getStackTraceString(Throwable)}, nothing is rendered when an
+ * {@link UnknownHostException} is in the chain, to keep offline retries quiet.
+ */
+public final class ThrowableRenderer {
+    public static final int DEFAULT_MAX_FRAMES = 50;
+    public static final int DEFAULT_MAX_CAUSES = 10;
+    public static final int DEFAULT_CACHE_SIZE = 128;
+    /**
+     * Identifies this run of the process in trace ids.
+     */
+    public static final String SESSION_ID = Long.toString(System.currentTimeMillis(), 36);
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private static volatile int sMaxFrames = DEFAULT_MAX_FRAMES;
+    private static volatile int sMaxCauses = DEFAULT_MAX_CAUSES;
+    private final Object mLock = new Object();
+    private final LinkedHashMap<Long, Trace> mTraces;
+    private final int mCacheSize;
+    private int mNextId = 1;
+
+    public ThrowableRenderer() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize number of distinct traces remembered, 0 renders every trace in full.
+     */
+    public ThrowableRenderer(int cacheSize) {
+        mCacheSize = Math.max(cacheSize, 0);
+        mTraces = new LinkedHashMap<Long, Trace>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Trace> eldest) {
+                return size() > mCacheSize;
+            }
+        };
+    }
+
+    /**
+     * @param maxFrames frames printed per exception before the rest is summarized.
+     */
+    public static void setMaxFrames(int maxFrames) {
+        sMaxFrames = Math.max(maxFrames, 1);
+    }
+
+    /**
+     * @param maxCauses "Caused by" levels printed before the rest is summarized.
+     */
+    public static void setMaxCauses(int maxCauses) {
+        sMaxCauses = Math.max(maxCauses, 0);
+    }
+
+    /**
+     * Forgets every trace seen so far, so each is rendered in full again. Sinks call this when
+     * they start a new output, e.g. a new file.
+     */
+    public void clearCache() {
+        synchronized (mLock) {
+            mTraces.clear();
+        }
+    }
+
+    /**
+     * @return the whole trace, without a reference id.
+     */
+    @NonNull
+    public static String renderFull(Throwable throwable) {
+        if (throwable == null) {
+            return "";
+        }
+
+        StackTraceElement[][] frames = stackTraces(throwable);
+
+        if (hasUnknownHost(throwable, frames.length)) {
+            return "";
+        }
+
+        StringBuilder out = new StringBuilder(256);
+        appendTrace(throwable, frames, out);
+        return out.toString();
+    }
+
+    /**
+     * @return the whole trace with its reference id the first time this renderer sees its
+     * structure, otherwise the exception's first line and the id.
+     */
+    @NonNull
+    public String render(Throwable throwable) {
+        if (throwable == null) {
+            return "";
+        }
+
+        StackTraceElement[][] frames = stackTraces(throwable);
+
+        if (hasUnknownHost(throwable, frames.length)) {
+            return "";
+        }
+
+        long hash = structuralHash(throwable, frames);
+        int id;
+        int repeats;
+
+        synchronized (mLock) {
+            if (mCacheSize == 0) {
+                id = 0;
+                repeats = 0;
+            } else {
+                Trace trace = mTraces.get(hash);
+
+                if (trace == null) {
+                    trace = new Trace(mNextId++);
+                    mTraces.put(hash, trace);
+                } else {
+                    trace.mRepeats++;
+                }
+
+                id = trace.mId;
+                repeats = trace.mRepeats;
+            }
+        }
+
+        StringBuilder out = new StringBuilder(256);
+
+        if (repeats > 0) {
+            return out.append(throwable)
+                    .append(" [stack trace #").append(SESSION_ID).append('-').append(id)
+                    .append(" repeated ").append(repeats).append(repeats == 1 ? " time" : " times").append(']')
+                    .toString();
+        }
+
+        if (id > 0) {
+            out.append("[stack trace #").append(SESSION_ID).append('-').append(id).append(']').append(LINE_SEPARATOR);
+        }
+
+        appendTrace(throwable, frames, out);
+        return out.toString();
+    }
+
+    private static boolean hasUnknownHost(Throwable throwable, int depth) {
+        Throwable t = throwable;
+
+        for (int i = 0; i < depth; i++, t = t.getCause()) {
+            if (t instanceof UnknownHostException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isInChain(Throwable throwable, int depth, Throwable target) {
+        Throwable t = throwable;
+
+        for (int i = 0; i < depth; i++, t = t.getCause()) {
+            if (t == target) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the stack traces of the chain, as far as it will be rendered. Each call to
+     * {@link Throwable#getStackTrace()} copies the array, so it is done once per exception.
+     */
+    private static StackTraceElement[][] stackTraces(Throwable throwable) {
+        int maxCauses = sMaxCauses;
+        Map<Throwable, Boolean> seen = new IdentityHashMap<Throwable, Boolean>();
+        int count = 0;
+
+        for (Throwable t = throwable; t != null && count <= maxCauses && !seen.containsKey(t); t = t.getCause()) {
+            seen.put(t, Boolean.TRUE);
+            count++;
+        }
+
+        StackTraceElement[][] frames = new StackTraceElement[count][];
+        Throwable t = throwable;
+
+        for (int i = 0; i < count; i++, t = t.getCause()) {
+            frames[i] = t.getStackTrace();
+        }
+
+        return frames;
+    }
+
+    private static long structuralHash(Throwable throwable, StackTraceElement[][] frames) {
+        long hash = 17;
+        Throwable t = throwable;
+
+        for (StackTraceElement[] trace : frames) {
+            hash = mix(hash, t.getClass().getName().hashCode());
+
+            for (StackTraceElement frame : trace) {
+                hash = mix(hash, frame.hashCode());
+            }
+
+            t = t.getCause();
+        }
+
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * 0x9E3779B97F4A7C15L;
+    }
+
+    private static void appendTrace(Throwable throwable, StackTraceElement[][] frames, StringBuilder out) {
+        int maxFrames = sMaxFrames;
+        StackTraceElement[] enclosing = null;
+        Throwable t = throwable;
+
+        for (int i = 0; i < frames.length; i++, t = t.getCause()) {
+            StackTraceElement[] trace = frames[i];
+
+            if (i > 0) {
+                out.append(LINE_SEPARATOR).append("Caused by: ");
+            }
+
+            out.append(t);
+
+            // Frames shared with the enclosing trace are summarized, as printStackTrace() does.
+            int common = 0;
+
+            if (enclosing != null) {
+                for (int m = trace.length - 1, n = enclosing.length - 1; m >= 0 && n >= 0 && trace[m].equals(enclosing[n]); m--, n--) {
+                    common++;
+                }
+            }
+
+            int unique = trace.length - common;
+            int printed = Math.min(unique, maxFrames);
+
+            for (int f = 0; f < printed; f++) {
+                out.append(LINE_SEPARATOR).append("\tat ").append(trace[f]);
+            }
+
+            if (printed < unique) {
+                out.append(LINE_SEPARATOR).append("\t... ").append(unique - printed).append(" more frames");
+            }
+
+            if (common > 0) {
+                out.append(LINE_SEPARATOR).append("\t... ").append(common).append(" more");
+            }
+
+            enclosing = trace;
+        }
+
+        if (t != null) {
+            if (isInChain(throwable, frames.length, t)) {
+                out.append(LINE_SEPARATOR).append("\t[CIRCULAR REFERENCE: ").append(t).append(']');
+            } else {
+                out.append(LINE_SEPARATOR).append("\t... more causes starting with ").append(t);
+            }
+        }
+    }
+
+    private static final class Trace {
+        private final int mId;
+        private int mRepeats;
+
+        private Trace(int id) {
+            mId = id;
+        }
+    }
+}
@@ -0,0 +1,485 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import android.os.Process;
+import android.support.annotation.NonNull;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records named spans of work so their durations can be looked at in a trace viewer:
+ * <pre>
+ * Trace.begin("MediaPlayerWrapper.prepare");
+ * try {
+ *     ...
+ * } finally {
+ *     Trace.end();
+ * }
+ * </pre>
+ * Tracing is off by default and then both calls are a single branch. When on, every thread
+ * writes the name and {@link System#nanoTime()} of each event into its own preallocated ring
+ * buffer, so recording takes no locks and allocates nothing; once a buffer is full the oldest
+ * events are overwritten. {@link #writeChromeTrace(Writer)} exports what was recorded in the
+ * Chrome trace-event format, which {@code chrome://tracing} and Perfetto open.
+ * <p/>
+ * Spans nest per thread and must be ended on the thread that began them. Work that finishes in
+ * a callback, e.g. a sound that loads in the background, is recorded with
+ * {@link #beginAsync(String, long)} and {@link #endAsync(String, long)} instead. Names are
+ * stored by reference, so use constants rather than building them per call.
+ * <p/>
+ * The buffers of threads that have finished are kept until they are exported or
+ * {@link #clear() cleared}, and only the newest few of them at that, so short-lived threads
+ * don't pile up buffers.
+ */
+public final class Trace {
+    public static final int DEFAULT_BUFFER_SIZE = 4096;
+    private static final String TAG = Trace.class.getSimpleName();
+    private static final int MAX_DEPTH = 64;
+    private static final int MAX_FINISHED_THREADS = 16;
+    private static final int ASYNC_BUFFER_SIZE = 1024;
+    private static final Queue<ThreadBuffer> sBuffers = new ConcurrentLinkedQueue<ThreadBuffer>();
+    private static final ThreadLocal<ThreadBuffer> sBuffer = new ThreadLocal<ThreadBuffer>() {
+        @Override
+        protected ThreadBuffer initialValue() {
+            ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread(), sBufferSize);
+            removeFinished(MAX_FINISHED_THREADS);
+            sBuffers.add(buffer);
+            return buffer;
+        }
+    };
+    private static final AsyncBuffer sAsync = new AsyncBuffer(ASYNC_BUFFER_SIZE);
+    private static volatile boolean sEnabled;
+    private static volatile int sBufferSize = DEFAULT_BUFFER_SIZE;
+    private static volatile long sSlowSpanNanos;
+
+    private Trace() {
+
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    /**
+     * @param events size of the buffer of threads that trace for the first time from now on,
+     *               rounded up to a power of two. Each event takes about 12 bytes.
+     */
+    public static void setBufferSize(int events) {
+        sBufferSize = Integer.highestOneBit(Math.max(15, events - 1) << 1);
+    }
+
+    /**
+     * Logs a warning for every span that takes at least {@code millis}, in addition to recording
+     * it. 0, the default, turns this off.
+     */
+    public static void setSlowSpanThreshold(long millis) {
+        sSlowSpanNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+    }
+
+    /**
+     * Starts a span on the calling thread.
+     */
+    public static void begin(@NonNull String name) {
+        if (!sEnabled) {
+            return;
+        }
+
+        sBuffer.get().begin(name);
+    }
+
+    /**
+     * Ends the innermost span the calling thread began.
+     */
+    public static void end() {
+        if (!sEnabled) {
+            return;
+        }
+
+        sBuffer.get().end();
+    }
+
+    /**
+     * Starts a span that may end on another thread, for example in a completion callback.
+     *
+     * @param id pairs the span with its {@link #endAsync(String, long) end}; must be unique among
+     *           the spans of {@code name} in flight at the same time.
+     */
+    public static void beginAsync(@NonNull String name, long id) {
+        if (!sEnabled) {
+            return;
+        }
+
+        sAsync.record(name, id, true);
+    }
+
+    /**
+     * Ends the span {@link #beginAsync(String, long)} started with the same name and id.
+     */
+    public static void endAsync(@NonNull String name, long id) {
+        if (!sEnabled) {
+            return;
+        }
+
+        sAsync.record(name, id, false);
+    }
+
+    /**
+     * Forgets every recorded event and the buffers of threads that have finished. Threads that
+     * are in the middle of a span keep recording.
+     */
+    public static void clear() {
+        for (Iterator<ThreadBuffer> it = sBuffers.iterator(); it.hasNext(); ) {
+            ThreadBuffer buffer = it.next();
+
+            if (buffer.isFinished()) {
+                it.remove();
+            } else {
+                buffer.mCleared = buffer.mCount;
+            }
+        }
+
+        sAsync.clear();
+    }
+
+    /**
+     * Drops the buffers of finished threads, oldest first, until at most {@code keep} are left.
+     */
+    private static void removeFinished(int keep) {
+        int finished = 0;
+
+        for (ThreadBuffer buffer : sBuffers) {
+            if (buffer.isFinished()) {
+                finished++;
+            }
+        }
+
+        for (Iterator<ThreadBuffer> it = sBuffers.iterator(); finished > keep && it.hasNext(); ) {
+            if (it.next().isFinished()) {
+                it.remove();
+                finished--;
+            }
+        }
+    }
+
+    /**
+     * Writes every recorded event in the Chrome trace-event JSON format. Can be called while
+     * other threads keep recording; events they overwrite meanwhile are left out. Threads that
+     * have finished are written once and then forgotten.
+     */
+    public static void writeChromeTrace(@NonNull Writer out) throws IOException {
+        int pid = Process.myPid();
+        StringBuilder event = new StringBuilder(128);
+        boolean first = true;
+
+        out.write("{\"displayTimeUnit\":\"ns\",\"traceEvents\":[");
+
+        for (ThreadBuffer buffer : sBuffers) {
+            Snapshot snapshot = buffer.snapshot();
+
+            event.setLength(0);
+            event.append(first ? "\n" : ",\n");
+            event.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":").append(pid)
+                    .append(",\"tid\":").append(buffer.mThreadId)
+                    .append(",\"args\":{\"name\":");
+            appendString(event, buffer.mThreadName);
+            event.append("}}");
+            out.append(event);
+            first = false;
+
+            int depth = 0;
+
+            for (int i = 0; i < snapshot.mSize; i++) {
+                String name = snapshot.mNames[i];
+
+                if (name == null) {
+                    if (depth == 0) {
+                        // The begin was overwritten or cleared.
+                        continue;
+                    }
+
+                    depth--;
+                } else {
+                    depth++;
+                }
+
+                event.setLength(0);
+                event.append(",\n{\"ph\":\"").append((name == null) ? 'E' : 'B').append('"');
+
+                if (name != null) {
+                    event.append(",\"name\":");
+                    appendString(event, name);
+                }
+
+                event.append(",\"pid\":").append(pid)
+                        .append(",\"tid\":").append(buffer.mThreadId);
+                appendTimestamp(event, snapshot.mTimes[i]);
+                event.append('}');
+                out.append(event);
+            }
+        }
+
+        sAsync.write(out, event, pid, first);
+        out.write("\n]}\n");
+        out.flush();
+        removeFinished(0);
+    }
+
+    /**
+     * Writes {@link #writeChromeTrace(Writer) the trace} to {@code file}, replacing it.
+     */
+    public static void writeChromeTrace(@NonNull File file) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), Utf8.UTF_8));
+
+        try {
+            writeChromeTrace(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Appends the {@code ts} member: microseconds with the nanoseconds as fraction.
+     */
+    private static void appendTimestamp(StringBuilder out, long nanos) {
+        out.append(",\"ts\":").append(nanos / 1000).append('.');
+        long fraction = nanos % 1000;
+
+        if (fraction < 100) {
+            out.append('0');
+        }
+        if (fraction < 10) {
+            out.append('0');
+        }
+
+        out.append(fraction);
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        out.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+
+        out.append('"');
+    }
+
+    /**
+     * Events of one thread. Only that thread writes; {@link #mCount} publishes each event to
+     * the exporting thread.
+     */
+    private static final class ThreadBuffer {
+        final String mThreadName;
+        final long mThreadId;
+        private final WeakReference<Thread> mThread;
+        /**
+         * Name of each event, null for the end of a span.
+         */
+        private final String[] mNames;
+        private final long[] mTimes;
+        private final int mMask;
+        private final String[] mOpenNames = new String[MAX_DEPTH];
+        private final long[] mOpenTimes = new long[MAX_DEPTH];
+        private int mDepth;
+        volatile long mCount;
+        volatile long mCleared;
+
+        ThreadBuffer(Thread thread, int size) {
+            mThreadName = thread.getName();
+            mThreadId = thread.getId();
+            mThread = new WeakReference<Thread>(thread);
+            mNames = new String[size];
+            mTimes = new long[size];
+            mMask = size - 1;
+        }
+
+        boolean isFinished() {
+            Thread thread = mThread.get();
+            return thread == null || !thread.isAlive();
+        }
+
+        void begin(String name) {
+            long now = System.nanoTime();
+            record(name, now);
+
+            if (mDepth < MAX_DEPTH) {
+                mOpenNames[mDepth] = name;
+                mOpenTimes[mDepth] = now;
+            }
+
+            mDepth++;
+        }
+
+        void end() {
+            long now = System.nanoTime();
+            record(null, now);
+
+            if (mDepth == 0) {
+                // Begun before tracing was turned on.
+                return;
+            }
+
+            mDepth--;
+            long slowNanos = sSlowSpanNanos;
+
+            if (slowNanos > 0 && mDepth < MAX_DEPTH && now - mOpenTimes[mDepth] >= slowNanos) {
+                Logger.w(TAG, "%s took %s ms", mOpenNames[mDepth], TimeUnit.NANOSECONDS.toMillis(now - mOpenTimes[mDepth]));
+            }
+
+            if (mDepth < MAX_DEPTH) {
+                mOpenNames[mDepth] = null;
+            }
+        }
+
+        private void record(String name, long nanos) {
+            long count = mCount;
+            int index = (int) (count & mMask);
+            mNames[index] = name;
+            mTimes[index] = nanos;
+            mCount = count + 1;
+        }
+
+        Snapshot snapshot() {
+            long end = mCount;
+            long start = Math.max(mCleared, end - mNames.length);
+            Snapshot snapshot = new Snapshot((int) (end - start));
+
+            for (long i = start; i < end; i++) {
+                int index = (int) (i & mMask);
+                snapshot.mNames[(int) (i - start)] = mNames[index];
+                snapshot.mTimes[(int) (i - start)] = mTimes[index];
+            }
+
+            // Drop whatever the thread overwrote while it was being copied.
+            long overwritten = Math.max(0, mCount - mNames.length - start);
+            snapshot.drop((int) Math.min(overwritten, snapshot.mSize));
+            return snapshot;
+        }
+    }
+
+    /**
+     * Events of the spans that may end on another thread. Those are rare, so one buffer under a
+     * lock serves every thread.
+     */
+    private static final class AsyncBuffer {
+        private final String[] mNames;
+        private final long[] mIds;
+        private final long[] mTimes;
+        private final long[] mThreadIds;
+        private final boolean[] mBegins;
+        private long mCount;
+        private long mCleared;
+
+        AsyncBuffer(int size) {
+            mNames = new String[size];
+            mIds = new long[size];
+            mTimes = new long[size];
+            mThreadIds = new long[size];
+            mBegins = new boolean[size];
+        }
+
+        synchronized void record(String name, long id, boolean begin) {
+            int index = (int) (mCount % mNames.length);
+            mNames[index] = name;
+            mIds[index] = id;
+            mTimes[index] = System.nanoTime();
+            mThreadIds[index] = Thread.currentThread().getId();
+            mBegins[index] = begin;
+            mCount++;
+        }
+
+        synchronized void clear() {
+            mCleared = mCount;
+        }
+
+        /**
+         * Writes the recorded events as Chrome async events, each one preceded by a comma unless
+         * it is the first event of the trace.
+         */
+        synchronized void write(Writer out, StringBuilder event, int pid, boolean first) throws IOException {
+            long start = Math.max(mCleared, mCount - mNames.length);
+
+            for (long i = start; i < mCount; i++) {
+                int index = (int) (i % mNames.length);
+
+                event.setLength(0);
+                event.append(first ? "\n" : ",\n");
+                event.append("{\"ph\":\"").append(mBegins[index] ? 'b' : 'e')
+                        .append("\",\"cat\":\"async\",\"id\":").append(mIds[index])
+                        .append(",\"name\":");
+                appendString(event, mNames[index]);
+                event.append(",\"pid\":").append(pid)
+                        .append(",\"tid\":").append(mThreadIds[index]);
+                appendTimestamp(event, mTimes[index]);
+                event.append('}');
+                out.append(event);
+                first = false;
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        String[] mNames;
+        long[] mTimes;
+        int mSize;
+
+        Snapshot(int size) {
+            mNames = new String[size];
+            mTimes = new long[size];
+            mSize = size;
+        }
+
+        void drop(int count) {
+            if (count > 0) {
+                System.arraycopy(mNames, count, mNames, 0, mSize - count);
+                System.arraycopy(mTimes, count, mTimes, 0, mSize - count);
+                mSize -= count;
+            }
+        }
+    }
+}
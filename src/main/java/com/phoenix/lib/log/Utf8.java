@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Encodes characters straight into a {@link ByteBuffer} as UTF-8 without creating an encoder,
+ * a byte array or an intermediate {@link String}.
+ */
+final class Utf8 {
+    /**
+     * Shared by the sinks and the workstation tools, which can't use {@code StandardCharsets} on
+     * API 15.
+     */
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+    /**
+     * Written in place of a lone surrogate; like any other character in its range it takes three
+     * bytes, so {@link #encodedLength(CharSequence)} needs no special case.
+     */
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private Utf8() {
+
+    }
+
+    /**
+     * Writes as many characters of {@code text} as fit into {@code out}, never splitting a
+     * character across two calls.
+     *
+     * @param text  characters to encode.
+     * @param start index of the first character to write.
+     * @param end   index after the last character to write.
+     * @param out   destination buffer.
+     *
+     * @return index of the first character that was not written; equals {@code end} when done.
+     */
+    public static int write(CharSequence text, int start, int end, ByteBuffer out) {
+        int index = start;
+
+        while (index < end) {
+            char c = text.charAt(index);
+
+            if (c < 0x80) {
+                if (!out.hasRemaining()) {
+                    break;
+                }
+
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                if (out.remaining() < 2) {
+                    break;
+                }
+
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && index + 1 < end && Character.isLowSurrogate(text.charAt(index + 1))) {
+                if (out.remaining() < 4) {
+                    break;
+                }
+
+                int codePoint = Character.toCodePoint(c, text.charAt(index + 1));
+                out.put((byte) (0xF0 | (codePoint >> 18)));
+                out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (codePoint & 0x3F)));
+                index++;
+            } else {
+                if (out.remaining() < 3) {
+                    break;
+                }
+
+                if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                    c = REPLACEMENT;
+                }
+
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+
+            index++;
+        }
+
+        return index;
+    }
+
+    /**
+     * @return number of bytes {@code text} takes when encoded.
+     */
+    public static int encodedLength(CharSequence text) {
+        int length = 0;
+        int size = text.length();
+
+        for (int i = 0; i < size; i++) {
+            char c = text.charAt(i);
+
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+}
@@ -7,6 +7,7 @@ import android.media.MediaPlayer;
 
 import com.phoenix.lib.BuildConfig;
 import com.phoenix.lib.log.Logger;
+import com.phoenix.lib.log.Trace;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -73,6 +74,7 @@ public class MediaPlayerWrapper implements MediaPlayer.OnErrorListener, MediaPla
     }
 
     private final static String TAG = MediaPlayerWrapper.class.getSimpleName();
+    private final static String TRACE_PREPARE = "MediaPlayerWrapper.prepare";
     private final MediaPlayer mPlayer = new MediaPlayer();
     private final String mName;
     private IOnSeekCompleteListener mOnSeekCompleteListener;
@@ -203,7 +205,7 @@ public class MediaPlayerWrapper implements MediaPlayer.OnErrorListener, MediaPla
                     try {
                         assetFileDescriptor.close();
                     } catch (IOException e) {
-                        Logger.e(TAG, "Exception while closing asset file descriptor", e);
+                        Logger.e(TAG, e, "Exception while closing asset file descriptor");
                     }
                 }
             }
@@ -225,11 +227,15 @@ public class MediaPlayerWrapper implements MediaPlayer.OnErrorListener, MediaPla
         Logger.d(TAG, "Calling prepare() For: %s", mName);
 
         if (EnumSet.of(State.INITIALIZED, State.STOPPED).contains(currentState)) {
+            Trace.begin(TRACE_PREPARE);
+
             try {
                 mPlayer.prepare();
                 currentState = State.PREPARED;
             } catch (IOException e) {
                 Logger.e(TAG, e, "Error preparing audio file: %s", mName);
+            } finally {
+                Trace.end();
             }
         } else {
             Logger.e(TAG, "Current MediaPlayer state: %s For: %s", currentState.toString(), mName);
@@ -387,7 +393,7 @@ public class MediaPlayerWrapper implements MediaPlayer.OnErrorListener, MediaPla
      * @return the current state of the {@link android.media.MediaPlayer}
      */
     public State getState() {
-        Logger.d(TAG, "Calling getState() == " + currentState.toString() + " For: " + mName);
+        Logger.d(TAG, "Calling getState() == %s For: %s", currentState, mName);
         return currentState;
     }
 
@@ -7,6 +7,7 @@ import android.os.Build;
 import android.util.SparseIntArray;
 
 import com.phoenix.lib.log.Logger;
+import com.phoenix.lib.log.Trace;
 
 import java.util.List;
 import java.util.Stack;
@@ -27,6 +28,8 @@ import java.util.Stack;
  */
 public class SoundPoolManager implements SoundPool.OnLoadCompleteListener, AudioManager.OnAudioFocusChangeListener {
     private static final String TAG = SoundPoolManager.class.getName();
+    private static final String TRACE_QUEUE_LOAD = "SoundPoolManager.queueLoad";
+    private static final String TRACE_LOAD = "SoundPoolManager.load";
     private static final int INVALID_STREAM_ID = -1;
     private int mCurrentStreamId = INVALID_STREAM_ID;
     private static final int INVALID_SAMPLE_ID = -1;
@@ -85,27 +88,37 @@ public class SoundPoolManager implements SoundPool.OnLoadCompleteListener, Audio
     }
 
     private void loadResource(int resource, boolean playAfterLoad) {
-        if (mPreviouslyUsed.size() >= MAX_SOUND_CAPACITY) {
-            int soundId = mPreviouslyUsed.pop();
+        Trace.begin(TRACE_QUEUE_LOAD);
 
-            mPlayer.unload(soundId);
-            int index = mSounds.indexOfValue(soundId);
-            mSounds.removeAt(index);
-        }
+        try {
+            if (mPreviouslyUsed.size() >= MAX_SOUND_CAPACITY) {
+                int soundId = mPreviouslyUsed.pop();
 
-        Logger.d(TAG, "Loading id: %s", String.valueOf(resource));
+                mPlayer.unload(soundId);
+                int index = mSounds.indexOfValue(soundId);
+                mSounds.removeAt(index);
+            }
 
-        int sampleId = mPlayer.load(mContext, resource, 1);
-        if (playAfterLoad) {
-            mCurrentSampleId = sampleId;
-        }
+            Logger.d(TAG, "Loading id: %d", resource);
 
-        mSounds.append(resource, sampleId);
-        mPreviouslyUsed.push(sampleId);
+            int sampleId = mPlayer.load(mContext, resource, 1);
+            // SoundPool decodes in the background and reports back in onLoadComplete.
+            Trace.beginAsync(TRACE_LOAD, sampleId);
+            if (playAfterLoad) {
+                mCurrentSampleId = sampleId;
+            }
+
+            mSounds.append(resource, sampleId);
+            mPreviouslyUsed.push(sampleId);
+        } finally {
+            Trace.end();
+        }
     }
 
     @Override
     public void onLoadComplete(SoundPool soundPool, int sampleId, int status) {
+        Trace.endAsync(TRACE_LOAD, sampleId);
+
         if (status == 0) {
             // success
             Logger.d(TAG, "Sound id: %s has finished loading", sampleId);
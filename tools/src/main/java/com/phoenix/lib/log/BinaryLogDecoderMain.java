@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+
+/**
+ * Turns exported binary segments back into text on a workstation:
+ * <pre>
+ * java -cp tools/build/libs/phoenix-log-tools.jar com.phoenix.lib.log.BinaryLogDecoderMain log-20141026-101500-000.plog
+ * </pre>
+ */
+public final class BinaryLogDecoderMain {
+    private BinaryLogDecoderMain() {
+
+    }
+
+    /**
+     * Prints every entry of the given segments as text, one line per entry.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: BinaryLogDecoderMain <segment.plog[.gz]>...");
+            System.exit(2);
+        }
+
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, Utf8.UTF_8));
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+        StringBuilder line = new StringBuilder(256);
+        BinaryLogDecoder.Record record = new BinaryLogDecoder.Record();
+
+        for (String path : args) {
+            BinaryLogDecoder decoder = BinaryLogDecoder.open(new File(path));
+
+            while (decoder.next(record)) {
+                line.setLength(0);
+                record.appendTo(line, dateFormat);
+                out.println(line);
+            }
+        }
+
+        out.flush();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Runs a {@link LogCollectorServer} on a workstation and prints what devices send to stdout:
+ * <pre>
+ * java -cp tools/build/libs/phoenix-log-tools.jar com.phoenix.lib.log.LogCollectorMain 7070
+ * </pre>
+ */
+public final class LogCollectorMain {
+    private LogCollectorMain() {
+
+    }
+
+    /**
+     * Listens on the given port, {@link LogCollectorServer#DEFAULT_PORT} by default, and prints to stdout.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = LogCollectorServer.DEFAULT_PORT;
+
+        if (args.length > 0) {
+            try {
+                port = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                System.err.println("usage: LogCollectorMain [port]");
+                System.exit(2);
+            }
+        }
+
+        LogCollectorServer server = new LogCollectorServer(port, new PrintWriter(new OutputStreamWriter(System.out, Utf8.UTF_8)));
+        System.err.println("Collecting logs on TCP and UDP port " + server.getPort());
+        server.run();
+    }
+}
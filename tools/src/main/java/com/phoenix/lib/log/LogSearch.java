@@ -0,0 +1,809 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Searches exported log segments in parallel and prints the matches in time order. Part of the
+ * workstation {@code tools} module rather than the library, since it uses fork/join, which
+ * Android only offers from API 21.
+ * <pre>
+ * java -cp tools/build/libs/phoenix-log-tools.jar com.phoenix.lib.log.LogSearch -l W -T MediaPlayerWrapper -e "prepare.*failed" bundle/
+ * </pre>
+ * Every segment is memory-mapped, or inflated if gzipped, and searched by its own fork/join
+ * task; the per-segment results are merged by time as the tasks join. Understands what the
+ * library's sinks write:
+ * <ul>
+ * <li>binary segments ({@code .plog}), skipped without being opened when their
+ * {@link SegmentIndex} rules out a match;</li>
+ * <li>JSON lines ({@code .jsonl}), whose extra fields are searched as {@code key=value};</li>
+ * <li>the default text line ({@code .log}). It has no level, so a level filter excludes it, and
+ * lines that don't start with a timestamp continue the previous entry.</li>
+ * </ul>
+ */
+public class LogSearch {
+    private static final String COMPRESSED_SUFFIX = ".gz";
+    private static final String BINARY_SUFFIX = ".plog";
+    private static final String JSON_SUFFIX = ".jsonl";
+    private static final String TEXT_SUFFIX = ".log";
+    private static final String DATE_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    private static final Pattern SEGMENT_DATE = Pattern.compile("-(\\d{4})\\d{4}-\\d{6}-\\d{3}\\.");
+    private static final Comparator<BinaryLogDecoder.Record> BY_TIME = new Comparator<BinaryLogDecoder.Record>() {
+        @Override
+        public int compare(BinaryLogDecoder.Record lhs, BinaryLogDecoder.Record rhs) {
+            return (lhs.timeMillis < rhs.timeMillis) ? -1 : ((lhs.timeMillis == rhs.timeMillis) ? 0 : 1);
+        }
+    };
+
+    private final long mFromMillis;
+    private final long mToMillis;
+    private final int mLevelMask;
+    private final Set<String> mTags;
+    private final Pattern mPattern;
+    private final int mParallelism;
+
+    private LogSearch(Builder builder) {
+        mFromMillis = builder.mFromMillis;
+        mToMillis = builder.mToMillis;
+        mLevelMask = builder.mLevelMask;
+        mTags = (builder.mTags == null) ? null : new HashSet<String>(builder.mTags);
+        mPattern = builder.mPattern;
+        mParallelism = builder.mParallelism;
+    }
+
+    /**
+     * @param paths segments, or directories to search every segment in.
+     *
+     * @return the matching entries of all segments, in time order. Entries of text segments
+     * have level 0.
+     */
+    public List<BinaryLogDecoder.Record> search(File... paths) {
+        List<File> segments = new ArrayList<File>();
+
+        for (File path : paths) {
+            addSegments(path, segments);
+        }
+
+        if (segments.isEmpty()) {
+            return new ArrayList<BinaryLogDecoder.Record>();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(mParallelism);
+
+        try {
+            return pool.invoke(new SearchTask(segments, 0, segments.size()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void addSegments(File path, List<File> out) {
+        if (path.isDirectory()) {
+            File[] children = path.listFiles();
+
+            if (children != null) {
+                Arrays.sort(children);
+
+                for (File child : children) {
+                    if (child.isFile() && getLayoutSuffix(child) != null) {
+                        out.add(child);
+                    }
+                }
+            }
+        } else {
+            out.add(path);
+        }
+    }
+
+    /**
+     * @return the suffix of the layout the segment was written in, null if it is not a segment.
+     */
+    private static String getLayoutSuffix(File segment) {
+        String name = segment.getName();
+
+        if (name.endsWith(COMPRESSED_SUFFIX)) {
+            name = name.substring(0, name.length() - COMPRESSED_SUFFIX.length());
+        }
+
+        if (name.endsWith(BINARY_SUFFIX)) {
+            return BINARY_SUFFIX;
+        } else if (name.endsWith(JSON_SUFFIX)) {
+            return JSON_SUFFIX;
+        } else if (name.endsWith(TEXT_SUFFIX)) {
+            return TEXT_SUFFIX;
+        }
+
+        return null;
+    }
+
+    private static ByteBuffer load(File segment) throws IOException {
+        if (segment.getName().endsWith(COMPRESSED_SUFFIX)) {
+            return ByteBuffer.wrap(BinaryLogDecoder.readFully(segment));
+        }
+
+        FileInputStream in = new FileInputStream(segment);
+
+        try {
+            FileChannel channel = in.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            in.close();
+        }
+    }
+
+    private static int levelFromLetter(char letter) {
+        for (int level = 0; level < 32; level++) {
+            if (BinaryLogFormat.levelLetter(level) == Character.toUpperCase(letter)) {
+                return level;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Prints the entries matching the options to stdout.
+     */
+    public static void main(String[] args) {
+        Builder builder = new Builder();
+        List<File> paths = new ArrayList<File>();
+        String regex = null;
+        boolean ignoreCase = false;
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_PATTERN, Locale.US);
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+
+                if ("-f".equals(arg)) {
+                    from = dateFormat.parse(args[++i]).getTime();
+                } else if ("-t".equals(arg)) {
+                    to = dateFormat.parse(args[++i]).getTime();
+                } else if ("-l".equals(arg)) {
+                    builder.setMinLevel(args[++i].charAt(0));
+                } else if ("-T".equals(arg)) {
+                    builder.addTag(args[++i]);
+                } else if ("-e".equals(arg)) {
+                    regex = args[++i];
+                } else if ("-i".equals(arg)) {
+                    ignoreCase = true;
+                } else if ("-j".equals(arg)) {
+                    builder.setParallelism(Integer.parseInt(args[++i]));
+                } else if (arg.startsWith("-")) {
+                    throw new IllegalArgumentException(arg);
+                } else {
+                    paths.add(new File(arg));
+                }
+            }
+
+            if (regex != null) {
+                builder.setPattern(Pattern.compile(regex, ignoreCase ? Pattern.CASE_INSENSITIVE : 0));
+            }
+        } catch (ParseException | RuntimeException e) {
+            paths.clear();
+        }
+
+        if (paths.isEmpty()) {
+            System.err.println("usage: LogSearch [-l V|D|I|W|E|A] [-T tag]... [-f \"" + DATE_PATTERN + "\"] [-t \"" + DATE_PATTERN
+                    + "\"] [-e regex] [-i] [-j threads] <segment or directory>...");
+            System.exit(2);
+        }
+
+        builder.setTimeRange(from, to);
+
+        long start = System.nanoTime();
+        List<BinaryLogDecoder.Record> records = builder.build().search(paths.toArray(new File[paths.size()]));
+        long elapsed = System.nanoTime() - start;
+
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, Utf8.UTF_8));
+        SimpleDateFormat recordDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+        StringBuilder line = new StringBuilder(256);
+
+        for (BinaryLogDecoder.Record record : records) {
+            line.setLength(0);
+            record.appendTo(line, recordDateFormat);
+            out.println(line);
+        }
+
+        out.flush();
+        System.err.println(records.size() + " entries in " + elapsed / 1000000 + " ms");
+    }
+
+    /**
+     * Searches {@code [from, to)} of the segments, splitting until each task has one segment.
+     */
+    private class SearchTask extends RecursiveTask<List<BinaryLogDecoder.Record>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<File> mSegments;
+        private final int mFrom;
+        private final int mTo;
+
+        SearchTask(List<File> segments, int from, int to) {
+            mSegments = segments;
+            mFrom = from;
+            mTo = to;
+        }
+
+        @Override
+        protected List<BinaryLogDecoder.Record> compute() {
+            if (mTo - mFrom == 1) {
+                File segment = mSegments.get(mFrom);
+
+                try {
+                    List<BinaryLogDecoder.Record> records = new SegmentSearch(segment).run();
+                    // Threads log out of order by a few millis; a stable sort keeps ties in file order.
+                    Collections.sort(records, BY_TIME);
+                    return records;
+                } catch (IOException | RuntimeException e) {
+                    System.err.println(segment + ": " + e);
+                    return new ArrayList<BinaryLogDecoder.Record>();
+                }
+            }
+
+            int middle = (mFrom + mTo) >>> 1;
+            SearchTask left = new SearchTask(mSegments, mFrom, middle);
+            left.fork();
+            List<BinaryLogDecoder.Record> right = new SearchTask(mSegments, middle, mTo).compute();
+            return merge(left.join(), right);
+        }
+
+        private List<BinaryLogDecoder.Record> merge(List<BinaryLogDecoder.Record> left, List<BinaryLogDecoder.Record> right) {
+            if (left.isEmpty()) {
+                return right;
+            } else if (right.isEmpty()) {
+                return left;
+            }
+
+            List<BinaryLogDecoder.Record> merged = new ArrayList<BinaryLogDecoder.Record>(left.size() + right.size());
+            int i = 0;
+            int j = 0;
+
+            while (i < left.size() && j < right.size()) {
+                // Ties go to the left, the earlier segment.
+                merged.add((BY_TIME.compare(right.get(j), left.get(i)) < 0) ? right.get(j++) : left.get(i++));
+            }
+
+            merged.addAll(left.subList(i, left.size()));
+            merged.addAll(right.subList(j, right.size()));
+            return merged;
+        }
+    }
+
+    /**
+     * Searches a single segment. Not shared between threads.
+     */
+    private class SegmentSearch {
+        private final File mSegment;
+        private final List<BinaryLogDecoder.Record> mMatches = new ArrayList<BinaryLogDecoder.Record>();
+        private final Matcher mMatcher = (mPattern == null) ? null : mPattern.matcher("");
+        private final StringBuilder mText = new StringBuilder(256);
+        private BinaryLogDecoder.Record mRecord = new BinaryLogDecoder.Record();
+
+        SegmentSearch(File segment) {
+            mSegment = segment;
+        }
+
+        List<BinaryLogDecoder.Record> run() throws IOException {
+            String suffix = getLayoutSuffix(mSegment);
+
+            if (BINARY_SUFFIX.equals(suffix)) {
+                searchBinary();
+            } else if (JSON_SUFFIX.equals(suffix) || TEXT_SUFFIX.equals(suffix)) {
+                CharBuffer chars = Utf8.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                        .decode(load(mSegment));
+
+                if (JSON_SUFFIX.equals(suffix)) {
+                    searchJson(chars);
+                } else {
+                    searchText(chars);
+                }
+            } else {
+                throw new IOException("Unknown log layout");
+            }
+
+            return mMatches;
+        }
+
+        /**
+         * Keeps the current record if it matches and starts a new one.
+         */
+        private void offer() {
+            BinaryLogDecoder.Record record = mRecord;
+
+            if (record.timeMillis < mFromMillis || record.timeMillis > mToMillis
+                    || ((1 << (record.level & 0x1F)) & mLevelMask) == 0
+                    || (mTags != null && !mTags.contains(record.tag))
+                    || (mMatcher != null && !mMatcher.reset(record.msg).find())) {
+                return;
+            }
+
+            mMatches.add(record);
+            mRecord = new BinaryLogDecoder.Record();
+        }
+
+        private void searchBinary() throws IOException {
+            try {
+                SegmentIndex index = SegmentIndex.read(SegmentIndex.fileFor(mSegment));
+
+                if (index != null && !index.mayMatch(mFromMillis, mToMillis, mLevelMask, mTags)) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Search the whole segment instead.
+            }
+
+            BinaryLogDecoder decoder = new BinaryLogDecoder(load(mSegment));
+
+            while (decoder.next(mRecord)) {
+                offer();
+            }
+        }
+
+        private void searchJson(CharBuffer chars) {
+            JsonLine json = new JsonLine();
+            int length = chars.length();
+            int start = 0;
+
+            while (start < length) {
+                int end = indexOf(chars, '\n', start);
+
+                if (json.parse(chars, start, end)) {
+                    mRecord.timeMillis = json.mTime;
+                    mRecord.level = json.mLevel;
+                    mRecord.tag = json.mTag;
+                    mRecord.threadId = json.mThread;
+                    mRecord.msg = json.mMsg.toString();
+                    mRecord.offset = start;
+                    offer();
+                }
+
+                start = end + 1;
+            }
+        }
+
+        /**
+         * Parses the default line, {@code MM-dd HH:mm:ss.SSS thread [tag]:message}. The year
+         * comes from the segment name, or the file's modification time.
+         */
+        private void searchText(CharBuffer chars) {
+            Calendar calendar = Calendar.getInstance();
+            int year = calendar.get(Calendar.YEAR);
+            Matcher name = SEGMENT_DATE.matcher(mSegment.getName());
+
+            if (name.find()) {
+                year = Integer.parseInt(name.group(1));
+            } else if (mSegment.lastModified() > 0) {
+                calendar.setTimeInMillis(mSegment.lastModified());
+                year = calendar.get(Calendar.YEAR);
+            }
+
+            int length = chars.length();
+            int start = 0;
+            int lastMonth = -1;
+            String minuteKey = null;
+            long minuteMillis = 0;
+            boolean pending = false;
+
+            while (start < length) {
+                int end = indexOf(chars, '\n', start);
+                int close = (end - start > 22 && isTimestamp(chars, start)) ? indexOf(chars, "]:", start + 20, end) : -1;
+                int space = (close > 0) ? indexOf(chars, ' ', start + 19) : -1;
+
+                if (close < 0 || space < 0 || space > close || chars.charAt(space + 1) != '[') {
+                    // A continuation line, like a stack frame.
+                    if (pending) {
+                        mText.append('\n').append(chars, start, trimCr(chars, start, end));
+                    }
+
+                    start = end + 1;
+                    continue;
+                }
+
+                if (pending) {
+                    mRecord.msg = mText.toString();
+                    offer();
+                }
+
+                String key = chars.subSequence(start, start + 11).toString();
+
+                if (!key.equals(minuteKey)) {
+                    int month = digits(chars, start, 2) - 1;
+
+                    if (lastMonth == Calendar.DECEMBER && month == Calendar.JANUARY) {
+                        year++;
+                    }
+
+                    lastMonth = month;
+                    calendar.clear();
+                    calendar.set(year, month, digits(chars, start + 3, 2), digits(chars, start + 6, 2), digits(chars, start + 9, 2));
+                    minuteKey = key;
+                    minuteMillis = calendar.getTimeInMillis();
+                }
+
+                mRecord.timeMillis = minuteMillis + digits(chars, start + 12, 2) * 1000L + digits(chars, start + 15, 3);
+                mRecord.level = 0;
+                mRecord.threadId = parseLong(chars, start + 19, space);
+                mRecord.tag = chars.subSequence(space + 2, close).toString();
+                mRecord.offset = start;
+                mText.setLength(0);
+                mText.append(chars, close + 2, trimCr(chars, close + 2, end));
+                pending = true;
+                start = end + 1;
+            }
+
+            if (pending) {
+                mRecord.msg = mText.toString();
+                offer();
+            }
+        }
+    }
+
+    private static boolean isTimestamp(CharSequence chars, int start) {
+        String shape = "00-00 00:00:00.000 0";
+
+        for (int i = 0; i < shape.length(); i++) {
+            char c = chars.charAt(start + i);
+            char expected = shape.charAt(i);
+
+            if ((expected == '0') ? (c < '0' || c > '9') : c != expected) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int digits(CharSequence chars, int start, int count) {
+        int value = 0;
+
+        for (int i = start; i < start + count; i++) {
+            value = value * 10 + (chars.charAt(i) - '0');
+        }
+
+        return value;
+    }
+
+    private static long parseLong(CharSequence chars, int start, int end) {
+        long value = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+
+    /**
+     * @return the index of {@code c} at or after {@code start}, or the length if there is none.
+     */
+    private static int indexOf(CharSequence chars, char c, int start) {
+        int length = chars.length();
+
+        for (int i = start; i < length; i++) {
+            if (chars.charAt(i) == c) {
+                return i;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * @return the index of {@code text} in {@code [start, end)}, or -1.
+     */
+    private static int indexOf(CharSequence chars, String text, int start, int end) {
+        outer:
+        for (int i = start; i <= end - text.length(); i++) {
+            for (int j = 0; j < text.length(); j++) {
+                if (chars.charAt(i + j) != text.charAt(j)) {
+                    continue outer;
+                }
+            }
+
+            return i;
+        }
+
+        return -1;
+    }
+
+    private static int trimCr(CharSequence chars, int start, int end) {
+        return (end > start && chars.charAt(end - 1) == '\r') ? end - 1 : end;
+    }
+
+    /**
+     * Reads the flat objects {@link JsonLogEncoder} writes. Members other than the standard ones
+     * are appended to the message as {@code key=value}.
+     */
+    private static class JsonLine {
+        final StringBuilder mMsg = new StringBuilder(256);
+        private final StringBuilder mString = new StringBuilder(64);
+        private final StringBuilder mExtra = new StringBuilder(64);
+        long mTime;
+        int mLevel;
+        String mTag;
+        long mThread;
+        private CharSequence mChars;
+        private int mPos;
+        private int mEnd;
+
+        /**
+         * @return false if the line is not a JSON object.
+         */
+        boolean parse(CharSequence chars, int start, int end) {
+            mChars = chars;
+            mPos = start;
+            mEnd = end;
+            mTime = 0;
+            mLevel = 0;
+            mTag = null;
+            mThread = 0;
+            mMsg.setLength(0);
+            mExtra.setLength(0);
+
+            try {
+                skipSpace();
+                expect('{');
+                skipSpace();
+
+                if (peek() == '}') {
+                    return false;
+                }
+
+                while (true) {
+                    skipSpace();
+                    String key = readString();
+                    skipSpace();
+                    expect(':');
+                    skipSpace();
+                    String value = readValue();
+
+                    if ("time".equals(key)) {
+                        mTime = Long.parseLong(value);
+                    } else if ("level".equals(key)) {
+                        mLevel = (value != null && value.length() == 1) ? Math.max(0, levelFromLetter(value.charAt(0))) : 0;
+                    } else if ("tag".equals(key)) {
+                        mTag = value;
+                    } else if ("thread".equals(key)) {
+                        mThread = Long.parseLong(value);
+                    } else if ("msg".equals(key)) {
+                        mMsg.append(value);
+                    } else {
+                        mExtra.append(' ').append(key).append('=').append(value);
+                    }
+
+                    skipSpace();
+
+                    if (peek() == ',') {
+                        mPos++;
+                    } else {
+                        expect('}');
+                        break;
+                    }
+                }
+
+                mMsg.append(mExtra);
+                return true;
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                return false;
+            }
+        }
+
+        private char peek() {
+            if (mPos >= mEnd) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            return mChars.charAt(mPos);
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw new IllegalArgumentException("Expected " + c);
+            }
+
+            mPos++;
+        }
+
+        private void skipSpace() {
+            while (mPos < mEnd && Character.isWhitespace(mChars.charAt(mPos))) {
+                mPos++;
+            }
+        }
+
+        /**
+         * @return strings unescaped, null for null, anything else as written.
+         */
+        private String readValue() {
+            char c = peek();
+
+            if (c == '"') {
+                return readString();
+            }
+
+            int start = mPos;
+            while (mPos < mEnd && ",}".indexOf(mChars.charAt(mPos)) < 0 && !Character.isWhitespace(mChars.charAt(mPos))) {
+                mPos++;
+            }
+
+            String value = mChars.subSequence(start, mPos).toString();
+            return "null".equals(value) ? null : value;
+        }
+
+        private String readString() {
+            expect('"');
+            mString.setLength(0);
+
+            while (true) {
+                char c = peek();
+                mPos++;
+
+                if (c == '"') {
+                    return mString.toString();
+                } else if (c != '\\') {
+                    mString.append(c);
+                    continue;
+                }
+
+                char escaped = peek();
+                mPos++;
+
+                switch (escaped) {
+                    case 'n':
+                        mString.append('\n');
+                        break;
+
+                    case 'r':
+                        mString.append('\r');
+                        break;
+
+                    case 't':
+                        mString.append('\t');
+                        break;
+
+                    case 'b':
+                        mString.append('\b');
+                        break;
+
+                    case 'f':
+                        mString.append('\f');
+                        break;
+
+                    case 'u':
+                        if (mPos + 4 > mEnd) {
+                            throw new IndexOutOfBoundsException();
+                        }
+
+                        mString.append((char) Integer.parseInt(mChars.subSequence(mPos, mPos + 4).toString(), 16));
+                        mPos += 4;
+                        break;
+
+                    default:
+                        mString.append(escaped);
+                        break;
+                }
+            }
+        }
+    }
+
+    public static class Builder {
+        private long mFromMillis = Long.MIN_VALUE;
+        private long mToMillis = Long.MAX_VALUE;
+        private int mLevelMask = -1;
+        private Set<String> mTags;
+        private Pattern mPattern;
+        private int mParallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * @param fromMillis earliest time, inclusive.
+         * @param toMillis   latest time, inclusive.
+         */
+        public Builder setTimeRange(long fromMillis, long toMillis) {
+            mFromMillis = fromMillis;
+            mToMillis = toMillis;
+            return this;
+        }
+
+        /**
+         * @param letter the logcat letter of the lowest level to match: V, D, I, W, E or A.
+         */
+        public Builder setMinLevel(char letter) {
+            int level = levelFromLetter(letter);
+
+            if (level < 0) {
+                throw new IllegalArgumentException("Unknown level " + letter);
+            }
+
+            mLevelMask = -1 << level;
+            return this;
+        }
+
+        /**
+         * Restricts the search to the given tags; may be called more than once.
+         */
+        public Builder addTag(String tag) {
+            if (mTags == null) {
+                mTags = new HashSet<String>();
+            }
+
+            mTags.add(tag);
+            return this;
+        }
+
+        /**
+         * @param pattern found anywhere in the message, or null to match every message.
+         */
+        public Builder setPattern(Pattern pattern) {
+            mPattern = pattern;
+            return this;
+        }
+
+        /**
+         * @param threads number of segments searched at once, the number of cores by default.
+         */
+        public Builder setParallelism(int threads) {
+            mParallelism = Math.max(1, threads);
+            return this;
+        }
+
+        public LogSearch build() {
+            return new LogSearch(this);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 phoenix-lib
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.phoenix.lib.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+
+/**
+ * Queries exported segments with a {@link LogStore} and prints the matches to stdout:
+ * <pre>
+ * java -cp tools/build/libs/phoenix-log-tools.jar com.phoenix.lib.log.LogStoreMain logs -l E -T MediaPlayerWrapper \
+ *     -f "2026-10-18 10:02:00" -t "2026-10-18 10:05:00"
+ * </pre>
+ */
+public final class LogStoreMain {
+    private static final String DATE_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    private LogStoreMain() {
+
+    }
+
+    /**
+     * Prints the entries matching the options to stdout.
+     */
+    public static void main(String[] args) throws IOException {
+        String name = "log";
+        File directory = null;
+        LogStore.Query query = new LogStore.Query();
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_PATTERN, Locale.US);
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+
+                if ("-n".equals(arg)) {
+                    name = args[++i];
+                } else if ("-f".equals(arg)) {
+                    from = dateFormat.parse(args[++i]).getTime();
+                } else if ("-t".equals(arg)) {
+                    to = dateFormat.parse(args[++i]).getTime();
+                } else if ("-l".equals(arg)) {
+                    query.setMinLevel(args[++i].charAt(0));
+                } else if ("-T".equals(arg)) {
+                    query.addTag(args[++i]);
+                } else if (directory == null && !arg.startsWith("-")) {
+                    directory = new File(arg);
+                } else {
+                    throw new IllegalArgumentException(arg);
+                }
+            }
+        } catch (ParseException | RuntimeException e) {
+            directory = null;
+        }
+
+        if (directory == null) {
+            System.err.println("usage: LogStoreMain <directory> [-n name] [-f \"" + DATE_PATTERN + "\"] [-t \"" + DATE_PATTERN + "\"] [-l V|D|I|W|E|A] [-T tag]...");
+            System.exit(2);
+        }
+
+        query.setTimeRange(from, to);
+
+        final PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, Utf8.UTF_8));
+        final SimpleDateFormat recordDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+        final StringBuilder line = new StringBuilder(256);
+        long start = System.nanoTime();
+
+        int matches = new LogStore(directory, name).query(query, new LogStore.Visitor() {
+            @Override
+            public boolean onRecord(BinaryLogDecoder.Record record) {
+                line.setLength(0);
+                record.appendTo(line, recordDateFormat);
+                out.println(line);
+                return true;
+            }
+        });
+
+        out.flush();
+        System.err.println(matches + " entries in " + (System.nanoTime() - start) / 1000000 + " ms, searched "
+                + query.getSegmentsSearched() + " segments, skipped " + query.getSegmentsSkipped() + " segments and "
+                + query.getBlocksSkipped() + " blocks");
+    }
+}